@@ -0,0 +1,307 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Local cache for documents downloaded from HTTP servers. Cached documents are revalidated on every request by means of
+ * conditional requests ("If-None-Match" and "If-Modified-Since"), so that an unchanged document is not downloaded again.
+ * A downloaded file is shared by all connections which use the same version of the document. It is deleted, when it was replaced by
+ * a newer version or evicted and is no longer used by any connection. Unused documents are evicted in least recently used order,
+ * as soon as total size of cached documents exceeds the maximum size. Files, which are still cached on exit of the JVM, are deleted by
+ * a single shutdown hook.
+ */
+class DownloadCache {
+
+    private final Map<String, Entry>  entries      = new LinkedHashMap<>( 16, 0.75f, true );
+    private final Map<String, DownloadLock> downloadLocks = new ConcurrentHashMap<>();
+
+    private Path                      directory;
+    private long                      maxSize;
+    private long                      totalSize;
+
+    /** Creates empty cache.
+     * @param directory directory for downloaded files or null to create a temporary directory on first download.
+     * @param maxSize maximum total size of cached documents in bytes.
+     */
+    DownloadCache( Path directory, long maxSize ) {
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /** Sets maximum total size of cached documents. Unused documents are evicted, if the new maximum size is exceeded.
+     * @param maxSize maximum total size of cached documents in bytes.
+     */
+    void setMaxSize( long maxSize ) {
+        List<Path> evicted;
+        synchronized( entries ) {
+            this.maxSize = maxSize;
+            evicted = evict();
+        }
+        evicted.forEach( ExcelDriver::deleteTempFile );
+    }
+
+    /** Returns total size of cached documents in bytes.
+     * @return total size of cached documents in bytes.
+     */
+    long getTotalSize() {
+        synchronized( entries ) {
+            return totalSize;
+        }
+    }
+
+    /** Returns number of documents, for which downloads are in progress or waiting.
+     * @return number of download locks.
+     */
+    int getDownloadLockCount() {
+        return downloadLocks.size();
+    }
+
+    /** Returns local copy of the current version of the document at specified URL. The document is downloaded, if it is not cached yet
+     * or was modified on the server. The returned lease must be released, when the file is not used anymore.
+     * @param url URL of the document. Must use HTTP or HTTPS protocol.
+     * @return lease for local copy of the document.
+     * @throws IOException if an I/O error has occurred or the server responded with an unexpected status.
+     */
+    Lease acquire( URL url ) throws IOException {
+        String key = url.toExternalForm();
+        // concurrent requests for the same document wait for a single download; the lock is removed when it is not used anymore
+        DownloadLock lock = downloadLocks.compute( key, ( k, current ) -> {
+            DownloadLock result = current == null ? new DownloadLock() : current;
+            result.users++;
+            return result;
+        } );
+        try {
+            synchronized( lock ) {
+                return acquire( url, key );
+            }
+        } finally {
+            downloadLocks.computeIfPresent( key, ( k, current ) -> --current.users == 0 ? null : current );
+        }
+    }
+
+    /** Returns local copy of the current version of the document at specified URL, while holding the download lock of the document.
+     * @param url URL of the document. Must use HTTP or HTTPS protocol.
+     * @param key key of the document.
+     * @return lease for local copy of the document.
+     * @throws IOException if an I/O error has occurred or the server responded with an unexpected status.
+     */
+    private Lease acquire( URL url, String key ) throws IOException {
+        Entry cached;
+        synchronized( entries ) {
+            cached = entries.get( key );
+        }
+
+        URLConnection urlConnection = url.openConnection();
+        if( !(urlConnection instanceof HttpURLConnection) ) {
+            throw new IOException( "Download cache supports only HTTP URLs: " + url );
+        }
+        HttpURLConnection connection = (HttpURLConnection)urlConnection;
+        if( cached != null ) {
+            if( cached.eTag != null ) {
+                connection.setRequestProperty( "If-None-Match", cached.eTag );
+            }
+            if( cached.lastModified != null ) {
+                connection.setRequestProperty( "If-Modified-Since", cached.lastModified );
+            }
+        }
+        try {
+            int status = connection.getResponseCode();
+            if( status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null ) {
+                synchronized( entries ) {
+                    if( entries.get( key ) == cached ) {
+                        cached.refCount++;
+                        return new Lease( cached );
+                    }
+                }
+                // entry was evicted in the meantime, so the document is requested once more without validators
+                return acquire( url, key );
+            }
+            if( status != HttpURLConnection.HTTP_OK ) {
+                throw new IOException( "Server returned status " + status + " for " + url );
+            }
+            return new Lease( store( key, connection ) );
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /** Downloads the document of specified response and adds it to the cache, replacing a previous version.
+     * @param key key of the document.
+     * @param connection connection with successful response.
+     * @return new entry, which is already in use.
+     * @throws IOException if an I/O error has occurred.
+     */
+    private Entry store( String key, HttpURLConnection connection ) throws IOException {
+        Path file;
+        synchronized( entries ) {
+            if( directory == null ) {
+                directory = Files.createTempDirectory( "inetexcel" );
+                Path tempDirectory = directory;
+                Runtime.getRuntime().addShutdownHook( new Thread( () -> deleteDirectory( tempDirectory ), "ExcelDriver-download-cache-cleanup" ) );
+            }
+            file = Files.createTempFile( directory, null, ".xlsx" );
+        }
+        long size;
+        try( InputStream in = connection.getInputStream() ) {
+            size = Files.copy( in, file, StandardCopyOption.REPLACE_EXISTING );
+        } catch( IOException ex ) {
+            ExcelDriver.deleteTempFile( file );
+            throw ex;
+        }
+
+        String eTag = connection.getHeaderField( "ETag" );
+        String lastModified = connection.getHeaderField( "Last-Modified" );
+        Entry entry = new Entry( file, size, eTag, lastModified );
+        entry.refCount = 1;
+
+        List<Path> obsoleteFiles = new ArrayList<>();
+        synchronized( entries ) {
+            Entry previous = entries.remove( key );
+            if( previous != null ) {
+                totalSize -= previous.size;
+                previous.removed = true;
+                if( previous.refCount == 0 ) {
+                    obsoleteFiles.add( previous.file );
+                }
+            }
+            if( eTag != null || lastModified != null ) {
+                entries.put( key, entry );
+                totalSize += size;
+                obsoleteFiles.addAll( evict() );
+            } else {
+                // without validators the document can not be revalidated, so it is used only once
+                entry.removed = true;
+            }
+        }
+        obsoleteFiles.forEach( ExcelDriver::deleteTempFile );
+        return entry;
+    }
+
+    /** Deletes specified temporary directory and all files in it.
+     * @param directory the directory.
+     */
+    private static void deleteDirectory( Path directory ) {
+        try( DirectoryStream<Path> files = Files.newDirectoryStream( directory ) ) {
+            files.forEach( ExcelDriver::deleteTempFile );
+        } catch( IOException ex ) {
+            // ignore
+        }
+        ExcelDriver.deleteTempFile( directory );
+    }
+
+    /** Removes unused entries in least recently used order, until total size does not exceed maximum size.
+     * Must be called while holding the lock of the entries.
+     * @return files of removed entries, which must be deleted.
+     */
+    private List<Path> evict() {
+        List<Path> evicted = new ArrayList<>();
+        for( Iterator<Entry> iterator = entries.values().iterator(); totalSize > maxSize && iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if( entry.refCount == 0 ) {
+                iterator.remove();
+                entry.removed = true;
+                totalSize -= entry.size;
+                evicted.add( entry.file );
+            }
+        }
+        return evicted;
+    }
+
+    /** Releases specified entry. Its file is deleted, if it is no longer cached and not used anymore.
+     * @param entry entry to release.
+     */
+    private void release( Entry entry ) {
+        List<Path> obsoleteFiles;
+        synchronized( entries ) {
+            entry.refCount--;
+            if( entry.removed ) {
+                obsoleteFiles = entry.refCount == 0 ? List.of( entry.file ) : List.of();
+            } else {
+                obsoleteFiles = evict();
+            }
+        }
+        obsoleteFiles.forEach( ExcelDriver::deleteTempFile );
+    }
+
+    /** Lock for downloads of a document, which is shared by concurrent requests.
+     */
+    private static class DownloadLock {
+        private int users; // guarded by compute functions of the map of locks
+    }
+
+    /** Cached version of a document.
+     */
+    private static class Entry {
+        private final Path   file;
+        private final long   size;
+        private final String eTag;
+        private final String lastModified;
+        private int          refCount;
+        private boolean      removed;
+
+        private Entry( Path file, long size, String eTag, String lastModified ) {
+            this.file = file;
+            this.size = size;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /** Usage of a cached document by a single connection.
+     */
+    class Lease {
+        private final Entry entry;
+        private boolean     released;
+
+        private Lease( Entry entry ) {
+            this.entry = entry;
+        }
+
+        /** Returns local copy of the document.
+         * @return local copy of the document.
+         */
+        Path getFile() {
+            return entry.file;
+        }
+
+        /** Releases the document, so that it may be evicted. Subsequent calls have no effect.
+         */
+        void release() {
+            synchronized( this ) {
+                if( released ) {
+                    return;
+                }
+                released = true;
+            }
+            DownloadCache.this.release( entry );
+        }
+    }
+}
@@ -64,7 +64,7 @@ class ExcelCallableStatement extends ExcelStatement implements CallableStatement
     @Override
     public ResultSet executeQuery() throws SQLException {
         throwIfAlreadyClosed();
-        return new ExcelSheetResultSet( getParser(), sheetName, 50 );
+        return createResultSet( sheetName );
     }
 
     /**
@@ -30,11 +30,14 @@ import java.sql.SQLXML;
 import java.sql.Savepoint;
 import java.sql.Statement;
 import java.sql.Struct;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.Executor;
 
 import com.inet.excel.parser.ExcelParser;
+import com.inet.excel.parser.ExcelStatistics;
+import com.inet.excel.parser.ValueType;
 
 /** Connection intended to be returned by {@link ExcelDriver} in order to read data from Excel documents.
  */
@@ -56,6 +59,31 @@ public class ExcelConnection implements Connection {
         this.parser = parser;
         this.onConnectionClose = onConnectionClose;
         this.closed = false;
+        ExcelStatistics.get().connectionOpened();
+    }
+
+    /** Returns component responsible for reading data from Excel document.
+     * @return component responsible for reading data from Excel document.
+     */
+    ExcelParser getParser() {
+        return parser;
+    }
+
+    /** Declares column names and column types of specified sheet, so that neither column headers nor column types are read from the sheet.
+     * The columns are taken in order, starting with column "A". Should be called before the sheet is accessed for the first time.
+     * The connection can be obtained by means of {@link #unwrap(Class)}.
+     * @param sheetName name of the sheet from Excel document.
+     * @param columnNames names of the columns.
+     * @param columnTypes types of the columns, in same order as column names.
+     * @throws SQLException if connection is closed or the declaration is invalid.
+     */
+    public void setSchemaHint( String sheetName, List<String> columnNames, List<ValueType> columnTypes ) throws SQLException {
+        throwIfAlreadyClosed();
+        try {
+            parser.setSchemaHint( sheetName, columnNames, columnTypes );
+        } catch( IllegalArgumentException e ) {
+            throw new SQLException( e.getMessage(), e );
+        }
     }
 
     /**
@@ -71,8 +99,10 @@ public class ExcelConnection implements Connection {
      */
     @Override
     public <T> T unwrap( Class<T> iface ) throws SQLException {
-        ExcelDriver.throwExceptionAboutUnsupportedOperation();
-        return null;
+        if( iface != null && iface.isInstance( this ) ) {
+            return iface.cast( this );
+        }
+        throw new SQLException( "Connection is not a wrapper for " + iface );
     }
 
     /**
@@ -80,8 +110,7 @@ public class ExcelConnection implements Connection {
      */
     @Override
     public boolean isWrapperFor( Class<?> iface ) throws SQLException {
-        ExcelDriver.throwExceptionAboutUnsupportedOperation();
-        return false;
+        return iface != null && iface.isInstance( this );
     }
 
     /**
@@ -156,8 +185,11 @@ public class ExcelConnection implements Connection {
      */
     @Override
     public void close() throws SQLException {
-        if( !closed && onConnectionClose != null ) {
-            onConnectionClose.run();
+        if( !closed ) {
+            parser.getMemoryBudget().releaseAll();
+            if( onConnectionClose != null ) {
+                onConnectionClose.run();
+            }
         }
         closed = true;
     }
@@ -17,6 +17,7 @@ package com.inet.excel;
 
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.PseudoColumnUsage;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.RowIdLifetime;
@@ -25,9 +26,9 @@ import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
 
 import com.inet.excel.parser.ExcelParser;
+import com.inet.excel.parser.SheetMetadata;
 import com.inet.excel.parser.ValueType;
 
 /** Implementation of {@link ResultSetMetaData} for {@link ExcelConnection}
@@ -38,6 +39,9 @@ public class ExcelDatabaseMetaData implements DatabaseMetaData {
 
     public static final String PRODUCT_NAME = "inetexcel";
 
+    /** Type of the tables, which represent the sheets of the Excel document. */
+    static final String        TABLE_TYPE   = "TABLE";
+
     private final ExcelParser parser;
 
     /** Constructor of the class.
@@ -99,7 +103,36 @@ public class ExcelDatabaseMetaData implements DatabaseMetaData {
     @Override
     public ResultSet getTables( String catalog, String schemaPattern, String tableNamePattern, String[] types ) throws SQLException {
         List<String> columnNames = Arrays.asList( "TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "TABLE_TYPE", "REMARKS", "TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME", "SELF_REFERENCING_COL_NAME", "REF_GENERATION" );
-        return new ExcelDatabaseResultSet( columnNames, new ArrayList<>() );
+        List<List<Object>> allRows = new ArrayList<>();
+        if( types != null && Arrays.stream( types ).noneMatch( TABLE_TYPE::equalsIgnoreCase ) ) {
+            return new ExcelDatabaseResultSet( columnNames, allRows );
+        }
+
+        try {
+            LikePattern tableNameFilter = LikePattern.compile( tableNamePattern );
+            for( String sheetName : parser.getSheetNames() ) {
+                if( !tableNameFilter.matches( sheetName ) ) {
+                    continue;
+                }
+                List<Object> row = new ArrayList<>();
+                row.add( parser.getFileName() );
+                row.add( null );
+                row.add( sheetName );
+                row.add( TABLE_TYPE );
+                row.add( "" );
+                row.add( null );
+                row.add( null );
+                row.add( null );
+                row.add( null );
+                row.add( null );
+
+                allRows.add( row );
+            }
+        } catch( Exception ex ) {
+            throw new SQLException( ex );
+        }
+
+        return new ExcelDatabaseResultSet( columnNames, allRows );
     }
 
     /**
@@ -111,7 +144,72 @@ public class ExcelDatabaseMetaData implements DatabaseMetaData {
                                                   "DECIMAL_DIGITS", "NUM_PREC_RADIX", "NULLABLE", "REMARKS", "COLUMN_DEF", "SQL_DATA_TYPE", "SQL_DATETIME_SUB", //
                                                   "CHAR_OCTET_LENGTH", "ORDINAL_POSITION", "IS_NULLABLE", "SCOPE_CATALOG", "SCOPE_SCHEMA", "SCOPE_TABLE", //
                                                   "SOURCE_DATA_TYPE", "IS_AUTOINCREMENT", "IS_GENERATEDCOLUMN" );
-        return new ExcelDatabaseResultSet( columnNames, new ArrayList<>() );
+        List<List<Object>> allRows = new ArrayList<>();
+
+        try {
+            LikePattern columnNameFilter = LikePattern.compile( columnNamePattern );
+            for( SheetMetadata metadata : getSheetMetadata( tableNamePattern ) ) {
+                String sheetName = metadata.getSheetName();
+                List<ValueType> columnTypes = metadata.getColumnTypes();
+                int colIndex = 0;
+                for( String colName : metadata.getColumnNames() ) {
+                    ValueType valueType = columnTypes.get( colIndex );
+
+                    colIndex++; // indexing starts with 1
+                    if( !columnNameFilter.matches( colName ) ) {
+                        continue;
+                    }
+
+                    List<Object> row = new ArrayList<>();
+                    row.add( parser.getFileName() );
+                    row.add( null );
+                    row.add( sheetName );
+                    row.add( colName );
+                    row.add( Integer.valueOf( getDataType( valueType ) ) );
+                    row.add( getDataTypeName( valueType ) );
+                    row.add( Integer.valueOf( COLUMN_SIZE_IN_BYTES ) );
+                    row.add( null );
+                    row.add( null );
+                    row.add( valueType == ValueType.NUMBER ? Integer.valueOf( 10 ) : null );
+                    row.add( Integer.valueOf( DatabaseMetaData.columnNullable ) );
+                    row.add( "" );
+                    row.add( null );
+                    row.add( null );
+                    row.add( null );
+                    row.add( Integer.valueOf( COLUMN_SIZE_IN_BYTES ) );
+                    row.add( Integer.valueOf( colIndex ) );
+                    row.add( "YES" );
+                    row.add( null );
+                    row.add( null );
+                    row.add( null );
+                    row.add( null );
+                    row.add( "NO" );
+                    row.add( "NO" );
+
+                    allRows.add( row );
+                }
+            }
+        } catch( Exception ex ) {
+            throw new SQLException( ex );
+        }
+
+        return new ExcelDatabaseResultSet( columnNames, allRows );
+    }
+
+    /** Returns column names and column types of all sheets matching specified pattern. Sheet names are filtered before any sheet is parsed.
+     * Matching sheets are parsed concurrently, but the result is in order of the sheets. Once parsed, metadata is served from the cache of the parser.
+     * @param sheetNamePattern search pattern for sheet names or null for all sheets.
+     * @return column names and column types of all matching sheets.
+     */
+    private List<SheetMetadata> getSheetMetadata( String sheetNamePattern ) {
+        LikePattern sheetNameFilter = LikePattern.compile( sheetNamePattern );
+        List<String> sheetNames = new ArrayList<>();
+        for( String sheetName : parser.getSheetNames() ) {
+            if( sheetNameFilter.matches( sheetName ) ) {
+                sheetNames.add( sheetName );
+            }
+        }
+        return parser.getSheetMetadata( sheetNames, ExcelDriver.getBackgroundExecutor() );
     }
 
     /**
@@ -387,7 +485,7 @@ public class ExcelDatabaseMetaData implements DatabaseMetaData {
      */
     @Override
     public String getSearchStringEscape() throws SQLException {
-        return "";
+        return String.valueOf( LikePattern.ESCAPE );
     }
 
     /**
@@ -1091,7 +1189,11 @@ public class ExcelDatabaseMetaData implements DatabaseMetaData {
         List<List<Object>> allRows = new ArrayList<>();
 
         try {
+            LikePattern procedureNameFilter = LikePattern.compile( procedureNamePattern );
             for( String sheetName : parser.getSheetNames() ) {
+                if( !procedureNameFilter.matches( sheetName ) ) {
+                    continue;
+                }
                 List<Object> row = new ArrayList<>();
                 row.add( parser.getFileName() );
                 row.add( null );
@@ -1124,17 +1226,18 @@ public class ExcelDatabaseMetaData implements DatabaseMetaData {
         List<List<Object>> allRows = new ArrayList<>();
 
         try {
-            for( String sheetName : parser.getSheetNames() ) {
-                if( procedureNamePattern != null && !Objects.equals( sheetName, procedureNamePattern ) ) {
-                    continue;
-                }
-
-                List<ValueType> columnTypes = parser.getColumnTypes( sheetName );
+            LikePattern columnNameFilter = LikePattern.compile( columnNamePattern );
+            for( SheetMetadata metadata : getSheetMetadata( procedureNamePattern ) ) {
+                String sheetName = metadata.getSheetName();
+                List<ValueType> columnTypes = metadata.getColumnTypes();
                 int colIndex = 0;
-                for( String colName : parser.getColumnNames( sheetName ) ) {
+                for( String colName : metadata.getColumnNames() ) {
                     ValueType valueType = columnTypes.get( colIndex );
 
                     colIndex++; // indexing starts with 1
+                    if( !columnNameFilter.matches( colName ) ) {
+                        continue;
+                    }
 
                     List<Object> row = new ArrayList<>();
                     row.add( parser.getFileName() );
@@ -1192,7 +1295,9 @@ public class ExcelDatabaseMetaData implements DatabaseMetaData {
     @Override
     public ResultSet getTableTypes() throws SQLException {
         List<String> columnNames = Arrays.asList( "TABLE_TYPE" );
-        return new ExcelDatabaseResultSet( columnNames, new ArrayList<>() );
+        List<List<Object>> allRows = new ArrayList<>();
+        allRows.add( Arrays.asList( TABLE_TYPE ) );
+        return new ExcelDatabaseResultSet( columnNames, allRows );
     }
 
     /**
@@ -1603,8 +1708,40 @@ public class ExcelDatabaseMetaData implements DatabaseMetaData {
      */
     @Override
     public ResultSet getPseudoColumns( String catalog, String schemaPattern, String tableNamePattern, String columnNamePattern ) throws SQLException {
-        ExcelDriver.throwExceptionAboutUnsupportedOperation();
-        return null;
+        List<String> columnNames = Arrays.asList( "TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME", "COLUMN_NAME", "DATA_TYPE", "COLUMN_SIZE", "DECIMAL_DIGITS", //
+                                                  "NUM_PREC_RADIX", "COLUMN_USAGE", "REMARKS", "CHAR_OCTET_LENGTH", "IS_NULLABLE" );
+        List<List<Object>> allRows = new ArrayList<>();
+
+        try {
+            LikePattern tableNameFilter = LikePattern.compile( tableNamePattern );
+            if( !LikePattern.compile( columnNamePattern ).matches( ExcelSheetResultSet.ROW_NUMBER_COLUMN ) ) {
+                return new ExcelDatabaseResultSet( columnNames, allRows );
+            }
+            for( String sheetName : parser.getSheetNames() ) {
+                if( !tableNameFilter.matches( sheetName ) ) {
+                    continue;
+                }
+                List<Object> row = new ArrayList<>();
+                row.add( parser.getFileName() );
+                row.add( null );
+                row.add( sheetName );
+                row.add( ExcelSheetResultSet.ROW_NUMBER_COLUMN );
+                row.add( Integer.valueOf( Types.INTEGER ) );
+                row.add( Integer.valueOf( 10 ) );
+                row.add( Integer.valueOf( 0 ) );
+                row.add( Integer.valueOf( 10 ) );
+                row.add( PseudoColumnUsage.NO_USAGE_RESTRICTIONS.name() );
+                row.add( "Index of the row in the sheet" );
+                row.add( null );
+                row.add( "NO" );
+
+                allRows.add( row );
+            }
+        } catch( Exception ex ) {
+            throw new SQLException( ex );
+        }
+
+        return new ExcelDatabaseResultSet( columnNames, allRows );
     }
 
     /**
@@ -29,6 +29,7 @@ public class ExcelDatabaseResultSet extends ExcelResultSet {
     private List<List<Object>> rows;
     private int currentRowIndex;
     private boolean wasNull;
+    private ResultSetMetaData metaData;
 
     /** Constructor of the class.
      * @param columnNames list of column names.
@@ -75,9 +76,12 @@ public class ExcelDatabaseResultSet extends ExcelResultSet {
      */
     @Override
     public ResultSetMetaData getMetaData() throws SQLException {
-        List<String> columnNames = getColumnNames();
-        List<ValueType> columnTypes = Collections.nCopies( columnNames.size(), ValueType.VARCHAR );
-        return new ExcelSheetResultSetMetaData( "", "", columnNames, columnTypes );
+        if( metaData == null ) {
+            List<String> columnNames = getColumnNames();
+            List<ValueType> columnTypes = Collections.nCopies( columnNames.size(), ValueType.VARCHAR );
+            metaData = new ExcelSheetResultSetMetaData( "", "", columnNames, columnTypes );
+        }
+        return metaData;
     }
 
     /**
@@ -15,23 +15,47 @@
  */
 package com.inet.excel;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverPropertyInfo;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import com.inet.excel.parser.ExcelParser;
+import com.inet.excel.parser.HttpRangeArchive;
+import com.inet.excel.parser.MemoryBudget;
+import com.inet.excel.parser.RowCountMode;
+import com.inet.excel.parser.StreamArchive;
+import com.inet.excel.parser.ValueType;
+import com.inet.excel.parser.WarmUp;
 
 /** Implementation of JDBC Driver, which allows to read data from Excel documents.
  */
@@ -42,6 +66,111 @@ public class ExcelDriver implements Driver {
     public static final int    MAJOR_VERSION = 1;
     public static final int    MINOR_VERSION = 7;
 
+    /** Name of the property, which specifies whether first row in sheet represents column headers. Default is "true". */
+    public static final String PROPERTY_HAS_HEADER_ROW       = "hasHeaderRow";
+
+    /** Name of the connection property, which may contain the content of Excel document as <code>byte[]</code>, {@link ByteBuffer} or
+     * {@link InputStream}. If set, the document is read from memory or, in case of a stream, in a single pass and the file path of the URL is used only as file name of the document. */
+    public static final String PROPERTY_DATA                 = "data";
+
+    /** Name of the property, which specifies maximum size in bytes of a document that is held in memory.
+     * Larger documents are spilled to a temporary file. */
+    public static final String PROPERTY_IN_MEMORY_THRESHOLD  = "inMemoryThreshold";
+
+    /** Name of the property, which specifies whether a document from non-<code>file:</code> URL is read as stream in a single pass,
+     * without downloading it completely. Default is "false". */
+    public static final String PROPERTY_STREAM               = "stream";
+
+    /** Name of the property, which specifies whether a document from <code>http:</code> or <code>https:</code> URL is read by means of
+     * range requests, which fetch only the needed parts of the document. If the server does not support range requests, the document
+     * is downloaded completely. Default is "false". */
+    public static final String PROPERTY_RANGE_REQUESTS       = "rangeRequests";
+
+    /** Name of the property, which specifies maximum number of bytes cached from range requests per connection. Default is 32 MB. */
+    public static final String PROPERTY_RANGE_CACHE_SIZE     = "rangeCacheSize";
+
+    /** Name of the property, which specifies whether a document from <code>http:</code> or <code>https:</code> URL is kept in a local
+     * download cache, which is shared by all connections and revalidated with conditional requests. Default is "false". */
+    public static final String PROPERTY_DOWNLOAD_CACHE       = "downloadCache";
+
+    /** Name of the property, which specifies parts of Excel document to be parsed in background as soon as connection is created:
+     * comma separated list of "sheets" (sheet names, dimensions, column names and types), "styles", "sst" (shared strings) or "all". */
+    public static final String PROPERTY_WARMUP               = "warmup";
+
+    /** Name of the property, which specifies maximum number of cells per column probed to recognize column types. Negative value means
+     * no limit, zero disables probing so that all columns are VARCHAR. Default is 10. */
+    public static final String PROPERTY_TYPE_PROBE_CELLS     = "typeProbeCells";
+
+    /** Name of the property, which specifies maximum number of rows probed to recognize column types. Negative value means
+     * no limit, zero disables probing so that all columns are VARCHAR. Default is 30. */
+    public static final String PROPERTY_TYPE_PROBE_ROWS      = "typeProbeRows";
+
+    /** Name of the property, which specifies where rows are probed to recognize column types: "head" (first rows) or
+     * "adaptive" (head, middle and tail of the sheet). Default is "head". */
+    public static final String PROPERTY_TYPE_SAMPLING        = "typeSampling";
+
+    /** Name of the property, which specifies path of a schema file declaring column names and types of sheets, so that they are not
+     * read from the sheets. Every line declares one sheet in format of {@link Properties}, e.g. "Sheet1=Name:VARCHAR,Amount:NUMBER".
+     * Supported types are VARCHAR (default, if type is omitted), NUMBER, DATE, TIME and TIMESTAMP. */
+    public static final String PROPERTY_SCHEMA               = "schema";
+
+    /** Name of the property, which specifies how the number of rows of a sheet is determined: "dimension" (the dimension of the sheet,
+     * if the document was written by Microsoft Excel, otherwise scanning the rows), "scan" (always scanning the rows) or "verify"
+     * (like "dimension", but fails if the dimension does not match the rows). Default is "dimension". */
+    public static final String PROPERTY_ROW_COUNT            = "rowCount";
+
+    /** Name of the property, which specifies maximum number of rows scanned to determine the range of a sheet containing values.
+     * Sheets with smaller dimensions are scanned completely to remove trailing rows without values. Negative value means no limit.
+     * Default is 10000. */
+    public static final String PROPERTY_USED_RANGE_SCAN_ROWS = "usedRangeScanRows";
+
+    /** Name of the property, which specifies whether result sets contain only rows with values ("true"), so that gaps in the row numbering
+     * of a sheet do not produce rows whose values are all null. The index of a row in the sheet is available by the pseudo column
+     * {@link ExcelSheetResultSet#ROW_NUMBER_COLUMN}. Default is "false". */
+    public static final String PROPERTY_SKIP_EMPTY_ROWS      = "skipEmptyRows";
+
+    /** Name of the property, which specifies whether result sets find columns by labels differing only in case from the column name ("true"),
+     * if no column has exactly the label. Default is "false". */
+    public static final String PROPERTY_CASE_INSENSITIVE_LABELS = "caseInsensitiveLabels";
+
+    /** Name of the property, which specifies whether column display size, precision and scale of result sets are determined from all rows
+     * of a sheet ("true") in the pass, which probes the column types. Otherwise they are determined only if all rows of a sheet are probed,
+     * and the maximum sizes of Excel are reported for larger sheets. Default is "false". */
+    public static final String PROPERTY_EXACT_COLUMN_SIZES   = "exactColumnSizes";
+
+    /** Name of the property, which specifies the maximum number of bytes of heap memory of the connection for shared strings.
+     * Shared strings exceeding it are kept in a memory-mapped temporary file. Default is no limit of its own. */
+    public static final String PROPERTY_MEMORY_BUDGET        = "memoryBudget";
+
+    private static Executor    backgroundExecutor;
+
+    static final long          DEFAULT_DOWNLOAD_CACHE_SIZE   = 1024L * 1024 * 1024;
+
+    /** Name of the system property, which specifies maximum total size in bytes of all documents in the download cache, which is shared
+     * by all connections of the JVM. Default is 1 GB. It can be changed at runtime by {@link #setDownloadCacheSize(long)}. */
+    public static final String SYSTEM_PROPERTY_DOWNLOAD_CACHE_SIZE = "com.inet.excel.downloadCacheSize";
+
+    static final DownloadCache DOWNLOAD_CACHE                = new DownloadCache( null, Math.max( 0, Long.getLong( SYSTEM_PROPERTY_DOWNLOAD_CACHE_SIZE, DEFAULT_DOWNLOAD_CACHE_SIZE ) ) );
+
+    /** Name of the system property, which specifies maximum number of bytes of heap memory for shared strings of all connections of the JVM,
+     * see {@link MemoryBudget#global()}. Default is a quarter of the maximum heap size. It can be changed at runtime by
+     * {@link #setGlobalMemoryBudget(long)}. */
+    public static final String SYSTEM_PROPERTY_GLOBAL_MEMORY_BUDGET = "com.inet.excel.globalMemoryBudget";
+
+    static {
+        Long globalMemoryBudget = Long.getLong( SYSTEM_PROPERTY_GLOBAL_MEMORY_BUDGET );
+        if( globalMemoryBudget != null ) {
+            MemoryBudget.global().setLimit( Math.max( 0, globalMemoryBudget.longValue() ) );
+        }
+    }
+
+    static final long          DEFAULT_RANGE_CACHE_SIZE      = 32L * 1024 * 1024;
+
+    static final long          DEFAULT_IN_MEMORY_THRESHOLD   = 64L * 1024 * 1024;
+
+    /** Maximum size in bytes of a downloaded document, which can be held in a single array. */
+    private static final long  MAX_IN_MEMORY_SIZE            = Integer.MAX_VALUE - 16;
+
     /** Throws exception indicating that requested operation is not supported.
      * @throws SQLException exception indicating that requested operation is not supported.
      */
@@ -66,19 +195,20 @@ public class ExcelDriver implements Driver {
         }
 
         String filePath = null;
-        boolean hasHeaderRow = true;
+        Properties properties = new Properties();
+        if( info != null ) {
+            properties.putAll( info );
+        }
 
         if( questionMarkIndex == -1 ) {
             filePath = url;
         } else {
             filePath = url.substring( 0, questionMarkIndex );
             String propertiesPart = url.substring( questionMarkIndex + 1 );
-            String[] properties = propertiesPart.split( "&" );
-
-            for( String property : properties ) {
-                if( "hasHeaderRow=false".equalsIgnoreCase( property ) ) {
-                    hasHeaderRow = false;
-                    break;
+            for( String property : propertiesPart.split( "&" ) ) {
+                int equalsIndex = property.indexOf( '=' );
+                if( equalsIndex > 0 ) {
+                    properties.setProperty( property.substring( 0, equalsIndex ), property.substring( equalsIndex + 1 ) );
                 }
             }
         }
@@ -87,6 +217,102 @@ public class ExcelDriver implements Driver {
             throw new SQLException( "Excel file is not specified" );
         }
 
+        boolean hasHeaderRow = !"false".equalsIgnoreCase( getProperty( properties, PROPERTY_HAS_HEADER_ROW ) );
+        long inMemoryThreshold = getLongProperty( properties, PROPERTY_IN_MEMORY_THRESHOLD, DEFAULT_IN_MEMORY_THRESHOLD );
+        Set<WarmUp> warmUp = getWarmUpParts( getProperty( properties, PROPERTY_WARMUP ) );
+        int probedCellLimit = getIntProperty( properties, PROPERTY_TYPE_PROBE_CELLS, ExcelParser.DEFAULT_PROBED_CELL_LIMIT );
+        int probedRowLimit = getIntProperty( properties, PROPERTY_TYPE_PROBE_ROWS, ExcelParser.DEFAULT_PROBED_ROW_LIMIT );
+        String typeSampling = getProperty( properties, PROPERTY_TYPE_SAMPLING );
+        boolean adaptiveSampling = "adaptive".equalsIgnoreCase( typeSampling );
+        if( typeSampling != null && !adaptiveSampling && !typeSampling.isEmpty() && !"head".equalsIgnoreCase( typeSampling ) ) {
+            throw new SQLException( "Invalid value of property \"" + PROPERTY_TYPE_SAMPLING + "\": " + typeSampling );
+        }
+        String rowCount = getProperty( properties, PROPERTY_ROW_COUNT );
+        RowCountMode rowCountMode;
+        try {
+            rowCountMode = rowCount == null || rowCount.isEmpty() ? RowCountMode.DIMENSION : RowCountMode.valueOf( rowCount.trim().toUpperCase() );
+        } catch( IllegalArgumentException e ) {
+            throw new SQLException( "Invalid value of property \"" + PROPERTY_ROW_COUNT + "\": " + rowCount );
+        }
+        int usedRangeScanLimit = getIntProperty( properties, PROPERTY_USED_RANGE_SCAN_ROWS, ExcelParser.DEFAULT_USED_RANGE_SCAN_LIMIT );
+        String schema = getProperty( properties, PROPERTY_SCHEMA );
+        List<SchemaHint> schemaHints = new ArrayList<>();
+        if( schema != null && !schema.isEmpty() ) {
+            Properties declarations = readSchemaFile( schema );
+            for( String sheetName : declarations.stringPropertyNames() ) {
+                schemaHints.add( SchemaHint.parse( sheetName, declarations.getProperty( sheetName ) ) );
+            }
+        }
+
+        long memoryBudget = getLongProperty( properties, PROPERTY_MEMORY_BUDGET, Long.MAX_VALUE );
+        if( memoryBudget < 0 ) {
+            throw new SQLException( "Invalid value of property \"" + PROPERTY_MEMORY_BUDGET + "\": " + memoryBudget );
+        }
+
+        ExcelConnection connection = openConnection( filePath, properties, hasHeaderRow, inMemoryThreshold );
+        try {
+            connection.getParser().getMemoryBudget().setLimit( memoryBudget );
+            connection.getParser().setTypeSampling( probedCellLimit, probedRowLimit, adaptiveSampling );
+            connection.getParser().setRowCountMode( rowCountMode );
+            connection.getParser().setUsedRangeScanLimit( usedRangeScanLimit );
+            connection.getParser().setSkipEmptyRows( "true".equalsIgnoreCase( getProperty( properties, PROPERTY_SKIP_EMPTY_ROWS ) ) );
+            connection.getParser().setCaseInsensitiveLabels( "true".equalsIgnoreCase( getProperty( properties, PROPERTY_CASE_INSENSITIVE_LABELS ) ) );
+            connection.getParser().setExactColumnStatistics( "true".equalsIgnoreCase( getProperty( properties, PROPERTY_EXACT_COLUMN_SIZES ) ) );
+            for( SchemaHint schemaHint : schemaHints ) {
+                connection.setSchemaHint( schemaHint.sheetName, schemaHint.columnNames, schemaHint.columnTypes );
+            }
+            if( !warmUp.isEmpty() ) {
+                connection.getParser().warmUp( warmUp, getBackgroundExecutor() );
+            }
+        } catch( SQLException | RuntimeException e ) {
+            // release temporary file, download lease or stream of the connection, which is never handed out
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    /** Creates connection to specified Excel document.
+     * @param filePath file path or URL of the Excel document. In case of property "data" it is used only as file name.
+     * @param properties properties of the connection.
+     * @param hasHeaderRow whether first row in sheet represents column headers.
+     * @param inMemoryThreshold maximum size in bytes of a document that is held in memory.
+     * @return connection to specified Excel document.
+     * @throws SQLException if Excel document could not be accessed.
+     */
+    private ExcelConnection openConnection( String filePath, Properties properties, boolean hasHeaderRow, long inMemoryThreshold ) throws SQLException {
+
+        Object data = getPropertyValue( properties, PROPERTY_DATA );
+        if( data instanceof InputStream ) {
+            return newStreamConnection( getFileName( filePath ), (InputStream)data, inMemoryThreshold, hasHeaderRow );
+        }
+        if( data != null ) {
+            ByteBuffer buffer;
+            if( data instanceof byte[] ) {
+                buffer = ByteBuffer.wrap( (byte[])data );
+            } else if( data instanceof ByteBuffer ) {
+                buffer = (ByteBuffer)data;
+            } else {
+                throw new SQLException( "Property \"" + PROPERTY_DATA + "\" must be of type byte[], java.nio.ByteBuffer or java.io.InputStream" );
+            }
+            String fileName = getFileName( filePath );
+            if( buffer.remaining() <= inMemoryThreshold ) {
+                return new ExcelConnection( new ExcelParser( fileName, buffer, hasHeaderRow ), null );
+            }
+            try {
+                Path tempFile = Files.createTempFile( null, null ).toAbsolutePath();
+                try( FileChannel channel = FileChannel.open( tempFile, StandardOpenOption.WRITE ) ) {
+                    ByteBuffer source = buffer.duplicate();
+                    while( source.hasRemaining() ) {
+                        channel.write( source );
+                    }
+                }
+                return new ExcelConnection( new ExcelParser( tempFile, hasHeaderRow ), () -> deleteTempFile( tempFile ) );
+            } catch( IOException e ) {
+                throw new SQLException( "An error occurred while accessing the file", e );
+            }
+        }
+
         Runnable onConnectionClose = null;
 
         String lowerCasedFilePath = filePath.toLowerCase();
@@ -107,17 +333,71 @@ public class ExcelDriver implements Driver {
                 filePath = filePath.substring( fileProtocol.length() );
             }
         } else if( lowerCasedFilePath.indexOf( ':' ) > 1 ) {
-            try (InputStream in = new URL( filePath ).openStream()) {
+            URL remoteURL;
+            try {
+                remoteURL = new URL( filePath );
+            } catch( IOException e ) {
+                throw new SQLException( "An error occurred while accessing the file", e );
+            }
+            String fileName = getFileName( remoteURL );
+            String protocol = remoteURL.getProtocol().toLowerCase();
+            boolean isHttp = protocol.equals( "http" ) || protocol.equals( "https" );
+            if( "true".equalsIgnoreCase( getProperty( properties, PROPERTY_RANGE_REQUESTS ) ) && isHttp ) {
+                long cacheSize = getLongProperty( properties, PROPERTY_RANGE_CACHE_SIZE, DEFAULT_RANGE_CACHE_SIZE );
+                try {
+                    HttpRangeArchive archive = new HttpRangeArchive( remoteURL, HttpRangeArchive.DEFAULT_BLOCK_SIZE, cacheSize );
+                    return new ExcelConnection( new ExcelParser( fileName, archive, hasHeaderRow ), archive::close );
+                } catch( IOException e ) {
+                    // server does not support range requests, so the document is downloaded completely
+                }
+            }
+            if( "true".equalsIgnoreCase( getProperty( properties, PROPERTY_STREAM ) ) ) {
+                try {
+                    return newStreamConnection( fileName, remoteURL.openStream(), inMemoryThreshold, hasHeaderRow );
+                } catch( IOException e ) {
+                    throw new SQLException( "An error occurred while accessing the file", e );
+                }
+            }
+            if( "true".equalsIgnoreCase( getProperty( properties, PROPERTY_DOWNLOAD_CACHE ) ) && isHttp ) {
+                DownloadCache.Lease lease;
+                try {
+                    lease = DOWNLOAD_CACHE.acquire( remoteURL );
+                } catch( IOException e ) {
+                    throw new SQLException( "An error occurred while accessing the file", e );
+                }
+                return new ExcelConnection( new ExcelParser( lease.getFile(), hasHeaderRow ), lease::release );
+            }
+            URLConnection urlConnection;
+            try {
+                urlConnection = remoteURL.openConnection();
+            } catch( IOException e ) {
+                throw new SQLException( "An error occurred while accessing the file", e );
+            }
+            try( InputStream in = urlConnection.getInputStream() ) {
+                // small documents are kept in memory, larger ones are spilled to a temporary file
+                long contentLength = urlConnection.getContentLengthLong();
+                long memoryLimit = Math.min( inMemoryThreshold, MAX_IN_MEMORY_SIZE );
+                ContentBuffer buffer = null;
+                if( contentLength <= memoryLimit ) {
+                    // presized by the announced length, if any, so that the buffer is not copied while it grows
+                    buffer = new ContentBuffer( contentLength >= 0 ? (int)contentLength : 8192 );
+                    if( transfer( in, buffer, memoryLimit + 1 ) <= memoryLimit ) {
+                        return new ExcelConnection( new ExcelParser( fileName, buffer.toByteBuffer(), hasHeaderRow ), null );
+                    }
+                }
                 Path tempFile = Files.createTempFile( null, null ).toAbsolutePath();
-                Files.copy( in, tempFile, StandardCopyOption.REPLACE_EXISTING );
-                filePath = tempFile.toString();
-                onConnectionClose = () -> {
-                    try {
-                        Files.deleteIfExists( tempFile );
-                    } catch( IOException e ) {
-                        // ignore
+                try( OutputStream out = Files.newOutputStream( tempFile ) ) {
+                    if( buffer != null ) {
+                        buffer.writeTo( out );
+                        buffer = null;
                     }
-                };
+                    transfer( in, out, Long.MAX_VALUE );
+                } catch( IOException e ) {
+                    deleteTempFile( tempFile );
+                    throw e;
+                }
+                filePath = tempFile.toString();
+                onConnectionClose = () -> deleteTempFile( tempFile );
             } catch( IOException e ) {
                 throw new SQLException( "An error occurred while accessing the file", e );
             }
@@ -132,6 +412,296 @@ public class ExcelDriver implements Driver {
         return new ExcelConnection( parser, onConnectionClose );
     }
 
+    /** Creates connection, which reads Excel document from specified stream in a single pass.
+     * @param fileName file name of the Excel document.
+     * @param in stream providing content of Excel document. It is closed, when it has been read or connection is closed.
+     * @param inMemoryThreshold maximum number of bytes retained in memory.
+     * @param hasHeaderRow whether first row in sheet represents column headers.
+     * @return connection for specified stream.
+     */
+    private static ExcelConnection newStreamConnection( String fileName, InputStream in, long inMemoryThreshold, boolean hasHeaderRow ) {
+        StreamArchive archive = new StreamArchive( in, inMemoryThreshold );
+        return new ExcelConnection( new ExcelParser( fileName, archive, hasHeaderRow ), () -> {
+            try {
+                archive.close();
+            } catch( IOException e ) {
+                // ignore
+            }
+        } );
+    }
+
+    /** Reads schema file specified by property "schema".
+     * @param path path of the schema file.
+     * @return declarations of sheets, with sheet names as keys.
+     * @throws SQLException if schema file could not be read.
+     */
+    private static Properties readSchemaFile( String path ) throws SQLException {
+        Properties schema = new Properties();
+        try( Reader reader = Files.newBufferedReader( Paths.get( path ), StandardCharsets.UTF_8 ) ) {
+            schema.load( reader );
+        } catch( IOException | InvalidPathException e ) {
+            throw new SQLException( "Schema file could not be read: " + path, e );
+        }
+        return schema;
+    }
+
+    /** Column names and types of a sheet, declared in the schema file.
+     */
+    static class SchemaHint {
+
+        private final String          sheetName;
+
+        private final List<String>    columnNames;
+
+        private final List<ValueType> columnTypes;
+
+        /** Creates declaration of specified sheet.
+         * @param sheetName name of the sheet.
+         * @param columnNames declared column names.
+         * @param columnTypes declared column types.
+         */
+        private SchemaHint( String sheetName, List<String> columnNames, List<ValueType> columnTypes ) {
+            this.sheetName = sheetName;
+            this.columnNames = columnNames;
+            this.columnTypes = columnTypes;
+        }
+
+        /** Parses column names and types of specified sheet, given in format of schema file, e.g. "Name:VARCHAR,Amount:NUMBER".
+         * @param sheetName name of the sheet.
+         * @param declaration comma separated list of columns, each consisting of name and optional type separated by colon.
+         * @return parsed declaration.
+         * @throws SQLException if declaration is invalid.
+         */
+        static SchemaHint parse( String sheetName, String declaration ) throws SQLException {
+            List<String> columnNames = new ArrayList<>();
+            List<ValueType> columnTypes = new ArrayList<>();
+            for( String column : declaration.split( "," ) ) {
+                int colonIndex = column.lastIndexOf( ':' );
+                String name = (colonIndex < 0 ? column : column.substring( 0, colonIndex )).trim();
+                String type = colonIndex < 0 ? "VARCHAR" : column.substring( colonIndex + 1 ).trim().toUpperCase();
+                if( name.isEmpty() ) {
+                    throw new SQLException( "Invalid schema of sheet \"" + sheetName + "\": " + declaration );
+                }
+                try {
+                    columnTypes.add( ValueType.valueOf( type ) );
+                } catch( IllegalArgumentException e ) {
+                    throw new SQLException( "Invalid type of column \"" + name + "\" in schema of sheet \"" + sheetName + "\": " + type );
+                }
+                columnNames.add( name );
+            }
+            return new SchemaHint( sheetName, columnNames, columnTypes );
+        }
+    }
+
+    /** Returns parts of Excel document, which should be parsed in background as soon as connection is created.
+     * @param value value of the property "warmup": comma or pipe separated list of "sheets", "styles", "sst" and "all".
+     * @return parts of Excel document to parse in background, which may be empty.
+     * @throws SQLException if value of the property is invalid.
+     */
+    static Set<WarmUp> getWarmUpParts( String value ) throws SQLException {
+        Set<WarmUp> parts = EnumSet.noneOf( WarmUp.class );
+        if( value == null ) {
+            return parts;
+        }
+        for( String part : value.split( "[,|]" ) ) {
+            switch( part.trim().toLowerCase() ) {
+                case "":
+                case "none":
+                    break;
+                case "sheets":
+                    parts.add( WarmUp.SHEETS );
+                    break;
+                case "styles":
+                    parts.add( WarmUp.STYLES );
+                    break;
+                case "sst":
+                    parts.add( WarmUp.SHARED_STRINGS );
+                    break;
+                case "all":
+                    parts.addAll( EnumSet.allOf( WarmUp.class ) );
+                    break;
+                default:
+                    throw new SQLException( "Invalid value of property \"" + PROPERTY_WARMUP + "\": " + value );
+            }
+        }
+        return parts;
+    }
+
+    /** Sets maximum total size of all documents in the download cache, which is shared by all connections of the JVM.
+     * Documents not used by any connection are evicted, if the new maximum size is exceeded.
+     * @param maxSize maximum total size in bytes.
+     * @throws IllegalArgumentException if maximum size is negative.
+     */
+    public static void setDownloadCacheSize( long maxSize ) {
+        if( maxSize < 0 ) {
+            throw new IllegalArgumentException( "maxSize must not be negative" );
+        }
+        DOWNLOAD_CACHE.setMaxSize( maxSize );
+    }
+
+    /** Sets maximum number of bytes of heap memory for shared strings of all connections of the JVM. Bytes, which are already reserved by
+     * open connections, are not affected.
+     * @param maxBytes maximum number of bytes.
+     * @throws IllegalArgumentException if maximum number of bytes is negative.
+     */
+    public static void setGlobalMemoryBudget( long maxBytes ) {
+        if( maxBytes < 0 ) {
+            throw new IllegalArgumentException( "maxBytes must not be negative" );
+        }
+        MemoryBudget.global().setLimit( maxBytes );
+    }
+
+    /** Returns executor for background and concurrent parsing, which is shared by all connections. It is bounded by the number of processors.
+     * Its threads are daemon threads, which terminate when idle.
+     * @return executor for background and concurrent parsing.
+     */
+    static Executor getBackgroundExecutor() {
+        synchronized( ExcelDriver.class ) {
+            if( backgroundExecutor == null ) {
+                int threadCount = Math.max( 2, Runtime.getRuntime().availableProcessors() );
+                AtomicInteger threadNumber = new AtomicInteger();
+                ThreadPoolExecutor executor = new ThreadPoolExecutor( threadCount, threadCount, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread( runnable, "ExcelDriver-worker-" + threadNumber.incrementAndGet() );
+                    thread.setDaemon( true );
+                    return thread;
+                } );
+                executor.allowCoreThreadTimeOut( true );
+                backgroundExecutor = executor;
+            }
+            return backgroundExecutor;
+        }
+    }
+
+    /** Returns value of specified property. Name of the property is compared case-insensitively.
+     * @param properties properties of the connection.
+     * @param name name of the property.
+     * @return value of specified property or null, if property is not set.
+     */
+    static Object getPropertyValue( Properties properties, String name ) {
+        Object value = properties.get( name );
+        if( value != null ) {
+            return value;
+        }
+        for( Map.Entry<Object, Object> entry : properties.entrySet() ) {
+            if( name.equalsIgnoreCase( String.valueOf( entry.getKey() ) ) ) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    /** Returns value of specified property as string. Name of the property is compared case-insensitively.
+     * @param properties properties of the connection.
+     * @param name name of the property.
+     * @return value of specified property or null, if property is not set.
+     */
+    static String getProperty( Properties properties, String name ) {
+        Object value = getPropertyValue( properties, name );
+        return value != null ? value.toString().trim() : null;
+    }
+
+    /** Returns value of specified numeric property.
+     * @param properties properties of the connection.
+     * @param name name of the property.
+     * @param defaultValue value to return, if property is not set.
+     * @return value of specified property or given default value, if property is not set.
+     * @throws SQLException if value of the property is not a valid number.
+     */
+    static long getLongProperty( Properties properties, String name, long defaultValue ) throws SQLException {
+        String value = getProperty( properties, name );
+        if( value == null || value.isEmpty() ) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong( value );
+        } catch( NumberFormatException e ) {
+            throw new SQLException( "Invalid value of property \"" + name + "\": " + value );
+        }
+    }
+
+    /** Returns value of specified numeric property, which must be in the range of int.
+     * @param properties properties of the connection.
+     * @param name name of the property.
+     * @param defaultValue value to return, if property is not set.
+     * @return value of specified property or given default value, if property is not set.
+     * @throws SQLException if value of the property is not a valid number or exceeds the range of int.
+     */
+    static int getIntProperty( Properties properties, String name, int defaultValue ) throws SQLException {
+        long value = getLongProperty( properties, name, defaultValue );
+        if( value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ) {
+            throw new SQLException( "Invalid value of property \"" + name + "\": " + value );
+        }
+        return (int)value;
+    }
+
+    /** Returns file name of the document referenced by specified URL.
+     * @param url URL of the document.
+     * @return file name of the document or "unnamed.xlsx" if the URL includes no file name.
+     */
+    private static String getFileName( URL url ) {
+        String fileName = getFileName( url.getPath() );
+        return fileName.isEmpty() ? "unnamed.xlsx" : fileName;
+    }
+
+    /** Returns last segment of specified path.
+     * @param path path of the document.
+     * @return last segment of specified path, which may be empty.
+     */
+    private static String getFileName( String path ) {
+        return path.substring( Math.max( path.lastIndexOf( '/' ), path.lastIndexOf( '\\' ) ) + 1 ).trim();
+    }
+
+    /** Copies bytes from given input stream to given output stream, until end of the input stream or specified limit is reached.
+     * @param in stream to read from.
+     * @param out stream to write to.
+     * @param limit maximum number of bytes to copy.
+     * @return number of copied bytes.
+     * @throws IOException if an I/O error has occurred.
+     */
+    private static long transfer( InputStream in, OutputStream out, long limit ) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        while( total < limit ) {
+            int count = in.read( buffer, 0, (int)Math.min( buffer.length, limit - total ) );
+            if( count < 0 ) {
+                break;
+            }
+            out.write( buffer, 0, count );
+            total += count;
+        }
+        return total;
+    }
+
+    /** Buffer for the content of a downloaded document, which hands out its content without copying it.
+     */
+    private static class ContentBuffer extends ByteArrayOutputStream {
+
+        /** Creates buffer with specified initial capacity.
+         * @param capacity initial capacity in bytes.
+         */
+        private ContentBuffer( int capacity ) {
+            super( capacity );
+        }
+
+        /** Returns the content of this buffer. The buffer must not be written to afterwards.
+         * @return the content, backed by the array of this buffer.
+         */
+        private ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap( buf, 0, count );
+        }
+    }
+
+    /** Deletes specified temporary file, ignoring any errors.
+     * @param tempFile temporary file to delete.
+     */
+    static void deleteTempFile( Path tempFile ) {
+        try {
+            Files.deleteIfExists( tempFile );
+        } catch( IOException e ) {
+            // ignore
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -35,25 +35,58 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.util.Calendar;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 
 /** Base class for result sets used within Excel Driver project.
  */
 public abstract class ExcelResultSet implements ResultSet {
 
-    private final List<String> columnNames;
+    private final List<String>         columnNames;
+    private final Map<String, Integer> columnIndexes;
+    private final Map<String, Integer> columnIndexesIgnoringCase;
+    private final Integer              nullColumnIndex;
 
-    /** Constructor of the class.
+    /** Constructor of the class. Column labels are case sensitive.
      * @param columnNames list of column names.
      * @throws IllegalArgumentException if given list is null.
      */
     public ExcelResultSet( List<String> columnNames ) {
+        this( columnNames, false );
+    }
+
+    /** Constructor of the class.
+     * @param columnNames list of column names.
+     * @param caseInsensitiveLabels whether {@link #findColumn(String)} ignores the case of a label, if no column has exactly this label.
+     * @throws IllegalArgumentException if given list is null.
+     */
+    public ExcelResultSet( List<String> columnNames, boolean caseInsensitiveLabels ) {
         if( columnNames == null ) {
             throw new IllegalArgumentException( "list of column names must not be null" );
         }
         this.columnNames = Collections.unmodifiableList( columnNames );
+
+        // if several columns have the same label, the first one is found
+        Map<String, Integer> indexes = new HashMap<>();
+        Map<String, Integer> indexesIgnoringCase = new HashMap<>();
+        Integer nullIndex = null;
+        for( int index = 0; index < columnNames.size(); index++ ) {
+            String columnName = columnNames.get( index );
+            Integer columnIndex = Integer.valueOf( index + 1 );
+            if( columnName == null ) {
+                nullIndex = nullIndex == null ? columnIndex : nullIndex;
+            } else {
+                indexes.putIfAbsent( columnName, columnIndex );
+                if( caseInsensitiveLabels ) {
+                    indexesIgnoringCase.putIfAbsent( columnName.toUpperCase( Locale.ROOT ), columnIndex );
+                }
+            }
+        }
+        this.columnIndexes = Map.copyOf( indexes );
+        this.columnIndexesIgnoringCase = Map.copyOf( indexesIgnoringCase );
+        this.nullColumnIndex = nullIndex;
     }
 
     /** Retrieves the value of the designated column in the current row of this ResultSet object.
@@ -119,8 +152,10 @@ public abstract class ExcelResultSet implements ResultSet {
      */
     @Override
     public <T> T unwrap( Class<T> iface ) throws SQLException {
-        ExcelDriver.throwExceptionAboutUnsupportedOperation();
-        return null;
+        if( iface != null && iface.isInstance( this ) ) {
+            return iface.cast( this );
+        }
+        throw new SQLException( "Result set is not a wrapper for " + iface );
     }
 
     /**
@@ -128,8 +163,7 @@ public abstract class ExcelResultSet implements ResultSet {
      */
     @Override
     public boolean isWrapperFor( Class<?> iface ) throws SQLException {
-        ExcelDriver.throwExceptionAboutUnsupportedOperation();
-        return false;
+        return iface != null && iface.isInstance( this );
     }
 
     /**
@@ -481,10 +515,13 @@ public abstract class ExcelResultSet implements ResultSet {
     @Override
     public int findColumn( String columnLabel ) throws SQLException {
         throwIfAlreadyClosed();
-        for( int index = 0; index < columnNames.size(); index++ ) {
-            if( Objects.equals( columnLabel, columnNames.get( index ) ) ) {
-                return index + 1;
-            }
+        Integer columnIndex = columnLabel == null ? nullColumnIndex : columnIndexes.get( columnLabel );
+        if( columnIndex == null && columnLabel != null && !columnIndexesIgnoringCase.isEmpty() ) {
+            // an exact match takes precedence over a label, which differs only in case
+            columnIndex = columnIndexesIgnoringCase.get( columnLabel.toUpperCase( Locale.ROOT ) );
+        }
+        if( columnIndex != null ) {
+            return columnIndex.intValue();
         }
         throw new SQLException( "ResultSet: unknown column \"" + columnLabel + "\"." );
     }
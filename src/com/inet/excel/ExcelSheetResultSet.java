@@ -17,26 +17,44 @@ package com.inet.excel;
 
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
+import com.inet.excel.parser.CancellationToken;
 import com.inet.excel.parser.ExcelParser;
-import com.inet.excel.parser.ValueType;
+import com.inet.excel.parser.ExcelParserCancelledException;
+import com.inet.excel.parser.SheetMetadata;
+import com.inet.excel.parser.SheetRow;
 
 /** Class for result set used to retrieve data of the sheet from Excel document.
  */
 public class ExcelSheetResultSet extends ExcelResultSet {
 
+    /** Label of the pseudo column, which contains the index of the current row in the sheet (as shown by Excel). It is not included
+     * in the metadata of the result set, but it can be read by label or by the index following the last column. */
+    public static final String ROW_NUMBER_COLUMN = "EXCEL_ROW";
+
     private final ExcelParser parser;
+    private final CancellationToken cancellationToken;
     private final String sheetName;
     private final int maxRowsPerBatch;
     private final ResultSetMetaData metaData;
+    private final boolean skipEmptyRows;
     private final int rowCount;
 
     private List<List<Object>> rowBatch;
+    private List<Integer> rowNumberBatch;
+    private boolean lastBatch;
+    private boolean afterLast;
     private int currentRowIndex;
     private int currentBatchIndex;
     private boolean wasNull;
     private boolean closed;
+    private ResultSetEvent event;
 
     /** Constructor of the class.
      * @param parser component responsible for reading data from Excel document.
@@ -45,36 +63,68 @@ public class ExcelSheetResultSet extends ExcelResultSet {
      * @throws IllegalArgumentException if any of given arguments is null; if max number of rows per batch is not greater than zero.
      */
     public ExcelSheetResultSet( ExcelParser parser, String sheetName, int maxRowsPerBatch ) {
-        super( getColumnNames( parser, sheetName ) );
+        this( parser, sheetName, maxRowsPerBatch, null );
+    }
+
+    /** Constructor of the class. It must be called by {@link CancellationToken#run(java.util.function.Supplier)} of given token,
+     * so that reading the sheet can be cancelled while the result set is created.
+     * @param parser component responsible for reading data from Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @param maxRowsPerBatch maximum number of rows read at one time.
+     * @param cancellationToken token, which allows to cancel reading of rows, or null.
+     * @throws IllegalArgumentException if any of given arguments except the token is null; if max number of rows per batch is not greater than zero.
+     */
+    ExcelSheetResultSet( ExcelParser parser, String sheetName, int maxRowsPerBatch, CancellationToken cancellationToken ) {
+        this( parser, getSheetMetadata( parser, sheetName ), maxRowsPerBatch, cancellationToken );
+    }
+
+    /** Constructor of the class.
+     * @param parser component responsible for reading data from Excel document.
+     * @param sheetMetadata column names and column types of the sheet.
+     * @param maxRowsPerBatch maximum number of rows read at one time.
+     * @param cancellationToken token, which allows to cancel reading of rows, or null.
+     * @throws IllegalArgumentException if max number of rows per batch is not greater than zero.
+     */
+    private ExcelSheetResultSet( ExcelParser parser, SheetMetadata sheetMetadata, int maxRowsPerBatch, CancellationToken cancellationToken ) {
+        super( sheetMetadata.getColumnNames(), parser.isCaseInsensitiveLabels() );
         if( maxRowsPerBatch <= 0 ) {
             throw new IllegalArgumentException( "max number of rows per batch must be greater than zero" );
         }
+        String sheetName = sheetMetadata.getSheetName();
         this.parser = parser;
+        this.cancellationToken = cancellationToken;
         this.sheetName = sheetName;
         this.maxRowsPerBatch = maxRowsPerBatch;
-        List<ValueType> columnTypes = parser.getColumnTypes( sheetName );
-        this.metaData = new ExcelSheetResultSetMetaData( parser.getFileName(), sheetName, getColumnNames(), columnTypes );
-        this.rowCount = parser.getRowCount( sheetName );
+        this.metaData = ExcelSheetResultSetMetaData.getInstance( parser, sheetMetadata );
+        this.skipEmptyRows = parser.isSkipEmptyRows();
+        this.rowCount = skipEmptyRows ? -1 : parser.getRowCount( sheetName ); // rows with values are not counted in advance
         this.currentRowIndex = -1;
         this.currentBatchIndex = -1;
         this.wasNull = false;
         this.closed = false;
+        ResultSetEvent event = new ResultSetEvent();
+        if( event.isEnabled() ) {
+            event.fileName = parser.getFileName();
+            event.sheetName = sheetName;
+            event.begin();
+            this.event = event;
+        }
     }
 
-    /** Uses given parser to obtain list of column names from specified sheet, but at the very beginning, it performs null-checks.
+    /** Uses given parser to obtain column names and column types of specified sheet, but at the very beginning, it performs null-checks.
      * @param parser component responsible for reading data from Excel document.
      * @param sheetName name of the sheet from Excel document.
-     * @return list of column names from specified sheet.
+     * @return column names and column types of specified sheet.
      * @throws IllegalArgumentException if any of given arguments is null.
      */
-    private static List<String> getColumnNames( ExcelParser parser, String sheetName ) {
+    private static SheetMetadata getSheetMetadata( ExcelParser parser, String sheetName ) {
         if( parser == null ) {
             throw new IllegalArgumentException( "parser must not be null" );
         }
         if( sheetName == null ) {
             throw new IllegalArgumentException( "sheet name must not be null" );
         }
-        return parser.getColumnNames( sheetName );
+        return parser.getSheetMetadata( sheetName );
     }
 
     /**
@@ -84,6 +134,9 @@ public class ExcelSheetResultSet extends ExcelResultSet {
     public boolean next() throws SQLException {
         throwIfAlreadyClosed();
 
+        if( skipEmptyRows ) {
+            return nextRowWithValues();
+        }
         if( currentRowIndex + 1 >= rowCount ) {
             currentRowIndex = rowCount;
             return false;
@@ -92,8 +145,12 @@ public class ExcelSheetResultSet extends ExcelResultSet {
         if( currentBatchIndex == -1 || currentBatchIndex == rowBatch.size() - 1 ) {
             int firstRowIndex = currentRowIndex + 2; //NOTE: +1 because we need next element; another +1 because currentRowIndex starts with 0 and indexes required by getRows() start with 1
             int lastRowIndex = firstRowIndex + maxRowsPerBatch - 1; //NOTE: -1 because row specified by lastRowIndex is going to be included in resulting list
-            rowBatch = parser.getRows( sheetName, firstRowIndex, Math.min( lastRowIndex, rowCount ) );
+            int lastIndex = Math.min( lastRowIndex, rowCount );
+            rowBatch = runCancellable( cancellationToken, () -> parser.getRows( sheetName, firstRowIndex, lastIndex ) );
             currentBatchIndex = 0;
+            if( event != null ) {
+                event.batchCount++;
+            }
         } else {
             currentBatchIndex++;
         }
@@ -101,11 +158,75 @@ public class ExcelSheetResultSet extends ExcelResultSet {
         return true;
     }
 
+    /** Moves the cursor to the next row with values. Rows are fetched in batches, which start after the last row of the previous batch.
+     * @return true, if the new current row is valid; false, if there are no more rows.
+     * @throws SQLException if reading was cancelled or timed out.
+     */
+    private boolean nextRowWithValues() throws SQLException {
+        if( afterLast ) {
+            return false;
+        }
+        if( currentBatchIndex == -1 || currentBatchIndex == rowBatch.size() - 1 ) {
+            Map<Integer, List<Object>> rows = Collections.emptyMap();
+            if( !lastBatch ) {
+                int firstRowNumber = rowNumberBatch == null ? 1 : rowNumberBatch.get( rowNumberBatch.size() - 1 ).intValue() + 1;
+                rows = runCancellable( cancellationToken, () -> parser.getRowsWithValues( sheetName, firstRowNumber, maxRowsPerBatch ) );
+                if( event != null ) {
+                    event.batchCount++;
+                }
+                lastBatch = rows.size() < maxRowsPerBatch; // no need to parse the sheet once more just to find its end
+            }
+            if( rows.isEmpty() ) {
+                afterLast = true;
+                currentRowIndex++;
+                return false;
+            }
+            rowBatch = new ArrayList<>( rows.values() );
+            rowNumberBatch = new ArrayList<>( rows.keySet() );
+            currentBatchIndex = 0;
+        } else {
+            currentBatchIndex++;
+        }
+        currentRowIndex++;
+        return true;
+    }
+
+    /** Runs specified task, so that reading data from Excel document can be cancelled by given token.
+     * @param <T> type of the result.
+     * @param cancellationToken token, which allows to cancel the task, or null.
+     * @param task task to run.
+     * @return result of the task.
+     * @throws SQLTimeoutException if the timeout of the token elapsed.
+     * @throws SQLException if the token was cancelled.
+     */
+    static <T> T runCancellable( CancellationToken cancellationToken, Supplier<T> task ) throws SQLException {
+        if( cancellationToken == null ) {
+            return task.get();
+        }
+        try {
+            return cancellationToken.run( task );
+        } catch( ExcelParserCancelledException ex ) {
+            if( ex.isTimeout() ) {
+                throw new SQLTimeoutException( ex.getMessage(), ex );
+            }
+            throw new SQLException( ex.getMessage(), ex );
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void close() throws SQLException {
+        ResultSetEvent event = this.event;
+        if( event != null ) {
+            this.event = null;
+            event.rowCount = skipEmptyRows ? currentRowIndex + (afterLast ? 0 : 1) : Math.min( currentRowIndex + 1, rowCount );
+            event.end();
+            if( event.shouldCommit() ) {
+                event.commit();
+            }
+        }
         closed = true;
     }
 
@@ -124,7 +245,7 @@ public class ExcelSheetResultSet extends ExcelResultSet {
     @Override
     public boolean isAfterLast() throws SQLException {
         throwIfAlreadyClosed();
-        return currentRowIndex >= rowCount;
+        return skipEmptyRows ? afterLast : currentRowIndex >= rowCount;
     }
 
     /**
@@ -133,7 +254,7 @@ public class ExcelSheetResultSet extends ExcelResultSet {
     @Override
     public int getRow() throws SQLException {
         throwIfAlreadyClosed();
-        if( currentRowIndex >= rowCount ) {
+        if( isAfterLast() ) {
             return 0;
         }
         return currentRowIndex + 1;
@@ -153,10 +274,142 @@ public class ExcelSheetResultSet extends ExcelResultSet {
     @Override
     protected <T> T getValue( int columnIndex ) throws SQLException {
         throwIfAlreadyClosedOrReachedEnd();
-        throwIfColumnIndexIsInvalid( columnIndex );
-        T value = (T)rowBatch.get( currentBatchIndex ).get( columnIndex - 1 );
+        Object value;
+        if( columnIndex == getColumnNames().size() + 1 ) {
+            value = getRowNumber();
+        } else {
+            throwIfColumnIndexIsInvalid( columnIndex );
+            value = rowBatch.get( currentBatchIndex ).get( columnIndex - 1 );
+        }
         wasNull = value == null;
-        return value;
+        return (T)value;
+    }
+
+    /** Retrieves the value of the designated column as text. Numeric cells return their text as written in the document, e.g. "42"
+     * instead of "42.0". A cell, whose value is null, because its text is not a number, is null here as well.
+     * @param columnIndex the first column is 1, the second is 2, ...
+     * @return the column value; if the value is SQL NULL, the value returned is null.
+     * @throws SQLException if the column index is not valid, the cursor is not on a row or this method is called on a closed result set.
+     */
+    @Override
+    public String getString( int columnIndex ) throws SQLException {
+        throwIfAlreadyClosedOrReachedEnd();
+        if( columnIndex != getColumnNames().size() + 1 ) {
+            throwIfColumnIndexIsInvalid( columnIndex );
+            List<Object> row = rowBatch.get( currentBatchIndex );
+            if( row instanceof SheetRow ) {
+                String text = ((SheetRow)row).getText( columnIndex - 1 );
+                wasNull = text == null;
+                return text;
+            }
+        }
+        return super.getString( columnIndex );
+    }
+
+    /** Retrieves the value of the designated column as int. Numeric cells with an integer text are converted without rounding to double.
+     * Values beyond the range of int saturate at {@link Integer#MIN_VALUE} or {@link Integer#MAX_VALUE}, as for any other double value.
+     * @param columnIndex the first column is 1, the second is 2, ...
+     * @return the column value; if the value is SQL NULL, the value returned is 0.
+     * @throws SQLException if the column index is not valid, the cursor is not on a row or this method is called on a closed result set.
+     */
+    @Override
+    public int getInt( int columnIndex ) throws SQLException {
+        Number value = getNumber( columnIndex );
+        if( value instanceof Long ) {
+            // Long.intValue() would wrap around instead of saturating like Double.intValue()
+            long number = value.longValue();
+            return (int)Math.max( Integer.MIN_VALUE, Math.min( Integer.MAX_VALUE, number ) );
+        }
+        return value != null ? value.intValue() : 0;
+    }
+
+    /** Retrieves the value of the designated column as long. Numeric cells with an integer text of at most 18 digits return the exact
+     * value, also beyond 2^53, where a double can not represent every integer.
+     * @param columnIndex the first column is 1, the second is 2, ...
+     * @return the column value; if the value is SQL NULL, the value returned is 0.
+     * @throws SQLException if the column index is not valid, the cursor is not on a row or this method is called on a closed result set.
+     */
+    @Override
+    public long getLong( int columnIndex ) throws SQLException {
+        Number value = getNumber( columnIndex );
+        return value != null ? value.longValue() : 0;
+    }
+
+    /** Returns value of specified column of the current row as number, with integers of numeric cells as exact {@link Long}.
+     * @param columnIndex the first column is 1, the second is 2, ...
+     * @return the column value or null, if the value is SQL NULL.
+     * @throws SQLException if the column index is not valid, the cursor is not on a row or this method is called on a closed result set.
+     */
+    private Number getNumber( int columnIndex ) throws SQLException {
+        throwIfAlreadyClosedOrReachedEnd();
+        if( columnIndex != getColumnNames().size() + 1 ) {
+            throwIfColumnIndexIsInvalid( columnIndex );
+            List<Object> row = rowBatch.get( currentBatchIndex );
+            if( row instanceof SheetRow ) {
+                Number value = ((SheetRow)row).getNumber( columnIndex - 1 );
+                wasNull = value == null;
+                return value;
+            }
+        }
+        return getValue( columnIndex );
+    }
+
+    /** Returns index of the value of specified column of the current row in the shared string table of the document. Equal strings share
+     * the same index, so it may be used as dictionary id instead of comparing the strings. The result set can be obtained by means of
+     * {@link #unwrap(Class)}.
+     * @param columnIndex index of the column, starting with 1.
+     * @return index of the value in the list of {@link #getSharedStrings()} or -1, if the value is null or not a shared string.
+     * @throws SQLException if result set is closed, cursor is not on a row or column index is invalid.
+     */
+    public int getSharedStringIndex( int columnIndex ) throws SQLException {
+        return parser.getSharedStringIndex( getValue( columnIndex ) );
+    }
+
+    /** Returns index of the value of specified column of the current row in the shared string table of the document.
+     * @param columnLabel label of the column.
+     * @return index of the value in the list of {@link #getSharedStrings()} or -1, if the value is null or not a shared string.
+     * @throws SQLException if result set is closed, cursor is not on a row or column label is invalid.
+     * @see #getSharedStringIndex(int)
+     */
+    public int getSharedStringIndex( String columnLabel ) throws SQLException {
+        return getSharedStringIndex( findColumn( columnLabel ) );
+    }
+
+    /** Returns shared strings of the document, which are the dictionary of the indexes returned by {@link #getSharedStringIndex(int)}.
+     * @return unmodifiable list of shared strings, ordered by their index.
+     * @throws SQLException if result set is closed.
+     */
+    public List<String> getSharedStrings() throws SQLException {
+        throwIfAlreadyClosed();
+        return parser.getSharedStrings();
+    }
+
+    /** Returns index of the current row in the sheet, which is the value of the pseudo column {@link #ROW_NUMBER_COLUMN}.
+     * @return index of the current row in the sheet or null, if cursor is before the first row.
+     */
+    private Integer getRowNumber() {
+        if( currentRowIndex < 0 ) {
+            return null;
+        }
+        if( skipEmptyRows ) {
+            return rowNumberBatch.get( currentBatchIndex );
+        }
+        return Integer.valueOf( currentRowIndex + (parser.hasHeaderRow() ? 2 : 1) );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int findColumn( String columnLabel ) throws SQLException {
+        try {
+            return super.findColumn( columnLabel );
+        } catch( SQLException ex ) {
+            if( ROW_NUMBER_COLUMN.equalsIgnoreCase( columnLabel ) ) {
+                return getColumnNames().size() + 1; // sheet has no column with this name
+            }
+            throw ex;
+        }
     }
 
     /**
@@ -18,18 +18,30 @@ package com.inet.excel;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
+import com.inet.excel.parser.ColumnStatistics;
+import com.inet.excel.parser.ExcelParser;
+import com.inet.excel.parser.SheetMetadata;
 import com.inet.excel.parser.ValueType;
 
-/** Implementation of {@link ResultSetMetaData} for {@link ExcelSheetResultSet}.
+/** Implementation of {@link ResultSetMetaData} for {@link ExcelSheetResultSet}. Instances are immutable, so that a single instance
+ * per sheet is shared by all result sets of the sheet.
  */
 public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
 
-    private String fileName;
-    private String sheetName;
-    private List<String> columnNames;
-    private List<ValueType> columnTypes;
+    /** Shared instances by the sheet metadata of the parser, from which they are created. They do not refer to their key. */
+    private static final Map<SheetMetadata, ExcelSheetResultSetMetaData> INSTANCES = Collections.synchronizedMap( new WeakHashMap<>() );
+
+    private final String fileName;
+    private final String sheetName;
+    private final String[] columnNames;
+    private final ValueType[] columnTypes;
+    private final int[] dataTypes;
+    private final ColumnStatistics[] statistics;
 
     /** Constructor of the class.
      * @param fileName file name of the Excel document.
@@ -39,6 +51,18 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      * @throws IllegalArgumentException if any of given arguments is null.
      */
     public ExcelSheetResultSetMetaData( String fileName, String sheetName, List<String> columnNames, List<ValueType> columnTypes ) {
+        this( fileName, sheetName, columnNames, columnTypes, null );
+    }
+
+    /** Constructor of the class.
+     * @param fileName file name of the Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @param columnNames list of column names.
+     * @param columnTypes list of column types.
+     * @param statistics statistics of the columns, in same order as column names, or null, if sizes of the columns are not known.
+     * @throws IllegalArgumentException if any of given arguments except the statistics is null.
+     */
+    private ExcelSheetResultSetMetaData( String fileName, String sheetName, List<String> columnNames, List<ValueType> columnTypes, List<ColumnStatistics> statistics ) {
         if( fileName == null ) {
             throw new IllegalArgumentException( "file name must not be null" );
         }
@@ -53,8 +77,36 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
         }
         this.fileName = fileName;
         this.sheetName = sheetName;
-        this.columnNames = columnNames;
-        this.columnTypes = columnTypes;
+        this.columnNames = columnNames.toArray( new String[columnNames.size()] );
+        this.columnTypes = columnTypes.toArray( new ValueType[columnTypes.size()] );
+        this.dataTypes = new int[this.columnTypes.length];
+        for( int i = 0; i < dataTypes.length; i++ ) {
+            dataTypes[i] = ExcelDatabaseMetaData.getDataType( this.columnTypes[i] );
+        }
+        this.statistics = statistics == null ? new ColumnStatistics[0] : statistics.toArray( new ColumnStatistics[statistics.size()] );
+    }
+
+    /** Returns shared metadata for result sets of specified sheet.
+     * @param parser component responsible for reading data from Excel document.
+     * @param sheetMetadata column names, column types and column statistics of the sheet, as provided by the parser.
+     * @return metadata for result sets of specified sheet.
+     */
+    static ExcelSheetResultSetMetaData getInstance( ExcelParser parser, SheetMetadata sheetMetadata ) {
+        // kept as long as the metadata instance of the parser, which is replaced if the columns of the sheet change
+        return INSTANCES.computeIfAbsent( sheetMetadata, sheet -> new ExcelSheetResultSetMetaData( parser.getFileName(), sheet.getSheetName(), sheet.getColumnNames(), sheet.getColumnTypes(), sheet.getColumnStatistics() ) );
+    }
+
+    /** Returns statistics of the values of specified column, if they cover all rows of the sheet. Statistics of a sample of the rows
+     * are not used, because longer values may exist in other rows, so that the sizes must stay upper bounds.
+     * @param column index of the column, starting with 1.
+     * @return statistics of the column or null, if they are not available, incomplete or no values were found.
+     */
+    private ColumnStatistics getStatistics( int column ) {
+        if( column > statistics.length ) {
+            return null;
+        }
+        ColumnStatistics columnStatistics = statistics[column - 1];
+        return columnStatistics.isComplete() && columnStatistics.getValueCount() > 0 ? columnStatistics : null;
     }
 
     /**
@@ -80,7 +132,7 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      */
     @Override
     public int getColumnCount() throws SQLException {
-        return columnNames.size();
+        return columnNames.length;
     }
 
     /**
@@ -136,6 +188,10 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      */
     @Override
     public int getColumnDisplaySize( int column ) throws SQLException {
+        ColumnStatistics columnStatistics = getStatistics( column );
+        if( columnStatistics != null ) {
+            return Math.max( 1, columnStatistics.getMaxLength() );
+        }
         return 32767; // NOTE: value taken from the website "Excel specifications and limits"
     }
 
@@ -152,7 +208,7 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      */
     @Override
     public String getColumnName( int column ) throws SQLException {
-        return columnNames.get( column - 1 );
+        return columnNames[column - 1];
     }
 
     /**
@@ -168,6 +224,13 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      */
     @Override
     public int getPrecision( int column ) throws SQLException {
+        ColumnStatistics columnStatistics = getStatistics( column );
+        if( columnStatistics != null ) {
+            if( columnTypes[column - 1] == ValueType.NUMBER && columnStatistics.getPrecision() > 0 ) {
+                return columnStatistics.getPrecision();
+            }
+            return Math.max( 1, columnStatistics.getMaxLength() );
+        }
         return ExcelDatabaseMetaData.COLUMN_SIZE_IN_BYTES;
     }
 
@@ -176,7 +239,11 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      */
     @Override
     public int getScale( int column ) throws SQLException {
-        return 0;
+        if( columnTypes[column - 1] != ValueType.NUMBER ) {
+            return 0;
+        }
+        ColumnStatistics columnStatistics = getStatistics( column );
+        return columnStatistics != null ? columnStatistics.getScale() : 0;
     }
 
     /**
@@ -200,8 +267,7 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      */
     @Override
     public int getColumnType( int column ) throws SQLException {
-        ValueType valueType = columnTypes.get( column - 1 );
-        return ExcelDatabaseMetaData.getDataType( valueType );
+        return dataTypes[column - 1];
     }
 
     /**
@@ -209,7 +275,7 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      */
     @Override
     public String getColumnTypeName( int column ) throws SQLException {
-        ValueType valueType = columnTypes.get( column - 1 );
+        ValueType valueType = columnTypes[column - 1];
         return ExcelDatabaseMetaData.getDataTypeName( valueType );
     }
 
@@ -242,7 +308,7 @@ public class ExcelSheetResultSetMetaData implements ResultSetMetaData {
      */
     @Override
     public String getColumnClassName( int column ) throws SQLException {
-        ValueType valueType = columnTypes.get( column - 1 );
+        ValueType valueType = columnTypes[column - 1];
         switch( valueType ) {
             case DATE:
                 return java.util.Date.class.getName();
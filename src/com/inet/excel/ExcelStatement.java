@@ -18,10 +18,13 @@ package com.inet.excel;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 import java.sql.SQLWarning;
 import java.sql.Statement;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
+import com.inet.excel.parser.CancellationToken;
 import com.inet.excel.parser.ExcelParser;
 
 /** Class for statement whose sole purpose is to provide result set with data of the sheet from Excel document.
@@ -31,6 +34,8 @@ class ExcelStatement implements Statement {
     private final ExcelParser parser;
     private boolean closed;
     private ExcelSheetResultSet resultSet;
+    private int queryTimeout;
+    private volatile CancellationToken cancellationToken;
 
     /**
      * Constructor of the class.
@@ -70,6 +75,20 @@ class ExcelStatement implements Statement {
         throw new SQLException( "Unsupported SQL Syntax. Only {call sheetname()} or {call sheetname} are supported: " + sql );
     }
 
+    /** Creates result set for specified sheet. Reading the sheet, while the result set is created and while its rows are read,
+     * can be aborted by {@link #cancel()} or by the query timeout, which applies to every read operation separately.
+     * @param sheetName name of the sheet from Excel document.
+     * @return result set with data of the sheet.
+     * @throws SQLTimeoutException if the query timeout elapsed.
+     * @throws SQLException if the statement was cancelled.
+     */
+    ExcelSheetResultSet createResultSet( String sheetName ) throws SQLException {
+        CancellationToken token = new CancellationToken();
+        token.setTimeout( queryTimeout, TimeUnit.SECONDS );
+        cancellationToken = token;
+        return ExcelSheetResultSet.runCancellable( token, () -> new ExcelSheetResultSet( getParser(), sheetName, 50, token ) );
+    }
+
     /** Throws exception if statement is already closed.
      * @throws SQLException if statement is already closed.
      */
@@ -103,7 +122,7 @@ class ExcelStatement implements Statement {
     @Override
     public ResultSet executeQuery( String sql ) throws SQLException {
         throwIfAlreadyClosed();
-        return new ExcelSheetResultSet( getParser(), getSheetName( sql ), 50 );
+        return createResultSet( getSheetName( sql ) );
     }
 
     /**
@@ -170,8 +189,8 @@ class ExcelStatement implements Statement {
      */
     @Override
     public int getQueryTimeout() throws SQLException {
-        ExcelDriver.throwExceptionAboutUnsupportedOperation();
-        return 0;
+        throwIfAlreadyClosed();
+        return queryTimeout;
     }
 
     /**
@@ -179,7 +198,11 @@ class ExcelStatement implements Statement {
      */
     @Override
     public void setQueryTimeout( int seconds ) throws SQLException {
-        ExcelDriver.throwExceptionAboutUnsupportedOperation();
+        throwIfAlreadyClosed();
+        if( seconds < 0 ) {
+            throw new SQLException( "query timeout must not be negative" );
+        }
+        queryTimeout = seconds;
     }
 
     /**
@@ -187,7 +210,11 @@ class ExcelStatement implements Statement {
      */
     @Override
     public void cancel() throws SQLException {
-        ExcelDriver.throwExceptionAboutUnsupportedOperation();
+        throwIfAlreadyClosed();
+        CancellationToken token = cancellationToken;
+        if( token != null ) {
+            token.cancel();
+        }
     }
 
     /**
@@ -219,7 +246,7 @@ class ExcelStatement implements Statement {
     @Override
     public boolean execute( String sql ) throws SQLException {
         throwIfAlreadyClosed();
-        resultSet = new ExcelSheetResultSet( getParser(), getSheetName( sql ), 50 );
+        resultSet = createResultSet( getSheetName( sql ) );
         return true;
     }
 
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel;
+
+import java.util.regex.Pattern;
+
+/** Search pattern as used by methods of {@link java.sql.DatabaseMetaData}: "%" matches any sequence of characters, "_" matches
+ * a single character and {@link #ESCAPE} makes the next character match literally. A pattern is compiled once and can then be
+ * applied to any number of names.
+ */
+final class LikePattern {
+
+    /** Character, which escapes wildcards in a pattern. */
+    static final char                ESCAPE = '\\';
+
+    private static final LikePattern ANY    = new LikePattern( null, null );
+
+    private final String             literal;
+    private final Pattern            regex;
+
+    /** Creates pattern, which matches either specified literal, specified regular expression or any name, if both are null.
+     * @param literal name to match exactly.
+     * @param regex regular expression to match.
+     */
+    private LikePattern( String literal, Pattern regex ) {
+        this.literal = literal;
+        this.regex = regex;
+    }
+
+    /** Compiles specified search pattern.
+     * @param pattern search pattern. Null or "%" match any name.
+     * @return compiled pattern.
+     */
+    static LikePattern compile( String pattern ) {
+        if( pattern == null || pattern.equals( "%" ) ) {
+            return ANY;
+        }
+        StringBuilder literal = new StringBuilder();
+        StringBuilder regex = new StringBuilder();
+        boolean hasWildcards = false;
+        for( int i = 0; i < pattern.length(); i++ ) {
+            char c = pattern.charAt( i );
+            if( c == ESCAPE && i + 1 < pattern.length() ) {
+                c = pattern.charAt( ++i );
+            } else if( c == '%' ) {
+                hasWildcards = true;
+                regex.append( ".*" );
+                continue;
+            } else if( c == '_' ) {
+                hasWildcards = true;
+                regex.append( '.' );
+                continue;
+            }
+            literal.append( c );
+            regex.append( Pattern.quote( String.valueOf( c ) ) );
+        }
+        if( !hasWildcards ) {
+            return new LikePattern( literal.toString(), null );
+        }
+        return new LikePattern( null, Pattern.compile( regex.toString(), Pattern.DOTALL ) );
+    }
+
+    /** Checks whether specified name matches this pattern.
+     * @param name name to check.
+     * @return whether specified name matches this pattern.
+     */
+    boolean matches( String name ) {
+        if( literal != null ) {
+            return literal.equals( name );
+        }
+        if( regex != null ) {
+            return name != null && regex.matcher( name ).matches();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Java Flight Recorder event for the lifetime of a result set of a sheet, from its creation until it is closed.
+ */
+@Name( "com.inet.excel.ResultSet" )
+@Label( "Excel Result Set" )
+@Category( { "i-net Excel" } )
+@Description( "Lifetime of a result set reading rows of a sheet" )
+class ResultSetEvent extends Event {
+
+    @Label( "File Name" )
+    String fileName;
+
+    @Label( "Sheet Name" )
+    String sheetName;
+
+    @Label( "Row Count" )
+    @Description( "Number of rows the cursor was moved to" )
+    int    rowCount;
+
+    @Label( "Batch Count" )
+    @Description( "Number of batches of rows read from the sheet" )
+    int    batchCount;
+}
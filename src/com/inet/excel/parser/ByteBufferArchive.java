@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/** Archive reading Excel document directly from memory, without any file system access.
+ */
+class ByteBufferArchive extends ZipArchive {
+
+    private final ByteBuffer data;
+
+    /** Creates archive for Excel document held in specified buffer.
+     * @param data content of the Excel document, from position 0 to the limit of the buffer. It must not be modified while archive is in use.
+     */
+    ByteBufferArchive( ByteBuffer data ) {
+        this.data = data;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long size() {
+        return data.limit();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ByteBuffer read( long position, int length ) throws IOException {
+        if( position < 0 || position + length > data.limit() ) {
+            throw new EOFException( "Range " + position + "+" + length + " exceeds document of size " + data.limit() );
+        }
+        ByteBuffer slice = data.duplicate();
+        slice.limit( (int)position + length ).position( (int)position );
+        return slice.slice();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected InputStream openRange( long position, long length ) throws IOException {
+        ByteBuffer range = read( position, (int)length );
+        return new InputStream() {
+            @Override
+            public int read() {
+                return range.hasRemaining() ? range.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read( byte[] b, int off, int len ) {
+                if( len == 0 ) {
+                    return 0;
+                }
+                if( !range.hasRemaining() ) {
+                    return -1;
+                }
+                int count = Math.min( len, range.remaining() );
+                range.get( b, off, count );
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return range.remaining();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        // nothing to release
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/** Token for cooperative cancellation of reading data from Excel document. Tasks are run with the token by {@link #run(Supplier)}.
+ * While they read the document, the parser checks the token at every row and every 1024 shared strings, and while they wait for a part
+ * of the document, which is loaded by another task. It aborts by throwing {@link ExcelParserCancelledException}, if the token was cancelled
+ * or the timeout elapsed. Documents and streams are closed as usual. A task waiting for a part, whose load was aborted by the token of
+ * another task, loads the part itself. The single pass over a non-seekable stream (see {@link StreamArchive}) is not affected either,
+ * because the stream can not be read again.
+ * Parts of the document, which are loaded in background (see {@link ExcelParser#warmUp(java.util.Set, java.util.concurrent.Executor)}),
+ * are not affected.
+ */
+public final class CancellationToken {
+
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private volatile boolean                            cancelled;
+    private volatile long                               timeoutNanos;
+    private volatile long                               deadline;
+
+    /** Cancels tasks, which are running with this token, and all tasks, which are started with it later.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /** Returns whether this token was cancelled.
+     * @return whether this token was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Sets time limit for every task, which is started with this token later.
+     * @param timeout maximum duration of a task. Zero means no limit.
+     * @param unit unit of the timeout.
+     * @throws IllegalArgumentException if timeout is negative.
+     */
+    public void setTimeout( long timeout, TimeUnit unit ) {
+        if( timeout < 0 ) {
+            throw new IllegalArgumentException( "timeout must not be negative" );
+        }
+        this.timeoutNanos = unit.toNanos( timeout );
+    }
+
+    /** Runs specified task in the current thread, so that reading data from Excel document can be cancelled by this token.
+     * @param <T> type of the result.
+     * @param task task to run.
+     * @return result of the task.
+     * @throws ExcelParserCancelledException if the token was cancelled or the timeout elapsed, before or while the task was running.
+     */
+    public <T> T run( Supplier<T> task ) {
+        long timeout = timeoutNanos;
+        deadline = timeout > 0 ? System.nanoTime() + timeout : 0;
+        CancellationToken previous = CURRENT.get();
+        CURRENT.set( this );
+        try {
+            throwIfCancelled();
+            return task.get();
+        } finally {
+            if( previous == null ) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set( previous );
+            }
+        }
+    }
+
+    /** Removes the token of the task, which is running in the current thread, so that following work of the thread is not cancelled by it.
+     * It must be restored by {@link #restoreCurrent(CancellationToken)}.
+     * @return the removed token or null, if no task with a token is running in the current thread.
+     */
+    static CancellationToken detachCurrent() {
+        CancellationToken token = CURRENT.get();
+        CURRENT.remove();
+        return token;
+    }
+
+    /** Restores the token of the task, which is running in the current thread, after it was removed by {@link #detachCurrent()}.
+     * @param token the removed token or null.
+     */
+    static void restoreCurrent( CancellationToken token ) {
+        if( token == null ) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set( token );
+        }
+    }
+
+    /** Throws exception, if the token of the task, which is running in the current thread, was cancelled or its timeout elapsed.
+     * @throws ExcelParserCancelledException if the task is cancelled.
+     */
+    static void checkCurrent() {
+        CancellationToken token = CURRENT.get();
+        if( token != null ) {
+            token.throwIfCancelled();
+        }
+    }
+
+    /** Throws exception, if this token was cancelled or the timeout of the current task elapsed.
+     * @throws ExcelParserCancelledException if the task is cancelled.
+     */
+    private void throwIfCancelled() {
+        if( cancelled ) {
+            throw new ExcelParserCancelledException( "Reading of the Excel document was cancelled.", false );
+        }
+        long deadline = this.deadline;
+        if( deadline != 0 && System.nanoTime() - deadline > 0 ) {
+            throw new ExcelParserCancelledException( "Reading of the Excel document exceeded the timeout.", true );
+        }
+    }
+}
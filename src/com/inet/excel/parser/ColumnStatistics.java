@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.math.BigDecimal;
+
+/** Immutable statistics of the values of a column, which allow to size buffers close to the real size of the values.
+ * They are collected while the column types are probed. Depending on the configuration of the parser, they cover only the probed rows
+ * or all rows of the sheet, see {@link ExcelParser#setExactColumnStatistics(boolean)}.
+ */
+public final class ColumnStatistics {
+
+    /** Statistics of a column, whose values were not examined. */
+    static final ColumnStatistics UNKNOWN = new ColumnStatistics( 0, 0, 0, 0, false );
+
+    private final int     valueCount;
+    private final int     maxLength;
+    private final int     integerDigits;
+    private final int     scale;
+    private final boolean complete;
+
+    /** Creates statistics of a column.
+     * @param valueCount number of examined values.
+     * @param maxLength maximum length of the values in characters.
+     * @param integerDigits maximum number of digits before the decimal point of the numeric values.
+     * @param scale maximum number of digits after the decimal point of the numeric values.
+     * @param complete whether all rows of the sheet were examined.
+     */
+    ColumnStatistics( int valueCount, int maxLength, int integerDigits, int scale, boolean complete ) {
+        this.valueCount = valueCount;
+        this.maxLength = maxLength;
+        this.integerDigits = integerDigits;
+        this.scale = scale;
+        this.complete = complete;
+    }
+
+    /** Returns whether all rows of the sheet were examined. Otherwise the statistics describe only a sample of the values, so that
+     * longer values may exist in other rows.
+     * @return whether the statistics cover all values of the column.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /** Returns number of examined values.
+     * @return number of examined values. If zero, the other statistics are meaningless.
+     */
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    /** Returns maximum length of the examined values in characters. Numbers are measured in plain notation, including sign and decimal point.
+     * @return maximum length of the examined values.
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /** Returns number of digits, which are needed to represent all examined numeric values without loss.
+     * @return sum of maximum number of digits before and maximum number of digits after the decimal point; zero without numeric values.
+     */
+    public int getPrecision() {
+        return integerDigits + scale;
+    }
+
+    /** Returns maximum number of digits after the decimal point of the examined numeric values.
+     * @return maximum number of digits after the decimal point; zero without numeric values.
+     */
+    public int getScale() {
+        return scale;
+    }
+
+    /** Collects statistics of the values of a column.
+     */
+    static class Collector {
+
+        private int valueCount;
+        private int maxLength;
+        private int integerDigits;
+        private int scale;
+
+        /** Adds specified value to the statistics. The text of a number is measured as text and as number, because the type of its
+         * column may not be known yet.
+         * @param value value of a cell; null is ignored.
+         */
+        void add( Object value ) {
+            if( value == null ) {
+                return;
+            }
+            valueCount++;
+            int length;
+            if( value instanceof Double ) {
+                length = addNumber( ((Double)value).doubleValue() );
+            } else {
+                String text = value.toString();
+                length = text.length();
+                if( value instanceof String && isNumeric( text ) ) {
+                    Double number = NumberParser.parse( text );
+                    if( number != null ) {
+                        length = Math.max( length, addNumber( number.doubleValue() ) );
+                    }
+                }
+            }
+            maxLength = Math.max( maxLength, length );
+        }
+
+        /** Adds precision and scale of specified number to the statistics.
+         * @param value the number.
+         * @return length of the number in plain notation.
+         */
+        private int addNumber( double value ) {
+            if( !Double.isFinite( value ) ) {
+                return Double.toString( value ).length();
+            }
+            // shortest representation, which identifies the double uniquely, without trailing zeros
+            BigDecimal number = BigDecimal.valueOf( value ).stripTrailingZeros();
+            int valueScale = Math.max( 0, number.scale() );
+            int valueIntegerDigits = Math.max( 1, number.precision() - number.scale() );
+            integerDigits = Math.max( integerDigits, valueIntegerDigits );
+            scale = Math.max( scale, valueScale );
+            return valueIntegerDigits + (valueScale > 0 ? valueScale + 1 : 0) + (number.signum() < 0 ? 1 : 0);
+        }
+
+        /** Checks cheaply whether specified text may be a number, so that other texts are not parsed.
+         * @param text the text.
+         * @return false, if the text is certainly not a number.
+         */
+        private static boolean isNumeric( String text ) {
+            if( text.isEmpty() ) {
+                return false;
+            }
+            char first = text.charAt( 0 );
+            return (first >= '0' && first <= '9') || first == '-' || first == '+' || first == '.';
+        }
+
+        /** Returns statistics of the added values.
+         * @param complete whether all rows of the sheet were examined.
+         * @return statistics of the added values.
+         */
+        ColumnStatistics toStatistics( boolean complete ) {
+            return new ColumnStatistics( valueCount, maxLength, integerDigits, scale, complete );
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+/** Row of a sheet, which stores a value for every column.
+ */
+final class DenseRow extends SheetRow {
+
+    /** Creates row.
+     * @param values values of all columns; null for columns without value. The array is taken over.
+     * @param kinds kinds of the values, see {@link SheetRow#NUMBER}, or null, if there are no numbers to parse. The array is taken over.
+     */
+    DenseRow( Object[] values, byte[] kinds ) {
+        super( values, kinds );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int getPosition( int index ) {
+        if( index < 0 || index >= size() ) {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size() );
+        }
+        return index;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return getStoredValueCount();
+    }
+}
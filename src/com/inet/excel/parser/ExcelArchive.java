@@ -0,0 +1,33 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Read access to the parts (zip entries) of an opened Excel document.
+ * Implementations must allow reading several entries at the same time, also from different threads.
+ */
+public interface ExcelArchive extends Closeable {
+
+    /** Returns stream with uncompressed content of specified entry.
+     * @param entryName name of the entry inside Excel document, e.g. "xl/workbook.xml".
+     * @return stream with uncompressed content of specified entry or null, if there is no such entry.
+     * @throws IOException if an I/O error has occurred.
+     */
+    InputStream getInputStream( String entryName ) throws IOException;
+}
@@ -17,6 +17,7 @@ package com.inet.excel.parser;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.sql.Time;
 import java.sql.Timestamp;
@@ -27,15 +28,18 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 
@@ -43,22 +47,51 @@ import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
 
+import com.inet.excel.parser.ExcelStatistics.Phase;
 import com.inet.excel.parser.RowData.CellData;
 
 /** Component responsible for reading data from Excel document.
  */
 public class ExcelParser {
 
+    /** Default maximum number of cells per column, which are probed to recognize the type of the column. */
+    public static final int              DEFAULT_PROBED_CELL_LIMIT       = 10;
+
+    /** Default maximum number of rows, which are probed to recognize the types of the columns. */
+    public static final int              DEFAULT_PROBED_ROW_LIMIT        = 30;
+
+    /** Default maximum number of rows, which are scanned to determine the range of a sheet containing values. */
+    public static final int              DEFAULT_USED_RANGE_SCAN_LIMIT   = 10000;
+
+    private static final int             MEMORY_RESERVATION_CHUNK        = 64 * 1024;
+
     private final XMLInputFactory        factory                         = XMLInputFactory.newInstance();
     private final Path                   filePath;
+    private final ByteBuffer             data;
+    private final ExcelArchive           archive;
+    private final String                 fileName;
     private final boolean                hasHeaderRow;
-
-    private List<String>                 sharedStrings                   = null;
-    private Map<String, String>          sheetNamesToPaths               = null;
-    private List<ValueType>              valueTypesOrderedByStyleIndexes = null;
-    private Map<String, SheetDimension>  sheetNamesToDimensions          = new HashMap<>();
-    private Map<String, List<String>>    sheetNamesToColumnNames         = new HashMap<>();
-    private Map<String, List<ValueType>> sheetNamesToColumnTypes         = new HashMap<>();
+    private volatile int                 probedCellLimit                 = DEFAULT_PROBED_CELL_LIMIT;
+    private volatile int                 probedRowLimit                  = DEFAULT_PROBED_ROW_LIMIT;
+    private volatile boolean             adaptiveSampling;
+    private volatile RowCountMode        rowCountMode                    = RowCountMode.DIMENSION;
+    private volatile int                 usedRangeScanLimit              = DEFAULT_USED_RANGE_SCAN_LIMIT;
+    private volatile boolean             skipEmptyRows;
+    private volatile boolean             caseInsensitiveLabels;
+    private volatile boolean             exactColumnStatistics;
+    private final MemoryBudget           memoryBudget                    = new MemoryBudget( MemoryBudget.global(), Long.MAX_VALUE );
+
+    private final LazyValue<List<String>>                   sharedStrings                   = new LazyValue<>();
+    private final LazyValue<Map<String, Integer>>           sharedStringIndexes             = new LazyValue<>();
+    private final LazyValue<Map<String, String>>            sheetNamesToPaths               = new LazyValue<>();
+    private final LazyValue<List<String>>                   sheetNames                      = new LazyValue<>();
+    private final LazyValue<StyleTable>                     valueTypesOrderedByStyleIndexes = new LazyValue<>();
+    private final LazyValue<Boolean>                        reliableDimensions              = new LazyValue<>();
+    private final Map<String, LazyValue<SheetLayout>>       sheetNamesToLayouts             = new ConcurrentHashMap<>();
+    private final Map<String, LazyValue<ProbedColumns>>     sheetNamesToColumnTypes         = new ConcurrentHashMap<>();
+    private final Map<String, LazyValue<SheetMetadata>>     sheetNamesToMetadata            = new ConcurrentHashMap<>();
+    private final Map<String, SheetMetadata>                schemaHints                     = new ConcurrentHashMap<>();
+    private final Map<String, LazyValue<Integer>>           sheetNamesToRowCounts           = new ConcurrentHashMap<>();
 
     /** Creates instance responsible for reading data from specified Excel document.
      * @param filePath file path to Excel document.
@@ -70,13 +103,196 @@ public class ExcelParser {
             throw new IllegalArgumentException( "filePath must not be null" );
         }
         this.filePath = filePath;
+        this.data = null;
+        this.archive = null;
+        this.fileName = null;
+        this.hasHeaderRow = hasHeaderRow;
+    }
+
+    /** Creates instance responsible for reading data from Excel document held in memory. The document is parsed directly from
+     * the given buffer, without any file system access.
+     * @param fileName file name of the Excel document, e.g. "doc.xlsx". It is used only for information purposes.
+     * @param data content of the Excel document, from current position to the limit of the buffer. It must not be modified afterwards.
+     * @param hasHeaderRow whether first row in sheet represents column headers.
+     * @throws IllegalArgumentException if file name or data is null.
+     */
+    public ExcelParser( String fileName, ByteBuffer data, boolean hasHeaderRow ) {
+        if( fileName == null ) {
+            throw new IllegalArgumentException( "fileName must not be null" );
+        }
+        if( data == null ) {
+            throw new IllegalArgumentException( "data must not be null" );
+        }
+        this.filePath = null;
+        this.data = data.slice().asReadOnlyBuffer();
+        this.archive = null;
+        this.fileName = fileName;
+        this.hasHeaderRow = hasHeaderRow;
+    }
+
+    /** Creates instance responsible for reading data from Excel document provided by specified archive.
+     * The archive is used for all operations of this parser, but it is not closed by the parser.
+     * In case of {@link StreamArchive}, styles and shared strings are parsed while the stream is read.
+     * @param fileName file name of the Excel document, e.g. "doc.xlsx". It is used only for information purposes.
+     * @param archive archive providing parts of Excel document. Must be closed by the caller, when parser is not used anymore.
+     * @param hasHeaderRow whether first row in sheet represents column headers.
+     * @throws IllegalArgumentException if file name or archive is null.
+     */
+    public ExcelParser( String fileName, ExcelArchive archive, boolean hasHeaderRow ) {
+        if( fileName == null ) {
+            throw new IllegalArgumentException( "fileName must not be null" );
+        }
+        if( archive == null ) {
+            throw new IllegalArgumentException( "archive must not be null" );
+        }
+        this.filePath = null;
+        this.data = null;
+        this.archive = archive;
+        this.fileName = fileName;
         this.hasHeaderRow = hasHeaderRow;
+        ExcelStatistics.get().archiveOpened();
+        if( archive instanceof StreamArchive ) {
+            ((StreamArchive)archive).setEntryHandler( ( entryName, content ) -> {
+                switch( entryName ) {
+                    case "xl/styles.xml":
+                        getValueTypesOfStyles( singleEntryArchive( entryName, content ) );
+                        return true;
+                    case "xl/sharedStrings.xml":
+                        getSharedStrings( singleEntryArchive( entryName, content ) );
+                        return true;
+                    default:
+                        return false;
+                }
+            } );
+        }
+    }
+
+    /** Sets how column types are recognized. It must be called before column types are requested for the first time.
+     * @param probedCellLimit maximum number of cells per column, which are probed. A negative value means no limit.
+     * Zero disables probing, so that all columns are of type {@link ValueType#VARCHAR}.
+     * @param probedRowLimit maximum number of rows, which are probed. A negative value means no limit.
+     * Zero disables probing, so that all columns are of type {@link ValueType#VARCHAR}.
+     * @param adaptive whether rows from the middle and the tail of the sheet are probed in addition to its head. They are probed in the
+     * same pass as the head, before any row is returned. Rows between these parts are skipped without looking at their cells, so that the
+     * number of probed rows stays bounded by about twice the row limit. This requires row indexes in the dimension of the sheet,
+     * otherwise only the head is probed.
+     */
+    public void setTypeSampling( int probedCellLimit, int probedRowLimit, boolean adaptive ) {
+        this.probedCellLimit = probedCellLimit;
+        this.probedRowLimit = probedRowLimit;
+        this.adaptiveSampling = adaptive;
+    }
+
+    /** Sets how the number of rows of a sheet is determined. Default is {@link RowCountMode#DIMENSION}. Row counts, which are already
+     * determined, are discarded.
+     * @param rowCountMode how the number of rows of a sheet is determined.
+     * @throws IllegalArgumentException if mode is null.
+     */
+    public void setRowCountMode( RowCountMode rowCountMode ) {
+        if( rowCountMode == null ) {
+            throw new IllegalArgumentException( "rowCountMode must not be null" );
+        }
+        this.rowCountMode = rowCountMode;
+        sheetNamesToRowCounts.clear();
+    }
+
+    /** Sets maximum number of rows, which are scanned to determine the range of a sheet containing values. A sheet, whose dimension
+     * has at most this number of rows, is scanned completely, so that trailing rows without values are not taken into account.
+     * A larger dimension is taken as it is. A missing dimension or a dimension reaching the limits of a sheet, e.g. "A1:XFD1048576",
+     * is replaced by the range of the scanned rows containing values. If there are more rows, the rows are counted on request.
+     * It must be called before column names are requested for the first time. Default is {@link #DEFAULT_USED_RANGE_SCAN_LIMIT}.
+     * @param usedRangeScanLimit maximum number of scanned rows. A negative value means no limit.
+     */
+    public void setUsedRangeScanLimit( int usedRangeScanLimit ) {
+        this.usedRangeScanLimit = usedRangeScanLimit;
+    }
+
+    /** Sets whether result sets of this document contain only rows, which have values. Otherwise gaps in the row numbering of a sheet
+     * and rows without values are returned as rows, whose values are all null.
+     * @param skipEmptyRows whether rows without values are skipped.
+     */
+    public void setSkipEmptyRows( boolean skipEmptyRows ) {
+        this.skipEmptyRows = skipEmptyRows;
+    }
+
+    /** Returns whether result sets of this document contain only rows, which have values.
+     * @return whether rows without values are skipped.
+     */
+    public boolean isSkipEmptyRows() {
+        return skipEmptyRows;
+    }
+
+    /** Sets whether result sets of this document find columns by a label, which differs only in case from the column name, if no column
+     * has exactly this name. By default column labels are case sensitive.
+     * @param caseInsensitiveLabels whether the case of column labels is ignored.
+     */
+    public void setCaseInsensitiveLabels( boolean caseInsensitiveLabels ) {
+        this.caseInsensitiveLabels = caseInsensitiveLabels;
+    }
+
+    /** Returns whether result sets of this document ignore the case of column labels, if no column has exactly the label.
+     * @return whether the case of column labels is ignored.
+     */
+    public boolean isCaseInsensitiveLabels() {
+        return caseInsensitiveLabels;
+    }
+
+    /** Sets whether column statistics are collected from all rows of a sheet. Then the pass, which probes the column types, continues
+     * over all rows, even if probing is disabled or the column types are declared. Otherwise column statistics are collected only from
+     * the probed rows, so that they are complete only for sheets, whose rows are all probed.
+     * It must be called before column types are requested for the first time.
+     * @param exact whether column statistics are collected from all rows.
+     */
+    public void setExactColumnStatistics( boolean exact ) {
+        this.exactColumnStatistics = exact;
+    }
+
+    /** Returns memory budget of this parser. It is bounded by {@link MemoryBudget#global()} and has no limit of its own by default.
+     * Shared strings, which do not fit into the budget, are kept in a memory-mapped temporary file instead of the heap.
+     * @return memory budget of this parser.
+     */
+    public MemoryBudget getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /** Returns whether first row in sheets represents column headers.
+     * @return whether first row in sheets represents column headers.
+     */
+    public boolean hasHeaderRow() {
+        return hasHeaderRow;
+    }
+
+    /** Declares column names and column types of specified sheet, so that neither column headers nor column types are read from the sheet.
+     * The columns are taken in order, starting with column "A". Cell values are converted to the declared type of their column.
+     * It should be called before the sheet is used for the first time; data of the sheet, which is already cached, is discarded.
+     * @param sheetName name of the sheet from Excel document.
+     * @param columnNames names of the columns.
+     * @param columnTypes types of the columns, in same order as column names.
+     * @throws IllegalArgumentException if an argument is null, no columns are declared or numbers of names and types differ.
+     */
+    public void setSchemaHint( String sheetName, List<String> columnNames, List<ValueType> columnTypes ) {
+        if( sheetName == null || columnNames == null || columnTypes == null ) {
+            throw new IllegalArgumentException( "sheetName, columnNames and columnTypes must not be null" );
+        }
+        if( columnNames.isEmpty() || columnNames.size() != columnTypes.size() ) {
+            throw new IllegalArgumentException( "number of column names and column types must be equal and greater than zero" );
+        }
+        if( columnNames.contains( null ) || columnTypes.contains( null ) ) {
+            throw new IllegalArgumentException( "column names and column types must not contain null" );
+        }
+        schemaHints.put( sheetName, new SheetMetadata( sheetName, new ArrayList<>( columnNames ), new ArrayList<>( columnTypes ) ) );
+        sheetNamesToLayouts.remove( sheetName );
+        sheetNamesToColumnTypes.remove( sheetName );
+        sheetNamesToMetadata.remove( sheetName );
     }
 
     /** Returns file name of the Excel document, e.g. "doc.xlsx".
      * @return file name of the Excel document.
      */
     public String getFileName() {
+        if( fileName != null ) {
+            return fileName;
+        }
         return filePath.getFileName().toString();
     }
 
@@ -89,11 +305,8 @@ public class ExcelParser {
      * @throws ExcelParserException in case of I/O or processing errors.
      */
     public List<String> getColumnNames( String sheetName ) {
-        try( ZipFile zipFile = openExcelDocument( filePath ) ) {
-            initSheetData( zipFile );
-            initStyles( zipFile );
-            initDimensionAndColumnNames( zipFile, sheetName );
-            return Collections.unmodifiableList( sheetNamesToColumnNames.get( sheetName ) );
+        try( ExcelArchive archive = openExcelDocument() ) {
+            return Collections.unmodifiableList( getSheetLayout( archive, sheetName ).columnNames );
         } catch( IOException ex ) {
             throw new ExcelParserException( ex );
         }
@@ -104,9 +317,12 @@ public class ExcelParser {
      * @throws ExcelParserException in case of I/O or processing errors.
      */
     public List<String> getSheetNames() {
-        try( ZipFile zipFile = openExcelDocument( filePath ) ) {
-            initSheetData( zipFile );
-            return sheetNamesToPaths.entrySet().stream().sorted( Map.Entry.comparingByValue() ).map( Map.Entry::getKey ).collect( Collectors.toList() );
+        List<String> names = sheetNames.getIfLoaded();
+        if( names != null ) {
+            return names; // no need to open the document
+        }
+        try( ExcelArchive archive = openExcelDocument() ) {
+            return sheetNames.get( () -> Collections.unmodifiableList( getSheetPaths( archive ).entrySet().stream().sorted( Map.Entry.comparingByValue() ).map( Map.Entry::getKey ).collect( Collectors.toList() ) ) );
         } catch( IOException ex ) {
             throw new ExcelParserException( ex );
         }
@@ -120,34 +336,113 @@ public class ExcelParser {
      * @throws ExcelParserException in case of I/O or processing errors.
      */
     public List<ValueType> getColumnTypes( String sheetName ) {
-        try( ZipFile zipFile = openExcelDocument( filePath ) ) {
-            initSheetData( zipFile );
-            initStyles( zipFile );
-            initDimensionAndColumnNames( zipFile, sheetName );
-            initColumnTypes( zipFile, sheetName );
-            return Collections.unmodifiableList( sheetNamesToColumnTypes.get( sheetName ) );
+        try( ExcelArchive archive = openExcelDocument() ) {
+            return Collections.unmodifiableList( getColumnTypes( archive, sheetName ) );
+        } catch( IOException ex ) {
+            throw new ExcelParserException( ex );
+        }
+    }
+
+    /** Returns column names and column types of specified sheet. Once loaded, the same instance is returned without opening the document,
+     * until the columns of the sheet are declared by {@link #setSchemaHint(String, List, List)}.
+     * @param sheetName name of the sheet from Excel document.
+     * @return column names and column types of specified sheet.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    public SheetMetadata getSheetMetadata( String sheetName ) {
+        return getSheetMetadata( Collections.singletonList( sheetName ), Runnable::run ).get( 0 );
+    }
+
+    /** Returns column names and column types of specified sheets. Sheets are processed concurrently by given executor,
+     * sharing a single opened Excel document.
+     * @param sheetNames names of the sheets from Excel document.
+     * @param executor executor processing the sheets. It should be bounded, because every sheet is a separate task.
+     * @return column names and column types of specified sheets, in order of the given sheet names.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    public List<SheetMetadata> getSheetMetadata( List<String> sheetNames, Executor executor ) {
+        List<SheetMetadata> cached = new ArrayList<>();
+        for( String sheetName : sheetNames ) {
+            LazyValue<SheetMetadata> metadata = sheetName == null ? null : sheetNamesToMetadata.get( sheetName );
+            SheetMetadata loaded = metadata == null ? null : metadata.getIfLoaded();
+            if( loaded == null ) {
+                break;
+            }
+            cached.add( loaded );
+        }
+        ExcelStatistics.get().metadataRequested( cached.size(), sheetNames.size() - cached.size() );
+        if( cached.size() == sheetNames.size() ) {
+            return cached; // no need to open the document
+        }
+        try( ExcelArchive archive = openExcelDocument() ) {
+            if( sheetNames.size() == 1 ) {
+                return Collections.singletonList( readSheetMetadata( archive, sheetNames.get( 0 ) ) );
+            }
+            List<CompletableFuture<SheetMetadata>> futures = new ArrayList<>();
+            for( String sheetName : sheetNames ) {
+                futures.add( CompletableFuture.supplyAsync( () -> readSheetMetadata( archive, sheetName ), executor ) );
+            }
+            // archive must not be closed before all tasks are done, even in case of failure
+            CompletableFuture.allOf( futures.toArray( new CompletableFuture<?>[futures.size()] ) ).handle( ( result, ex ) -> null ).join();
+
+            List<SheetMetadata> metadata = new ArrayList<>();
+            for( CompletableFuture<SheetMetadata> future : futures ) {
+                try {
+                    metadata.add( future.join() );
+                } catch( CompletionException ex ) {
+                    Throwable cause = ex.getCause();
+                    throw cause instanceof ExcelParserException ? (ExcelParserException)cause : new ExcelParserException( cause );
+                }
+            }
+            return metadata;
         } catch( IOException ex ) {
             throw new ExcelParserException( ex );
         }
     }
 
+    /** Returns column names and column types of specified sheet. They are loaded on first request.
+     * @param archive component allowing access to data inside Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @return column names and column types of specified sheet.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private SheetMetadata readSheetMetadata( ExcelArchive archive, String sheetName ) {
+        List<String> columnNames = getSheetLayout( archive, sheetName ).columnNames;
+        ProbedColumns columns = getProbedColumns( archive, sheetName );
+        return sheetNamesToMetadata.computeIfAbsent( sheetName, name -> new LazyValue<>() ).get( () -> new SheetMetadata( sheetName, columnNames, columns.types, columns.statistics ) );
+    }
+
     /** Returns number of rows included in specified sheet from Excel document.
      * @param sheetName name of the sheet from Excel document.
      * @return number of rows included in specified sheet from Excel document.
      * @throws ExcelParserException in case of I/O or processing errors.
      */
     public int getRowCount( String sheetName ) {
-        try( ZipFile zipFile = openExcelDocument( filePath ) ) {
-            initSheetData( zipFile );
-            int rowCount = readRowCount( zipFile, sheetName );
-            if( hasHeaderRow ) {
-                // should not count header row
-                return Math.max( 0, rowCount - 1 );
+        LazyValue<Integer> cached = sheetName == null ? null : sheetNamesToRowCounts.get( sheetName );
+        Integer rowCount = cached == null ? null : cached.getIfLoaded();
+        if( rowCount == null ) {
+            try( ExcelArchive archive = openExcelDocument() ) {
+                rowCount = getRowCount( archive, sheetName );
+            } catch( IOException ex ) {
+                throw new ExcelParserException( ex );
             }
-            return rowCount;
-        } catch( IOException ex ) {
-            throw new ExcelParserException( ex );
         }
+        if( hasHeaderRow ) {
+            // should not count header row
+            return Math.max( 0, rowCount - 1 );
+        }
+        return rowCount;
+    }
+
+    /** Returns statistics of the values of the columns of specified sheet: maximum length, precision and scale.
+     * They are collected while the column types are probed, from the probed rows or from all rows, see {@link #setExactColumnStatistics(boolean)}.
+     * A header row is not taken into account.
+     * @param sheetName name of the sheet from Excel document.
+     * @return statistics of the columns, in same order as column names.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    public List<ColumnStatistics> getColumnStatistics( String sheetName ) {
+        return getSheetMetadata( sheetName ).getColumnStatistics();
     }
 
     /** Returns list of rows from specified range. Every element in resulting list represents cell values from single row.
@@ -170,37 +465,109 @@ public class ExcelParser {
             throw new IllegalArgumentException( "firstRowIndex  must be smaller than or equal to lastRowIndex" );
         }
 
-        try( ZipFile zipFile = openExcelDocument( filePath ) ) {
-            initSheetData( zipFile );
-            initStyles( zipFile );
-            initDimensionAndColumnNames( zipFile, sheetName );
-            initColumnTypes( zipFile, sheetName );
+        try( ExcelArchive archive = openExcelDocument() ) {
             if( hasHeaderRow ) {
                 // should skip header row
                 firstRowIndex++;
                 lastRowIndex++;
             }
-            return readRows( zipFile, sheetName, firstRowIndex, lastRowIndex );
+            return readRows( archive, sheetName, firstRowIndex, lastRowIndex );
         } catch( IOException ex ) {
             throw new ExcelParserException( ex );
         }
     }
 
-    /** Initializes map of sheet names to their paths within Excel document, if these are not already loaded.
-     * @param zipFile component allowing access to data inside Excel file.
+    /** Returns rows with values, starting at specified row. Unlike {@link #getRows(String, int, int)}, rows are identified by their index
+     * in the sheet (as shown by Excel) and rows without values are skipped. A header row is never included.
+     * Reading stops as soon as the requested number of rows is found, so the rest of the sheet is not parsed.
+     * @param sheetName name of the sheet from Excel document.
+     * @param firstRowIndex index of the first row in the sheet, which may be included.
+     * @param maxRowCount maximum number of returned rows.
+     * @return rows with values in order of their occurrence in the sheet, mapped by their index in the sheet.
+     * Fewer rows than requested are returned only at the end of the sheet.
+     * @throws IllegalArgumentException if first row index or max row count is smaller than 1.
      * @throws ExcelParserException in case of I/O or processing errors.
      */
-    private void initSheetData( ZipFile zipFile ) {
-        if( sheetNamesToPaths != null ) {
-            return;
+    public Map<Integer, List<Object>> getRowsWithValues( String sheetName, int firstRowIndex, int maxRowCount ) {
+        if( firstRowIndex < 1 ) {
+            throw new IllegalArgumentException( "firstRowIndex must be greater than zero" );
+        }
+        if( maxRowCount < 1 ) {
+            throw new IllegalArgumentException( "maxRowCount must be greater than zero" );
+        }
+        try( ExcelArchive archive = openExcelDocument() ) {
+            Map<Integer, List<Object>> rows = new LinkedHashMap<>();
+            scanRows( archive, sheetName, hasHeaderRow ? Math.max( 2, firstRowIndex ) : firstRowIndex, Integer.MAX_VALUE, ( rowIndex, row ) -> {
+                rows.put( Integer.valueOf( rowIndex ), row );
+                return rows.size() < maxRowCount;
+            } );
+            return rows;
+        } catch( IOException ex ) {
+            throw new ExcelParserException( ex );
+        }
+    }
+
+    /** Starts parsing of specified parts of the Excel document in background. Later requests, which need these parts, wait for
+     * the parsing in progress instead of parsing them once more. Failures are not remembered, so later requests parse failed parts again.
+     * @param parts parts of the Excel document to parse in advance.
+     * @param executor executor running the background tasks.
+     * @return future, which is completed when all parts are parsed.
+     */
+    public CompletableFuture<Void> warmUp( Set<WarmUp> parts, Executor executor ) {
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        if( parts.contains( WarmUp.STYLES ) ) {
+            tasks.add( runAsync( this::getValueTypesOfStyles, executor ) );
         }
+        if( parts.contains( WarmUp.SHARED_STRINGS ) ) {
+            tasks.add( runAsync( this::getSharedStrings, executor ) );
+        }
+        if( parts.contains( WarmUp.SHEETS ) ) {
+            tasks.add( CompletableFuture.supplyAsync( this::getSheetNames, executor ).thenCompose( sheetNames -> {
+                // every sheet is parsed by a separate task
+                CompletableFuture<?>[] sheetTasks = sheetNames.stream() //
+                                .map( sheetName -> runAsync( archive -> getColumnTypes( archive, sheetName ), executor ) ) //
+                                .toArray( CompletableFuture[]::new );
+                return CompletableFuture.allOf( sheetTasks );
+            } ) );
+        }
+        return CompletableFuture.allOf( tasks.toArray( new CompletableFuture<?>[tasks.size()] ) );
+    }
 
+    /** Runs specified task with an opened Excel document in background.
+     * @param task task to run.
+     * @param executor executor running the task.
+     * @return future, which is completed when the task is done.
+     */
+    private CompletableFuture<Void> runAsync( Consumer<ExcelArchive> task, Executor executor ) {
+        return CompletableFuture.runAsync( () -> {
+            try( ExcelArchive archive = openExcelDocument() ) {
+                task.accept( archive );
+            } catch( IOException ex ) {
+                throw new ExcelParserException( ex );
+            }
+        }, executor );
+    }
+
+    /** Returns map of sheet names to their paths within Excel document. It is loaded on first request.
+     * @param archive component allowing access to data inside Excel file.
+     * @return map of sheet names to their paths within Excel document.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private Map<String, String> getSheetPaths( ExcelArchive archive ) {
+        return sheetNamesToPaths.get( () -> ExcelStatistics.get().time( Phase.SHEET_DATA, getFileName(), null, () -> readSheetData( archive ) ) );
+    }
+
+    /** Reads map of sheet names to their paths within Excel document.
+     * @param archive component allowing access to data inside Excel file.
+     * @return map of sheet names to their paths within Excel document.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private Map<String, String> readSheetData( ExcelArchive archive ) {
         try {
             Map<String, String> sheetRelIdToName = new HashMap<>();
 
-            ZipEntry workbookEntry = zipFile.getEntry( "xl/workbook.xml" );
-            try( InputStream is = zipFile.getInputStream( workbookEntry ) ) {
-                XMLStreamReader reader = factory.createXMLStreamReader( is );
+            try( InputStream is = getInputStream( archive, "xl/workbook.xml" ) ) {
+                XMLStreamReader reader = createXMLStreamReader( is );
                 try {
                     while( reader.hasNext() ) {
                         reader.next();
@@ -219,9 +586,8 @@ public class ExcelParser {
                 }
             }
 
-            ZipEntry relsEntry = zipFile.getEntry( "xl/_rels/workbook.xml.rels" );
-            try( InputStream is = zipFile.getInputStream( relsEntry ) ) {
-                XMLStreamReader reader = factory.createXMLStreamReader( is );
+            try( InputStream is = getInputStream( archive, "xl/_rels/workbook.xml.rels" ) ) {
+                XMLStreamReader reader = createXMLStreamReader( is );
                 try {
                     Map<String, String> map = new HashMap<>();
 
@@ -244,7 +610,7 @@ public class ExcelParser {
                         }
                     }
 
-                    sheetNamesToPaths = map;
+                    return map;
                 } finally {
                     reader.close();
                 }
@@ -254,52 +620,172 @@ public class ExcelParser {
         }
     }
 
-    /** Initializes list of shared strings, if these are not already loaded.
-     * @param zipFile component allowing access to data inside Excel document.
+    /** Returns shared strings of the Excel document, which serve as dictionary of string values: cell values from the shared string table
+     * are the very instances of this list, so equal values of different cells are represented only once.
+     * @return unmodifiable list of shared strings, ordered by their index.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    public List<String> getSharedStrings() {
+        List<String> strings = sharedStrings.getIfLoaded();
+        if( strings == null ) {
+            try( ExcelArchive archive = openExcelDocument() ) {
+                strings = getSharedStrings( archive );
+            } catch( IOException ex ) {
+                throw new ExcelParserException( ex );
+            }
+        }
+        return Collections.unmodifiableList( strings );
+    }
+
+    /** Returns index of specified cell value in the shared string table, which may be used as dictionary id of the value.
+     * The lookup is by identity, so that only values read from the shared string table are found, but not equal values of other origin.
+     * @param value value of a cell, as returned by this parser.
+     * If the shared string table was spilled to a temporary file (see {@link #getMemoryBudget()}), its values are decoded on every access,
+     * so that they can not be found by identity and -1 is returned for all values.
+     * @return index of the value in the list of {@link #getSharedStrings()} or -1, if value is not taken from the shared string table.
      * @throws ExcelParserException in case of I/O or processing errors.
      */
-    private void initSharedStrings( ZipFile zipFile ) {
-        if( sharedStrings != null ) {
-            return;
+    public int getSharedStringIndex( Object value ) {
+        if( !(value instanceof String) || sharedStrings.getIfLoaded() instanceof SpilledStringList ) {
+            return -1;
+        }
+        Map<String, Integer> indexes = sharedStringIndexes.getIfLoaded();
+        if( indexes == null ) {
+            try( ExcelArchive archive = openExcelDocument() ) {
+                indexes = sharedStringIndexes.get( () -> {
+                    List<String> strings = getSharedStrings( archive );
+                    if( strings instanceof SpilledStringList ) {
+                        return Collections.emptyMap();
+                    }
+                    Map<String, Integer> map = new IdentityHashMap<>( strings.size() );
+                    for( int i = strings.size() - 1; i >= 0; i-- ) {
+                        map.put( strings.get( i ), Integer.valueOf( i ) );
+                    }
+                    return map;
+                } );
+            } catch( IOException ex ) {
+                throw new ExcelParserException( ex );
+            }
         }
+        Integer index = indexes.get( value );
+        return index == null ? -1 : index.intValue();
+    }
+
+    /** Returns list of shared strings. It is loaded on first request.
+     * @param archive component allowing access to data inside Excel document.
+     * @return list of shared strings.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private List<String> getSharedStrings( ExcelArchive archive ) {
+        return sharedStrings.get( () -> ExcelStatistics.get().time( Phase.SHARED_STRINGS, getFileName(), null, () -> readSharedStrings( archive ) ) );
+    }
 
-        ZipEntry sheetEntry = zipFile.getEntry( "xl/sharedStrings.xml" );
-        try( InputStream is = zipFile.getInputStream( sheetEntry ) ) {
-            XMLStreamReader reader = factory.createXMLStreamReader( is );
+    /** Reads list of shared strings. The heap memory of the strings is reserved from the memory budget of this parser. If the budget
+     * is exhausted, the strings are spilled to a memory-mapped temporary file and their reservation is released.
+     * @param archive component allowing access to data inside Excel document.
+     * @return list of shared strings.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private List<String> readSharedStrings( ExcelArchive archive ) {
+        long reservedBytes = 0;
+        long pendingBytes = 0;
+        SpilledStringList.Writer spill = null;
+        boolean success = false;
+        try( InputStream is = getInputStream( archive, "xl/sharedStrings.xml" ) ) {
+            XMLStreamReader reader = createXMLStreamReader( is );
             try {
                 List<String> list = new ArrayList<>();
+                int count = 0;
 
                 while( reader.hasNext() ) {
                     reader.next();
                     if( reader.getEventType() == XMLStreamReader.START_ELEMENT ) {
                         String localName = reader.getLocalName();
                         if( "t".equals( localName ) ) {
-                            list.add( reader.getElementText() );
+                            String text = reader.getElementText();
+                            if( spill != null ) {
+                                spill.add( text );
+                            } else {
+                                list.add( text );
+                                pendingBytes += estimateSize( text );
+                                if( pendingBytes >= MEMORY_RESERVATION_CHUNK ) {
+                                    if( memoryBudget.tryReserve( pendingBytes ) ) {
+                                        reservedBytes += pendingBytes;
+                                    } else {
+                                        spill = spill( list );
+                                        list = null;
+                                    }
+                                    pendingBytes = 0;
+                                }
+                            }
+                            if( (++count & 0x3FF) == 0 ) {
+                                CancellationToken.checkCurrent();
+                            }
                         }
                     }
                 }
 
-                sharedStrings = list;
+                if( spill == null && pendingBytes > 0 && !memoryBudget.tryReserve( pendingBytes ) ) {
+                    spill = spill( list );
+                }
+                List<String> result = spill != null ? spill.finish() : list;
+                ExcelStatistics.get().sharedStringTableLoaded( result.size() );
+                success = true;
+                return result;
             } finally {
                 reader.close();
             }
         } catch( XMLStreamException | IOException ex ) {
             throw new ExcelParserException( ex );
+        } finally {
+            if( spill != null || !success ) {
+                memoryBudget.release( reservedBytes );
+            }
+            if( spill != null && !success ) {
+                spill.abort();
+            }
         }
     }
 
-    /** Initializes list of value types defined for cells with specific styles, if these are not already loaded.
-     * @param zipFile component allowing access to data inside Excel document.
-     * @throws ExcelParserException in case of I/O or processing errors.
+    /** Writes specified shared strings to a temporary file, because they do not fit into the memory budget.
+     * @param list shared strings read so far.
+     * @return writer for the temporary file, which receives the remaining shared strings.
+     * @throws IOException if an I/O error has occurred.
      */
-    private void initStyles( ZipFile zipFile ) {
-        if( valueTypesOrderedByStyleIndexes != null ) {
-            return;
+    private SpilledStringList.Writer spill( List<String> list ) throws IOException {
+        memoryBudget.recordSpill();
+        SpilledStringList.Writer spill = new SpilledStringList.Writer();
+        for( String string : list ) {
+            spill.add( string );
         }
+        return spill;
+    }
+
+    /** Estimates heap memory of specified string including its reference in a list.
+     * @param string the string.
+     * @return estimated number of bytes.
+     */
+    private static long estimateSize( String string ) {
+        return 48 + 2L * string.length();
+    }
+
+    /** Returns list of value types defined for cells with specific styles. It is loaded on first request.
+     * @param archive component allowing access to data inside Excel document.
+     * @return table of value types indexed by style indexes.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private StyleTable getValueTypesOfStyles( ExcelArchive archive ) {
+        return valueTypesOrderedByStyleIndexes.get( () -> ExcelStatistics.get().time( Phase.STYLES, getFileName(), null, () -> readStyles( archive ) ) );
+    }
 
-        ZipEntry sheetEntry = zipFile.getEntry( "xl/styles.xml" );
-        try( InputStream is = zipFile.getInputStream( sheetEntry ) ) {
-            XMLStreamReader reader = factory.createXMLStreamReader( is );
+    /** Reads list of value types defined for cells with specific styles.
+     * @param archive component allowing access to data inside Excel document.
+     * @return table of value types indexed by style indexes.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private StyleTable readStyles( ExcelArchive archive ) {
+        try( InputStream is = getInputStream( archive, "xl/styles.xml" ) ) {
+            XMLStreamReader reader = createXMLStreamReader( is );
             try {
 
                 boolean insideNumFmts = false; //NOTE: just in case of some invalid documents ("numFmt" should appear inside "numFmts")
@@ -358,7 +844,7 @@ public class ExcelParser {
                         }
                     }
                 }
-                valueTypesOrderedByStyleIndexes = new ArrayList<>();
+                StyleTable valueTypesOrderedByStyleIndexes = new StyleTable( numFmtIdsFromCellXfs.size() );
 
                 for( int styleIndex = 0; styleIndex < numFmtIdsFromCellXfs.size(); styleIndex++ ) {
                     String id = numFmtIdsFromCellXfs.get( styleIndex );
@@ -367,26 +853,27 @@ public class ExcelParser {
                         switch( intID ) {
                             case 14:
                             case 22:
-                                valueTypesOrderedByStyleIndexes.add( ValueType.TIMESTAMP );
+                                valueTypesOrderedByStyleIndexes.set( styleIndex, ValueType.TIMESTAMP );
                                 continue;
                             case 15:
                             case 16:
                             case 17:
-                                valueTypesOrderedByStyleIndexes.add( ValueType.DATE );
+                                valueTypesOrderedByStyleIndexes.set( styleIndex, ValueType.DATE );
                                 continue;
                             case 18:
                             case 19:
                             case 20:
                             case 21:
-                                valueTypesOrderedByStyleIndexes.add( ValueType.TIME );
+                                valueTypesOrderedByStyleIndexes.set( styleIndex, ValueType.TIME );
                                 continue;
                         }
                     } catch( NumberFormatException ex ) {
                         // ignore
                     }
                     String formatCode = numFmtIdToFormatCode.getOrDefault( id, "" );
-                    valueTypesOrderedByStyleIndexes.add( FormatCodeAnalyzer.recognizeValueType( formatCode ) );
+                    valueTypesOrderedByStyleIndexes.set( styleIndex, FormatCodeAnalyzer.recognizeValueType( formatCode ) );
                 }
+                return valueTypesOrderedByStyleIndexes;
             } finally {
                 reader.close();
             }
@@ -395,50 +882,113 @@ public class ExcelParser {
         }
     }
 
-    /** Returns zip file entry for specified sheet or throws exception if it is null or such sheet does not exist inside Excel document.
-     * @param zipFile component allowing access to data inside Excel document.
+    /** Creates reader for specified XML content. The factory is shared by all operations of this parser, which may run concurrently
+     * (e.g. warm-up and metadata of several sheets), but it is not specified to be thread-safe.
+     * @param is XML content.
+     * @return reader for the content.
+     * @throws XMLStreamException if reader could not be created.
+     */
+    private XMLStreamReader createXMLStreamReader( InputStream is ) throws XMLStreamException {
+        synchronized( factory ) {
+            return factory.createXMLStreamReader( is );
+        }
+    }
+
+    /** Returns stream with content of specified part of Excel document or throws exception if there is no such part.
+     * @param archive component allowing access to data inside Excel document.
+     * @param entryName name of the part, e.g. "xl/workbook.xml".
+     * @return stream with content of specified part.
+     * @throws IOException if an I/O error has occurred.
+     * @throws ExcelParserException if Excel document does not include specified part.
+     */
+    private InputStream getInputStream( ExcelArchive archive, String entryName ) throws IOException {
+        InputStream is = archive.getInputStream( entryName );
+        if( is == null ) {
+            String msg = "Excel document does not include \"" + entryName + "\".";
+            throw new ExcelParserException( new IllegalStateException( msg ) );
+        }
+        return ExcelStatistics.get().countInflatedBytes( entryName, is );
+    }
+
+    /** Returns stream with content of specified sheet or throws exception if it is null or such sheet does not exist inside Excel document.
+     * @param archive component allowing access to data inside Excel document.
      * @param sheetName name of the sheet from Excel document.
-     * @return zip file entry for specified sheet.
+     * @return stream with content of specified sheet.
+     * @throws IOException if an I/O error has occurred.
      * @throws ExcelParserException if specified sheet is null or does not exist inside Excel document.
      */
-    private ZipEntry getZipEntryForSheet( ZipFile zipFile, String sheetName ) {
+    private InputStream getInputStreamForSheet( ExcelArchive archive, String sheetName ) throws IOException {
         if( sheetName == null ) {
             throw new ExcelParserException( new IllegalArgumentException( "Sheet name must not be null." ) );
         }
-        ZipEntry sheetEntry = null;
-        String sheetPath = sheetNamesToPaths.get( sheetName );
+        InputStream is = null;
+        String sheetPath = getSheetPaths( archive ).get( sheetName );
         if( sheetPath != null ) {
-            sheetEntry = zipFile.getEntry( sheetPath );
+            is = archive.getInputStream( sheetPath );
         }
-        if( sheetEntry == null ) {
+        if( is == null ) {
             String msg = "There is no sheet with name \"" + sheetName + "\".";
             throw new ExcelParserException( new IllegalArgumentException( msg ) );
         }
-        return sheetEntry;
+        return ExcelStatistics.get().countInflatedBytes( sheetPath, is );
     }
 
-    /** Initializes dimension and list of column names from specified sheet.
-     * @param zipFile component allowing access to data inside Excel document.
+    /** Returns dimension and list of column names from specified sheet. They are loaded on first request.
+     * @param archive component allowing access to data inside Excel document.
      * @param sheetName name of the sheet from Excel document.
+     * @return dimension and list of column names from specified sheet.
      * @throws ExcelParserException in case of I/O or processing errors.
      */
-    private void initDimensionAndColumnNames( ZipFile zipFile, String sheetName ) {
-        if( sheetNamesToDimensions.get( sheetName ) != null && sheetNamesToColumnNames.get( sheetName ) != null ) {
-            return;
+    private SheetLayout getSheetLayout( ExcelArchive archive, String sheetName ) {
+        if( sheetName == null ) {
+            throw new ExcelParserException( new IllegalArgumentException( "Sheet name must not be null." ) );
+        }
+        SheetMetadata hint = schemaHints.get( sheetName );
+        if( hint != null ) {
+            return sheetNamesToLayouts.computeIfAbsent( sheetName, name -> new LazyValue<>() ).get( () -> {
+                if( !getSheetPaths( archive ).containsKey( sheetName ) ) {
+                    String msg = "There is no sheet with name \"" + sheetName + "\".";
+                    throw new ExcelParserException( new IllegalArgumentException( msg ) );
+                }
+                return new SheetLayout( new SheetDimension( 1, hint.getColumnNames().size() ), hint.getColumnNames() );
+            } );
         }
+        return sheetNamesToLayouts.computeIfAbsent( sheetName, name -> new LazyValue<>() )
+                        .get( () -> ExcelStatistics.get().time( Phase.DIMENSION_AND_COLUMN_NAMES, getFileName(), sheetName, () -> readDimensionAndColumnNames( archive, sheetName ) ) );
+    }
+
+    /** Reads dimension and list of column names from specified sheet. If the sheet has no dimension or its dimension reaches the limits
+     * of a sheet, e.g. "A1:XFD1048576", the range actually containing values is determined in the same single pass over the rows,
+     * so that formatted but empty cells and trailing rows are not taken into account. Trailing rows without values are also removed from
+     * other dimensions, if they do not exceed the used range scan limit. At most this number of rows is scanned for values. The columns
+     * of further rows are taken from their spans or cell references, so that no column with values is missing.
+     * @param archive component allowing access to data inside Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @return dimension and list of column names from specified sheet.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private SheetLayout readDimensionAndColumnNames( ExcelArchive archive, String sheetName ) {
         try {
-            ZipEntry sheetEntry = getZipEntryForSheet( zipFile, sheetName );
-            try( InputStream is = zipFile.getInputStream( sheetEntry ) ) {
-                XMLStreamReader reader = factory.createXMLStreamReader( is );
+            try( InputStream is = getInputStreamForSheet( archive, sheetName ) ) {
+                XMLStreamReader reader = createXMLStreamReader( is );
                 try {
 
                     boolean insideHeaderRow = false;
                     boolean collectCellRefs = false;
+                    boolean collectSpans = true;
+                    boolean scanUsedRange = true;
+                    boolean usedRangeComplete = true;
+                    int usedRangeScanLimit = this.usedRangeScanLimit;
+                    int scannedRows = 0;
 
                     RowData headerData = new RowData( 1 );
                     CellData currentCellData = null;
                     SheetDimension sheetDimension = null;
                     RowSpanData rowSpan = new RowSpanData();
+                    RowSpanData unscannedRowSpan = new RowSpanData();
+                    UsedRange usedRange = new UsedRange();
+                    int currentRowIndex = 0;
+                    String currentCellRef = null;
 
                     while( reader.hasNext() ) {
                         reader.next();
@@ -451,9 +1001,25 @@ public class ExcelParser {
                                 case "dimension":
                                     String ref = reader.getAttributeValue( null, "ref" );
                                     sheetDimension = SheetDimension.parse( ref );
+                                    collectSpans = sheetDimension == null || sheetDimension.reachesSheetLimits();
+                                    scanUsedRange = collectSpans || usedRangeScanLimit < 0
+                                                    || sheetDimension.getLastRowIndex() - sheetDimension.getFirstRowIndex() < usedRangeScanLimit;
                                     break;
                                 case "row":
+                                    CancellationToken.checkCurrent();
                                     collectCellRefs = false;
+                                    if( scanUsedRange && usedRangeScanLimit >= 0 && scannedRows++ >= usedRangeScanLimit ) {
+                                        // limit of the extra work reached, only the header row is read further
+                                        scanUsedRange = false;
+                                        usedRangeComplete = false;
+                                    }
+                                    if( scanUsedRange ) {
+                                        try {
+                                            currentRowIndex = Integer.parseInt( reader.getAttributeValue( null, "r" ) );
+                                        } catch( Exception ex ) {
+                                            currentRowIndex = 0; // row is not taken into account if index can not be parsed
+                                        }
+                                    }
 
                                     if( hasHeaderRow ) {
                                         String rowIndex = reader.getAttributeValue( null, "r" );
@@ -462,12 +1028,12 @@ public class ExcelParser {
                                         }
                                     }
 
-                                    if( sheetDimension == null ) {
+                                    if( collectSpans ) {
                                         String spans = reader.getAttributeValue( null, "spans" );
                                         if( spans == null ) {
                                             collectCellRefs = true;
                                         } else {
-                                            rowSpan.addSpanRange( spans );
+                                            (scanUsedRange ? rowSpan : unscannedRowSpan).addSpanRange( spans );
                                         }
                                     }
                                     break;
@@ -480,7 +1046,10 @@ public class ExcelParser {
                                     }
                                     if( collectCellRefs ) {
                                         String cellRef = reader.getAttributeValue( null, "r" );
-                                        rowSpan.addCellRef( cellRef );
+                                        (scanUsedRange ? rowSpan : unscannedRowSpan).addCellRef( cellRef );
+                                    }
+                                    if( scanUsedRange ) {
+                                        currentCellRef = reader.getAttributeValue( null, "r" );
                                     }
                                     break;
                                 case "v":
@@ -489,34 +1058,66 @@ public class ExcelParser {
                                         headerData.addCellData( currentCellData );
                                         currentCellData = null;
                                     }
+                                    if( scanUsedRange ) {
+                                        usedRange.add( SheetDimension.getColumnIndexFromCellRef( currentCellRef ), currentRowIndex );
+                                    }
                                     break;
                             }
                         } else if( reader.getEventType() == XMLStreamReader.END_ELEMENT ) {
                             String localName = reader.getLocalName();
-                            if( insideHeaderRow && "row".equals( localName ) ) {
+                            if( "row".equals( localName ) ) {
+                                if( !scanUsedRange && !collectSpans ) {
+                                    break; // rows are ordered, so the header row (if any) was the first row
+                                }
                                 insideHeaderRow = false;
                             }
                         }
 
-                        if( !hasHeaderRow && sheetDimension != null ) {
+                        if( !hasHeaderRow && !scanUsedRange && !collectSpans ) {
                             break; // we have already all data required to generate column names 
                         }
                     }
 
-                    if( sheetDimension == null ) {
-                        if( rowSpan.isEmpty() ) {
+                    int scannedRowCount = -1;
+                    if( sheetDimension == null || sheetDimension.reachesSheetLimits() ) {
+                        if( !unscannedRowSpan.isEmpty() ) {
+                            // values of rows after the scan limit are unknown, so all their cells are taken into account
+                            usedRange.add( unscannedRowSpan.getFirstColumnIndex(), 0 );
+                            usedRange.add( unscannedRowSpan.getLastColumnIndex(), 0 );
+                        }
+                        if( usedRange.lastColumnIndex > 0 ) {
+                            // dimension is missing or reaches the limits of the sheet, so the range containing values is taken instead
+                            sheetDimension = usedRangeComplete ? new SheetDimension( usedRange.firstColumnIndex, usedRange.lastColumnIndex, usedRange.firstRowIndex, usedRange.lastRowIndex )
+                                            : new SheetDimension( usedRange.firstColumnIndex, usedRange.lastColumnIndex ); // rows are counted on request
+                        } else if( !rowSpan.isEmpty() ) {
+                            sheetDimension = usedRangeComplete ? new SheetDimension( rowSpan.getFirstColumnIndex(), rowSpan.getLastColumnIndex(), usedRange.firstRowIndex, usedRange.lastRowIndex )
+                                            : new SheetDimension( rowSpan.getFirstColumnIndex(), rowSpan.getLastColumnIndex() );
+                        } else if( usedRangeComplete ) {
                             // sheet is empty
-                            sheetNamesToDimensions.put( sheetName, new SheetDimension( 1, 1 ) );
-                            sheetNamesToColumnNames.put( sheetName, Collections.singletonList( "C1" ) );
-                            return;
+                            return new SheetLayout( new SheetDimension( 1, 1 ), Collections.singletonList( "C1" ), usedRange.lastRowIndex );
+                        } else if( sheetDimension == null ) {
+                            sheetDimension = new SheetDimension( 1, 1 );
                         } else {
-                            sheetDimension = new SheetDimension( rowSpan.getFirstColumnIndex(), rowSpan.getLastColumnIndex() );
+                            sheetDimension = new SheetDimension( sheetDimension.getFirstColumnIndex(), sheetDimension.getLastColumnIndex() );
+                        }
+                        if( usedRangeComplete ) {
+                            scannedRowCount = usedRange.lastRowIndex;
+                        }
+                    } else if( usedRangeComplete && scanUsedRange ) {
+                        int lastRowIndex = sheetDimension.getLastRowIndex();
+                        if( lastRowIndex == 0 || usedRange.lastRowIndex <= lastRowIndex ) {
+                            // all rows of the dimension were scanned, so trailing rows without values are removed
+                            scannedRowCount = usedRange.lastRowIndex;
+                            if( lastRowIndex > 0 ) {
+                                int firstRowIndex = sheetDimension.getFirstRowIndex();
+                                sheetDimension = new SheetDimension( sheetDimension.getFirstColumnIndex(), sheetDimension.getLastColumnIndex(), firstRowIndex, Math.max( firstRowIndex, usedRange.lastRowIndex ) );
+                            }
                         }
                     }
                     List<String> columnNames = generateColumnNames( sheetDimension.getFirstColumnIndex(), sheetDimension.getLastColumnIndex() );
 
                     for( CellData cell : headerData.getCellsInRow() ) { // NOTE: relevant only if hasHeaderRow is true
-                        Object value = getCellValue( zipFile, cell );
+                        Object value = getCellValue( archive, cell );
                         if( value == null ) {
                             continue;
                         }
@@ -528,9 +1129,7 @@ public class ExcelParser {
                             }
                         }
                     }
-                    sheetNamesToDimensions.put( sheetName, sheetDimension );
-                    sheetNamesToColumnNames.put( sheetName, columnNames );
-                    return;
+                    return new SheetLayout( sheetDimension, columnNames, scannedRowCount );
                 } finally {
                     reader.close();
                 }
@@ -553,38 +1152,82 @@ public class ExcelParser {
         return columnNames;
     }
 
-    /** Initializes list of column types from specified sheet.
+    /** Returns list of column types from specified sheet. It is loaded on first request.
+     * @param archive component allowing access to data inside Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @return list of column types from specified sheet.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private List<ValueType> getColumnTypes( ExcelArchive archive, String sheetName ) {
+        getSheetLayout( archive, sheetName ); // fails for a declared sheet, which does not exist in the document
+        SheetMetadata hint = schemaHints.get( sheetName );
+        if( hint != null && !exactColumnStatistics ) {
+            return hint.getColumnTypes(); // no need to probe the sheet
+        }
+        return getProbedColumns( archive, sheetName ).types;
+    }
+
+    /** Returns column types and column statistics from specified sheet. They are loaded on first request.
+     * @param archive component allowing access to data inside Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @return column types and column statistics from specified sheet.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private ProbedColumns getProbedColumns( ExcelArchive archive, String sheetName ) {
+        SheetLayout layout = getSheetLayout( archive, sheetName );
+        SheetMetadata hint = schemaHints.get( sheetName );
+        return sheetNamesToColumnTypes.computeIfAbsent( sheetName, name -> new LazyValue<>() )
+                        .get( () -> ExcelStatistics.get().time( Phase.COLUMN_TYPES, getFileName(), sheetName, () -> readColumnTypes( archive, sheetName, layout, hint ) ) );
+    }
+
+    /** Reads list of column types and statistics of the column values from specified sheet.
      * It probes limited number of cells belonging to columns in order to recognize their common value type.
      * In case of columns with values of mixed types, it takes {@link ValueType#VARCHAR} as column's type.
-     * @param zipFile component allowing access to data inside Excel document.
+     * Statistics are collected in the same pass from the probed rows or, if exact statistics are requested, from all rows.
+     * @param archive component allowing access to data inside Excel document.
      * @param sheetName name of the sheet from Excel document.
+     * @param layout dimension and column names of the sheet.
+     * @param hint declared columns of the sheet, whose types are not probed, or null.
+     * @return column types and column statistics from specified sheet.
      * @throws ExcelParserException in case of I/O or processing errors.
      */
-    private void initColumnTypes( ZipFile zipFile, String sheetName ) {
-        if( sheetNamesToColumnTypes.get( sheetName ) != null ) {
-            return;
+    private ProbedColumns readColumnTypes( ExcelArchive archive, String sheetName, SheetLayout layout, SheetMetadata hint ) {
+        int columnCount = layout.columnNames.size();
+        int probedCellLimit = this.probedCellLimit < 0 ? Integer.MAX_VALUE : this.probedCellLimit;
+        int probedRowLimit = this.probedRowLimit < 0 ? Integer.MAX_VALUE : this.probedRowLimit;
+        boolean probing = hint == null && probedCellLimit != 0 && probedRowLimit != 0;
+        boolean exactStatistics = exactColumnStatistics;
+        List<ValueType> fixedTypes = hint != null ? hint.getColumnTypes() : Collections.nCopies( columnCount, ValueType.VARCHAR );
+        if( !probing && !exactStatistics ) {
+            // probing is disabled
+            return new ProbedColumns( fixedTypes, Collections.nCopies( columnCount, ColumnStatistics.UNKNOWN ) );
         }
+        StyleTable valueTypesOrderedByStyleIndexes = getValueTypesOfStyles( archive );
         try {
-            ZipEntry sheetEntry = getZipEntryForSheet( zipFile, sheetName );
-            try( InputStream is = zipFile.getInputStream( sheetEntry ) ) {
-                XMLStreamReader reader = factory.createXMLStreamReader( is );
+            try( InputStream is = getInputStreamForSheet( archive, sheetName ) ) {
+                XMLStreamReader reader = createXMLStreamReader( is );
                 try {
-                    int columnCount = sheetNamesToColumnNames.get( sheetName ).size();
-                    SheetDimension sheetDimension = sheetNamesToDimensions.get( sheetName );
-
-                    final int probedCellLimit = 10;
-                    final int probedRowLimit = 30;
+                    SheetDimension sheetDimension = layout.dimension;
+                    int[] sampledRows = probing ? getSampledRows( sheetDimension ) : null;
 
                     int[] probedCells = new int[columnCount];
                     ValueType[] valueTypes = new ValueType[columnCount];
+                    ColumnStatistics.Collector[] collectors = new ColumnStatistics.Collector[columnCount];
+                    for( int i = 0; i < columnCount; i++ ) {
+                        collectors[i] = new ColumnStatistics.Collector();
+                    }
                     int probedRowCount = 0;
-                    boolean insideRow = false;
+                    boolean insideRow = false; // row is examined for statistics
+                    boolean probedRow = false; // row is probed for types
+                    boolean headProbed = !probing;
+                    boolean stopAtNextRow = false;
+                    boolean allRowsExamined = true;
+                    int sampledPart = -1;
 
-                    ValueType typeToSet = null;
-                    Optional<Integer> columnIndexOfValueToCheck = Optional.empty(); 
-                    boolean possibleNumber = false;
+                    CellData currentCellData = null;
+                    int currentColumnIndex = -1;
 
-                    while( reader.hasNext() ) {
+                    rows: while( reader.hasNext() ) {
                         reader.next();
                         if( reader.getEventType() == XMLStreamReader.START_ELEMENT ) {
                             String localName = reader.getLocalName();
@@ -593,78 +1236,75 @@ public class ExcelParser {
                             }
                             switch( localName ) {
                                 case "row":
+                                    CancellationToken.checkCurrent();
+                                    String rowIndex = reader.getAttributeValue( null, "r" );
                                     if( hasHeaderRow ) {
-                                        String rowIndex = reader.getAttributeValue( null, "r" );
                                         if( "1".equals( rowIndex ) ) {
                                             break; // skip header row
                                         }
                                     }
-                                    insideRow = true;
+                                    if( stopAtNextRow ) {
+                                        allRowsExamined = false;
+                                        break rows; // probed enough rows
+                                    }
+                                    probedRow = !headProbed;
+                                    if( headProbed && sampledRows != null ) {
+                                        // only rows of the middle and the tail are probed further
+                                        int part;
+                                        try {
+                                            part = getSampledPart( sampledRows, Integer.parseInt( rowIndex ) );
+                                        } catch( NumberFormatException ex ) {
+                                            part = -1;
+                                        }
+                                        if( part >= 0 && part != sampledPart ) {
+                                            // every part is probed up to the cell limit
+                                            sampledPart = part;
+                                            Arrays.fill( probedCells, 0 );
+                                        }
+                                        probedRow = part >= 0;
+                                    }
+                                    insideRow = probedRow || exactStatistics;
+                                    if( !insideRow ) {
+                                        allRowsExamined = false; // row is skipped
+                                    }
                                     break;
                                 case "c":
                                     if( !insideRow ) {
                                         break;
                                     }
-                                    columnIndexOfValueToCheck = Optional.empty();
-                                    possibleNumber = false;
-                                    typeToSet = null;
+                                    currentColumnIndex = -1;
 
                                     String cellRef = reader.getAttributeValue( null, "r" );
                                     int columnIndex = SheetDimension.getColumnIndexFromCellRef( cellRef );
                                     if( columnIndex > 0 ) { // ensures that cell ref is valid
                                         columnIndex -= sheetDimension.getFirstColumnIndex();
                                         if( columnIndex >= 0 && columnIndex < columnCount ) {
-                                            if( probedCells[columnIndex] == probedCellLimit ) {
-                                                break; // probed enough cells
-                                            }
-                                            if( valueTypes[columnIndex] == ValueType.VARCHAR ) {
-                                                break; // already initialized as most general type
-                                            }
-
-                                            columnIndexOfValueToCheck = Optional.of( Integer.valueOf( columnIndex ) );
-
-                                            if( "s".equals( reader.getAttributeValue( null, "t" ) ) ) {
-                                                typeToSet = ValueType.VARCHAR;
-                                            } else {
-                                                try {
-                                                    int styleIndex = Integer.parseInt( reader.getAttributeValue( null, "s" ) );
-                                                    typeToSet = valueTypesOrderedByStyleIndexes.get( styleIndex );
-                                                } catch( NumberFormatException | IndexOutOfBoundsException ex ) {
-                                                    // since style could not be recognized, VARCHAR stays as column's type
-                                                    typeToSet = ValueType.VARCHAR;
-                                                }
-                                                ValueType currentType = valueTypes[columnIndex];
-                                                if( ( currentType == null || currentType == ValueType.NUMBER ) && typeToSet == ValueType.VARCHAR ) {
-                                                    // type of cell value is VARCHAR, but it will check whether value can be parsed as number
-                                                    possibleNumber = true;
-                                                } else if( currentType != null && currentType != typeToSet ) {
-                                                    // column has values of various types so it will set VARCHAR as column type
-                                                    typeToSet = ValueType.VARCHAR;
-                                                }
-                                            }
+                                            currentColumnIndex = columnIndex;
+                                            currentCellData = new CellData();
+                                            currentCellData.setR( cellRef );
+                                            currentCellData.setT( reader.getAttributeValue( null, "t" ) );
+                                            currentCellData.setS( reader.getAttributeValue( null, "s" ) );
                                         }
                                     }
                                     break;
                                 case "v":
-                                    if( columnIndexOfValueToCheck.isPresent() ) {
+                                    if( currentColumnIndex >= 0 ) {
+                                        int colIndex = currentColumnIndex;
+                                        currentColumnIndex = -1;
                                         String value = reader.getElementText();
-                                        if( value == null || value.trim().isEmpty() ) {
+                                        currentCellData.setV( value );
+                                        collectors[colIndex].add( hint != null ? getCellValue( archive, currentCellData, fixedTypes.get( colIndex ) ) : getCellValue( archive, currentCellData ) );
+                                        if( !probedRow || value == null || value.trim().isEmpty() ) {
                                             break;
                                         }
-                                        int colIndex = columnIndexOfValueToCheck.get().intValue();
-
-                                        if( possibleNumber ) {
-                                            try {
-                                                Double.parseDouble( value );
-                                                typeToSet = ValueType.NUMBER;
-                                            } catch( NullPointerException | NumberFormatException ex ) {
-                                                typeToSet = ValueType.VARCHAR;
-                                            }
-                                            possibleNumber = false;
-                                        } 
-                                        valueTypes[colIndex] = typeToSet;
+                                        if( probedCells[colIndex] == probedCellLimit ) {
+                                            break; // probed enough cells
+                                        }
+                                        if( valueTypes[colIndex] == ValueType.VARCHAR ) {
+                                            break; // already initialized as most general type
+                                        }
+                                        valueTypes[colIndex] = probeValueType( currentCellData.getT(), currentCellData.getS(), value, valueTypes[colIndex], valueTypesOrderedByStyleIndexes );
                                         probedCells[colIndex]++;
-                                        columnIndexOfValueToCheck = Optional.empty();
                                     }
                                     break;
                                 default:
@@ -674,20 +1314,33 @@ public class ExcelParser {
                             String localName = reader.getLocalName();
                             if( insideRow && "row".equals( localName ) ) {
                                 insideRow = false;
-                                probedRowCount++;
-                                if( probedRowCount == probedRowLimit ) {
-                                    break; // probed enough rows
+                                if( probedRow ) {
+                                    probedRow = false;
+                                    probedRowCount++;
+                                    if( probedRowCount == probedRowLimit ) {
+                                        headProbed = true;
+                                        // without further parts to probe, the pass ends, but it is noted whether rows are left
+                                        stopAtNextRow = sampledRows == null && !exactStatistics;
+                                    }
                                 }
                             }
                         }
                     }
 
-                    for( int index = 0; index < valueTypes.length; index++ ) {
-                        if( valueTypes[index] == null ) {
-                            valueTypes[index] = ValueType.VARCHAR; // fallback to string
+                    List<ValueType> columnTypes = fixedTypes;
+                    if( probing ) {
+                        for( int index = 0; index < valueTypes.length; index++ ) {
+                            if( valueTypes[index] == null ) {
+                                valueTypes[index] = ValueType.VARCHAR; // fallback to string
+                            }
                         }
+                        columnTypes = Arrays.asList( valueTypes );
+                    }
+                    List<ColumnStatistics> statistics = new ArrayList<>( columnCount );
+                    for( ColumnStatistics.Collector collector : collectors ) {
+                        statistics.add( collector.toStatistics( allRowsExamined ) );
                     }
-                    sheetNamesToColumnTypes.put( sheetName, Arrays.asList( valueTypes ) );
+                    return new ProbedColumns( columnTypes, Collections.unmodifiableList( statistics ) );
                 } finally {
                     reader.close();
                 }
@@ -697,31 +1350,131 @@ public class ExcelParser {
         }
     }
 
+    /** Returns type of a probed cell value, taking the type recognized so far for its column into account.
+     * @param cellType value of the attribute "t" of the cell.
+     * @param cellStyle value of the attribute "s" of the cell.
+     * @param value the non-empty value of the cell.
+     * @param currentType type recognized so far for the column or null, if no value was probed yet.
+     * @param valueTypesOrderedByStyleIndexes table of value types indexed by style indexes.
+     * @return new type of the column.
+     */
+    private static ValueType probeValueType( String cellType, String cellStyle, String value, ValueType currentType, StyleTable valueTypesOrderedByStyleIndexes ) {
+        if( "s".equals( cellType ) ) {
+            return ValueType.VARCHAR;
+        }
+        ValueType typeToSet;
+        try {
+            int styleIndex = Integer.parseInt( cellStyle );
+            typeToSet = valueTypesOrderedByStyleIndexes.get( styleIndex );
+        } catch( NumberFormatException | IndexOutOfBoundsException ex ) {
+            // since style could not be recognized, VARCHAR stays as column's type
+            typeToSet = ValueType.VARCHAR;
+        }
+        if( ( currentType == null || currentType == ValueType.NUMBER ) && typeToSet == ValueType.VARCHAR ) {
+            // type of cell value is VARCHAR, but it will check whether value can be parsed as number
+            try {
+                NumberParser.parseDouble( value );
+                return ValueType.NUMBER;
+            } catch( NullPointerException | NumberFormatException ex ) {
+                return ValueType.VARCHAR;
+            }
+        }
+        if( currentType != null && currentType != typeToSet ) {
+            // column has values of various types so it will set VARCHAR as column type
+            return ValueType.VARCHAR;
+        }
+        return typeToSet;
+    }
+
+    /** Returns ranges of rows, which are probed by adaptive sampling in addition to the head of the sheet: its middle and its tail.
+     * Their first rows are checkpoints derived from the row indexes of the dimension, so that rows before them can be skipped
+     * without probing their cells. Every part has a third of the probed row limit.
+     * @param sheetDimension dimension of the sheet.
+     * @return pairs of first and last row index (inclusive) of the sampled parts, in ascending order; or null, if adaptive sampling is
+     * disabled, row indexes of the sheet are unknown or all rows are probed with the head anyway.
+     */
+    private int[] getSampledRows( SheetDimension sheetDimension ) {
+        int probedRowLimit = this.probedRowLimit;
+        if( !adaptiveSampling || probedRowLimit <= 0 || probedCellLimit == 0 ) {
+            return null; // no limit or probing disabled
+        }
+        int firstRow = Math.max( sheetDimension.getFirstRowIndex(), hasHeaderRow ? 2 : 1 );
+        int lastRow = sheetDimension.getLastRowIndex();
+        if( lastRow == 0 || (long)lastRow - firstRow + 1 <= probedRowLimit ) {
+            return null;
+        }
+        int partSize = Math.max( 1, probedRowLimit / 3 );
+        int middle = Math.max( firstRow + probedRowLimit, firstRow + (lastRow - firstRow + 1) / 2 - partSize / 2 );
+        int tail = Math.max( middle + partSize, lastRow - partSize + 1 );
+        return new int[] { middle, middle + partSize - 1, tail, lastRow };
+    }
+
+    /** Returns part of the sheet, which includes specified row.
+     * @param sampledRows pairs of first and last row index of the probed parts.
+     * @param rowIndex index of the row.
+     * @return index of the part or -1, if row is not probed.
+     */
+    private static int getSampledPart( int[] sampledRows, int rowIndex ) {
+        for( int part = 0; part < sampledRows.length / 2; part++ ) {
+            if( rowIndex >= sampledRows[2 * part] && rowIndex <= sampledRows[2 * part + 1] ) {
+                return part;
+            }
+        }
+        return -1;
+    }
+
     /** Returns list of rows from specified range. Every element in resulting list represents cell values from single row.
      * Resulting list contains data of rows in order of their occurrence in the sheet. Cells with no values are represented as empty strings.
-     * @param zipFile component allowing access to data inside Excel document.
+     * @param archive component allowing access to data inside Excel document.
      * @param sheetName name of the sheet from Excel document.
      * @param firstRowIndex index of the first row, which should be included in the list.
      * @param lastRowIndex index of the last row, which should be included in the list.
      * @return list of rows from specified range.
      * @throws ExcelParserException in case of I/O or processing errors.
      */
-    private List<List<Object>> readRows( ZipFile zipFile, String sheetName, int firstRowIndex, int lastRowIndex ) {
+    private List<List<Object>> readRows( ExcelArchive archive, String sheetName, int firstRowIndex, int lastRowIndex ) {
+        int columnCount = getSheetLayout( archive, sheetName ).columnNames.size();
+        // rows are created once their values are known, so that rows with few values can be stored sparsely
+        List<List<Object>> allRows = new ArrayList<>( Collections.nCopies( lastRowIndex - firstRowIndex + 1, (List<Object>)null ) );
+        scanRows( archive, sheetName, firstRowIndex, lastRowIndex, ( rowIndex, row ) -> {
+            allRows.set( rowIndex - firstRowIndex, row );
+            return true;
+        } );
+        List<Object> emptyRow = SparseRow.empty( columnCount );
+        allRows.replaceAll( row -> row == null ? emptyRow : row );
+        return allRows;
+    }
+
+    /** Reads rows with values from specified range and passes them in order of their occurrence to given consumer.
+     * Rows without values are skipped. Reading stops after the last row of the range or as soon as the consumer requests it.
+     * @param archive component allowing access to data inside Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @param firstRowIndex index of the first row, which should be read.
+     * @param lastRowIndex index of the last row, which should be read.
+     * @param consumer consumer of the rows.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private void scanRows( ExcelArchive archive, String sheetName, int firstRowIndex, int lastRowIndex, RowConsumer consumer ) {
+        SheetLayout layout = getSheetLayout( archive, sheetName );
+        List<ValueType> columnTypes = getColumnTypes( archive, sheetName );
+        boolean hasDeclaredTypes = schemaHints.containsKey( sheetName );
+        ParsePhaseEvent event = ParsePhaseEvent.begin( Phase.READ_ROWS, getFileName(), sheetName );
+        if( event != null ) {
+            event.firstRow = firstRowIndex;
+            event.lastRow = lastRowIndex;
+        }
+        long startNanos = System.nanoTime();
+        long decodedRows = 0;
+        long decodedCells = 0;
         try {
-            ZipEntry sheetEntry = getZipEntryForSheet( zipFile, sheetName );
-            try( InputStream is = zipFile.getInputStream( sheetEntry ) ) {
-                XMLStreamReader reader = factory.createXMLStreamReader( is );
+            try( InputStream is = getInputStreamForSheet( archive, sheetName ) ) {
+                XMLStreamReader reader = createXMLStreamReader( is );
                 try {
-                    int requestedRowCount = lastRowIndex - firstRowIndex + 1;
-                    int columnCount = sheetNamesToColumnNames.get( sheetName ).size();
-                    SheetDimension sheetDimension = sheetNamesToDimensions.get( sheetName );
-
-                    List<List<Object>> allRows = new ArrayList<>();
-                    IntStream.range( 0, requestedRowCount ).forEach( val -> {
-                        List<Object> row = new ArrayList<>();
-                        IntStream.range( 0, columnCount ).forEach( v -> row.add( null ) );
-                        allRows.add( row );
-                    } );
+                    int columnCount = layout.columnNames.size();
+                    SheetDimension sheetDimension = layout.dimension;
+                    int[] columnIndexes = new int[columnCount];
+                    Object[] values = new Object[columnCount];
+                    byte[] kinds = new byte[columnCount];
 
                     RowData currentRowData = null;
                     CellData currentCellData = null;
@@ -735,9 +1488,13 @@ public class ExcelParser {
                             }
                             switch( localName ) {
                                 case "row":
+                                    CancellationToken.checkCurrent();
                                     try {
                                         int rowIndex = Integer.parseInt( reader.getAttributeValue( null, "r" ) );
-                                        if( rowIndex >= firstRowIndex && rowIndex <= lastRowIndex ) {
+                                        if( rowIndex > lastRowIndex ) {
+                                            return; // rows are ordered, so there are no more rows of the range
+                                        }
+                                        if( rowIndex >= firstRowIndex ) {
                                             currentRowData = new RowData( rowIndex );
                                         }
                                     } catch( Exception ex ) {
@@ -764,10 +1521,24 @@ public class ExcelParser {
                             String localName = reader.getLocalName();
                             if( "row".equals( localName ) ) {
                                 if( currentRowData != null ) {
-                                    List<Object> row = allRows.get( currentRowData.getRowIndex() - firstRowIndex );
-
+                                    int valueCount = 0;
+                                    boolean hasNumbers = false;
                                     for( CellData cell : currentRowData.getCellsInRow() ) {
-                                        Object value = getCellValue( zipFile, cell );
+                                        Object value;
+                                        byte kind = SheetRow.VALUE;
+                                        if( hasDeclaredTypes ) {
+                                            int typeIndex = SheetDimension.getColumnIndexFromCellRef( cell.getR() ) - layout.dimension.getFirstColumnIndex();
+                                            ValueType declaredType = typeIndex >= 0 && typeIndex < columnTypes.size() ? columnTypes.get( typeIndex ) : null;
+                                            value = declaredType != null ? getCellValue( archive, cell, declaredType ) : null;
+                                            if( declaredType == ValueType.NUMBER ) {
+                                                kind = SheetRow.NUMBER_OR_TEXT; // parsed on first access of the cell, fallback to text
+                                            }
+                                        } else if( isNumericCell( archive, cell ) ) {
+                                            value = cell.getV();
+                                            kind = SheetRow.NUMBER; // parsed on first access of the cell
+                                        } else {
+                                            value = getCellValue( archive, cell );
+                                        }
                                         if( value == null ) {
                                             continue;
                                         }
@@ -776,44 +1547,60 @@ public class ExcelParser {
                                         if( columnIndex > 0 ) { // ensures that cell ref is valid
                                             columnIndex -= sheetDimension.getFirstColumnIndex();
                                             if( columnIndex >= 0 && columnIndex < columnCount ) {
-                                                ValueType columnType = sheetNamesToColumnTypes.get( sheetName ).get( columnIndex );
-                                                if( value instanceof String && columnType == ValueType.NUMBER ) {
-                                                    try {
-                                                        value = Double.valueOf( (String)value );
-                                                    } catch( Exception ex ) {
-                                                        // fallback to string value
-                                                    }
+                                                ValueType columnType = columnTypes.get( columnIndex );
+                                                if( kind == SheetRow.VALUE && value instanceof String && columnType == ValueType.NUMBER ) {
+                                                    kind = SheetRow.NUMBER_OR_TEXT; // parsed on first access, fallback to string value
+                                                }
+                                                if( valueCount == values.length ) { // only possible for duplicate cell refs
+                                                    columnIndexes = Arrays.copyOf( columnIndexes, valueCount * 2 + 1 );
+                                                    values = Arrays.copyOf( values, valueCount * 2 + 1 );
+                                                    kinds = Arrays.copyOf( kinds, valueCount * 2 + 1 );
                                                 }
-                                                row.set( columnIndex, value );
+                                                hasNumbers |= kind != SheetRow.VALUE;
+                                                columnIndexes[valueCount] = columnIndex;
+                                                kinds[valueCount] = kind;
+                                                values[valueCount++] = value;
                                             }
                                         }
                                     }
+                                    if( valueCount > 0 ) {
+                                        decodedRows++;
+                                        decodedCells += valueCount;
+                                        if( !consumer.accept( currentRowData.getRowIndex(), SparseRow.of( columnCount, columnIndexes, values, hasNumbers ? kinds : null, valueCount ) ) ) {
+                                            return;
+                                        }
+                                    }
                                     currentRowData = null;
                                 }
                             }
                         }
                     }
-                    return allRows;
                 } finally {
                     reader.close();
                 }
             }
         } catch( XMLStreamException | IOException ex ) {
             throw new ExcelParserException( ex );
+        } finally {
+            ExcelStatistics.get().addTime( Phase.READ_ROWS, startNanos );
+            ExcelStatistics.get().rowsDecoded( decodedRows, decodedCells );
+            if( event != null ) {
+                event.rowCount = decodedRows;
+            }
+            ParsePhaseEvent.end( event );
         }
     }
 
     /** Returns value of specified cell.
-     * @param zipFile component allowing access to data inside Excel document.
+     * @param archive component allowing access to data inside Excel document.
      * @param cell container with data of the cell.
      * @return value of specified cell or null, in case of invalid data.
      */
-    private Object getCellValue( ZipFile zipFile, CellData cell ) {
+    private Object getCellValue( ExcelArchive archive, CellData cell ) {
         if( "s".equals( cell.getT() ) ) {
             try {
                 int index = Integer.parseInt( cell.getV() );
-                initSharedStrings( zipFile );
-                return sharedStrings.get( index );
+                return getSharedStrings( archive ).get( index );
             } catch( NumberFormatException ex ) {
                 return null;
             }
@@ -824,77 +1611,250 @@ public class ExcelParser {
             } catch( Exception ex ) {
                 return cell.getV(); // fallback to string
             }
+            ValueType valueType = getValueTypesOfStyles( archive ).get( styleIndex );
+            return convertValue( cell.getV(), valueType );
+        }
+    }
 
-            Function<CellData, Long> toMillis = cellData -> {
-                double value = Double.parseDouble( cellData.getV() );
-                int days = Double.valueOf( value ).intValue();
-                int seconds = Long.valueOf( Math.round( (value - days) * TimeUnit.DAYS.toSeconds( 1 ) ) ).intValue();
+    /** Checks whether specified cell holds a number according to its style, so that its text can be kept until the cell is accessed.
+     * @param archive component allowing access to data inside Excel document.
+     * @param cell container with data of the cell.
+     * @return whether the value of the cell is the text of a number.
+     */
+    private boolean isNumericCell( ExcelArchive archive, CellData cell ) {
+        String type = cell.getT();
+        if( cell.getV() == null || "s".equals( type ) || "e".equals( type ) ) {
+            return false;
+        }
+        int styleIndex;
+        try {
+            styleIndex = Integer.parseInt( cell.getS() );
+        } catch( Exception ex ) {
+            return false;
+        }
+        return getValueTypesOfStyles( archive ).get( styleIndex ) == ValueType.NUMBER;
+    }
 
-                Calendar cal = Calendar.getInstance();
-                days--; // because value 0 represents "0 January 1900" in excel
-                cal.set( 1900, 0, days, 0, 0, seconds );
-                cal.set( Calendar.MILLISECOND, 0 );
-                return new Long( cal.getTime().getTime() );
-            };
+    /** Returns value of specified cell converted to the declared type of its column, regardless of the style of the cell.
+     * @param archive component allowing access to data inside Excel document.
+     * @param cell container with data of the cell.
+     * @param declaredType declared type of the column.
+     * @return value of specified cell or its text, if it can not be converted to the declared type; null in case of invalid data.
+     * Numbers are returned as text, which is parsed on first access of the cell.
+     */
+    private Object getCellValue( ExcelArchive archive, CellData cell, ValueType declaredType ) {
+        String text = cell.getV();
+        if( "s".equals( cell.getT() ) ) {
+            try {
+                text = getSharedStrings( archive ).get( Integer.parseInt( text ) );
+            } catch( NumberFormatException ex ) {
+                return null;
+            }
+        }
+        if( declaredType == ValueType.VARCHAR || text == null ) {
+            return text;
+        }
+        if( declaredType == ValueType.NUMBER ) {
+            return text; // parsed on first access of the cell
+        }
+        Object value = convertValue( text, declaredType );
+        return value != null ? value : text;
+    }
 
-            ValueType valueType = valueTypesOrderedByStyleIndexes.get( styleIndex );
-            switch( valueType ) {
-                case DATE:
-                    try {
-                        return new Date( toMillis.apply( cell ).longValue() );
-                    } catch( Exception ex ) {
-                        return null;
-                    }
-                case TIME:
-                    try {
-                        return new Time( toMillis.apply( cell ).longValue() );
-                    } catch( Exception ex ) {
-                        return null;
-                    }
-                case TIMESTAMP:
-                    try {
-                        return new Timestamp( toMillis.apply( cell ).longValue() );
-                    } catch( Exception ex ) {
-                        return null;
+    /** Converts specified text of a cell to given value type.
+     * @param value text of the cell. Dates and times are represented by serial numbers.
+     * @param valueType value type to convert to.
+     * @return converted value or null, if value can not be converted.
+     */
+    private static Object convertValue( String value, ValueType valueType ) {
+        switch( valueType ) {
+            case DATE:
+                try {
+                    return new Date( toMillis( value ) );
+                } catch( Exception ex ) {
+                    return null;
+                }
+            case TIME:
+                try {
+                    return new Time( toMillis( value ) );
+                } catch( Exception ex ) {
+                    return null;
+                }
+            case TIMESTAMP:
+                try {
+                    return new Timestamp( toMillis( value ) );
+                } catch( Exception ex ) {
+                    return null;
+                }
+            case NUMBER:
+                return NumberParser.parse( value );
+            case VARCHAR:
+            default:
+                return value;
+        }
+    }
+
+    /** Converts serial number of a date and time in Excel to milliseconds since epoch in the default time zone.
+     * @param serialNumber days since "0 January 1900", including fraction of the day.
+     * @return milliseconds since epoch.
+     * @throws NumberFormatException if serial number is not a valid number.
+     */
+    private static long toMillis( String serialNumber ) {
+        double value = NumberParser.parseDouble( serialNumber );
+        int days = Double.valueOf( value ).intValue();
+        int seconds = Long.valueOf( Math.round( (value - days) * TimeUnit.DAYS.toSeconds( 1 ) ) ).intValue();
+
+        Calendar cal = Calendar.getInstance();
+        days--; // because value 0 represents "0 January 1900" in excel
+        cal.set( 1900, 0, days, 0, 0, seconds );
+        cal.set( Calendar.MILLISECOND, 0 );
+        return cal.getTime().getTime();
+    }
+
+    /** Returns number of rows included in specified sheet, including a header row. It is determined on first request according to
+     * the row count mode.
+     * @param archive component allowing access to data inside Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @return number of rows included in specified sheet.
+     * @throws ExcelParserException in case of I/O or processing errors or if the dimension does not end at the last row with values.
+     */
+    private int getRowCount( ExcelArchive archive, String sheetName ) {
+        if( sheetName == null ) {
+            throw new ExcelParserException( new IllegalArgumentException( "Sheet name must not be null." ) );
+        }
+        return sheetNamesToRowCounts.computeIfAbsent( sheetName, name -> new LazyValue<>() ).get( () -> {
+            RowCountMode mode = rowCountMode;
+            int rowCount = mode == RowCountMode.SCAN ? -1 : getRowCountFromDimension( archive, sheetName );
+            if( rowCount < 0 ) {
+                return Integer.valueOf( readRowCount( archive, sheetName ) );
+            }
+            if( mode == RowCountMode.VERIFY ) {
+                int scannedRowCount = readRowCount( archive, sheetName );
+                if( scannedRowCount != rowCount ) {
+                    throw new ExcelParserException( "Dimension of sheet \"" + sheetName + "\" ends at row " + rowCount + ", but sheet has values up to row " + scannedRowCount + "." );
+                }
+            }
+            return Integer.valueOf( rowCount );
+        } ).intValue();
+    }
+
+    /** Returns number of rows of specified sheet according to its dimension, if the dimension is reliable or the rows were already scanned
+     * to find the range containing values. A dimension with a single cell is not taken, because it is also written for empty sheets.
+     * Dimensions, whose rows were not scanned, may include trailing rows, which are only formatted, see {@link RowCountMode#DIMENSION}.
+     * @param archive component allowing access to data inside Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @return index of the last row of the dimension or -1, if the rows have to be scanned.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private int getRowCountFromDimension( ExcelArchive archive, String sheetName ) {
+        SheetLayout layout = getSheetLayout( archive, sheetName );
+        if( layout.scannedRowCount >= 0 ) {
+            return layout.scannedRowCount;
+        }
+        if( !reliableDimensions.get( () -> Boolean.valueOf( readDimensionsAreReliable( archive ) ) ).booleanValue() ) {
+            return -1;
+        }
+        SheetDimension dimension = layout.dimension;
+        if( schemaHints.containsKey( sheetName ) ) {
+            // the layout of a declared sheet is not read from the sheet, so that its dimension is read separately
+            dimension = readSheetDimension( archive, sheetName );
+            if( dimension == null || dimension.reachesSheetLimits() ) {
+                return -1;
+            }
+        }
+        int lastRowIndex = dimension.getLastRowIndex();
+        if( lastRowIndex <= 0 || (lastRowIndex == dimension.getFirstRowIndex() && dimension.getLastColumnIndex() == dimension.getFirstColumnIndex()) ) {
+            return -1;
+        }
+        return lastRowIndex;
+    }
+
+    /** Reads the dimension of specified sheet. Only the beginning of the sheet is read, because the dimension precedes the rows.
+     * @param archive component allowing access to data inside Excel document.
+     * @param sheetName name of the sheet from Excel document.
+     * @return dimension of the sheet or null, if the sheet has no valid dimension.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private SheetDimension readSheetDimension( ExcelArchive archive, String sheetName ) {
+        try( InputStream is = getInputStreamForSheet( archive, sheetName ) ) {
+            XMLStreamReader reader = createXMLStreamReader( is );
+            try {
+                while( reader.hasNext() ) {
+                    reader.next();
+                    if( reader.getEventType() == XMLStreamReader.START_ELEMENT ) {
+                        String localName = reader.getLocalName();
+                        if( "dimension".equals( localName ) ) {
+                            return SheetDimension.parse( reader.getAttributeValue( null, "ref" ) );
+                        }
+                        if( "sheetData".equals( localName ) ) {
+                            return null; // no dimension before the rows
+                        }
                     }
-                case NUMBER:
-                    try {
-                        return Double.valueOf( cell.getV() );
-                    } catch( Exception ex ) {
-                        return null;
+                }
+                return null;
+            } finally {
+                reader.close();
+            }
+        } catch( XMLStreamException | IOException ex ) {
+            throw new ExcelParserException( ex );
+        }
+    }
+
+    /** Checks whether the application, which wrote the Excel document, is known to write reliable dimensions of sheets.
+     * The application is taken from the extended properties "docProps/app.xml".
+     * @param archive component allowing access to data inside Excel document.
+     * @return whether dimensions of sheets are reliable.
+     * @throws ExcelParserException in case of I/O or processing errors.
+     */
+    private boolean readDimensionsAreReliable( ExcelArchive archive ) {
+        try( InputStream is = archive.getInputStream( "docProps/app.xml" ) ) {
+            if( is == null ) {
+                return false;
+            }
+            XMLStreamReader reader = createXMLStreamReader( is );
+            try {
+                while( reader.hasNext() ) {
+                    reader.next();
+                    if( reader.getEventType() == XMLStreamReader.START_ELEMENT && "Application".equals( reader.getLocalName() ) ) {
+                        return "Microsoft Excel".equals( reader.getElementText().trim() );
                     }
-                case VARCHAR:
-                default:
-                    return cell.getV();
+                }
+                return false;
+            } finally {
+                reader.close();
             }
+        } catch( XMLStreamException | IOException ex ) {
+            throw new ExcelParserException( ex );
         }
     }
 
-    /** Returns number of rows included in specified sheet from Excel document.
-     * @param zipFile component allowing access to data inside Excel document.
+    /** Returns number of rows included in specified sheet from Excel document by scanning all rows. Trailing rows without values
+     * (e.g. rows which are only formatted) are not counted.
+     * @param archive component allowing access to data inside Excel document.
      * @param sheetName name of the sheet from Excel document.
      * @return number of rows included in specified sheet from Excel document.
      * @throws ExcelParserException in case of I/O or processing errors.
      */
-    private int readRowCount( ZipFile zipFile, String sheetName ) {
+    private int readRowCount( ExcelArchive archive, String sheetName ) {
         try {
-            ZipEntry sheetEntry = getZipEntryForSheet( zipFile, sheetName );
-            try( InputStream is = zipFile.getInputStream( sheetEntry ) ) {
-                XMLStreamReader reader = factory.createXMLStreamReader( is );
+            try( InputStream is = getInputStreamForSheet( archive, sheetName ) ) {
+                XMLStreamReader reader = createXMLStreamReader( is );
                 try {
                     int rowCount = 0;
+                    int currentRowIndex = 0;
                     while( reader.hasNext() ) {
                         reader.next();
                         if( reader.getEventType() == XMLStreamReader.START_ELEMENT ) {
-                            if( "row".equals( reader.getLocalName() ) ) {
+                            String localName = reader.getLocalName();
+                            if( "row".equals( localName ) ) {
+                                CancellationToken.checkCurrent();
                                 try {
-                                    int rowIndex = Integer.parseInt( reader.getAttributeValue( null, "r" ) );
-                                    if( rowIndex > rowCount ) {
-                                        rowCount = rowIndex;
-                                    }
+                                    currentRowIndex = Integer.parseInt( reader.getAttributeValue( null, "r" ) );
                                 } catch( Exception ex ) {
-                                    // ignore row if index can not be parsed
+                                    currentRowIndex = 0; // ignore row if index can not be parsed
                                 }
+                            } else if( "v".equals( localName ) && currentRowIndex > rowCount ) {
+                                rowCount = currentRowIndex;
                             }
                         }
                     }
@@ -908,17 +1868,121 @@ public class ExcelParser {
         }
     }
 
-    /** Opens Excel file for reading. In case of invalid Excel file, it throws {@link ExcelParserException} with user friendly message.
-     * @param filePath file path.
-     * @return instance of {@link ZipFile} representing Excel document.
+    /** Returns archive, which provides only specified part with given content.
+     * @param entryName name of the part.
+     * @param content content of the part.
+     * @return archive, which provides only specified part.
+     */
+    private static ExcelArchive singleEntryArchive( String entryName, InputStream content ) {
+        return new ExcelArchive() {
+            @Override
+            public InputStream getInputStream( String name ) {
+                return entryName.equals( name ) ? content : null;
+            }
+
+            @Override
+            public void close() {
+                // content is owned by the caller
+            }
+        };
+    }
+
+    /** Opens Excel document for reading. In case of invalid Excel file, it throws {@link ExcelParserException} with user friendly message.
+     * @return archive representing Excel document.
      * @throws IOException if an I/O error has occurred.
      * @throws ExcelParserException in case of invalid Excel file.
      */
-    private ZipFile openExcelDocument( Path filePath ) throws IOException {
+    private ExcelArchive openExcelDocument() throws IOException {
+        if( archive != null ) {
+            if( archive instanceof StreamArchive ) {
+                ((StreamArchive)archive).load();
+            }
+            return new ExcelArchive() {
+                @Override
+                public InputStream getInputStream( String entryName ) throws IOException {
+                    return archive.getInputStream( entryName );
+                }
+
+                @Override
+                public void close() {
+                    // archive is shared by all operations and closed by its owner
+                }
+            };
+        }
+        ExcelStatistics.get().archiveOpened();
         try {
-            return new ZipFile( filePath.toString() );
+            if( data != null ) {
+                return new ByteBufferArchive( data ).open();
+            }
+            return new ZipFileArchive( new ZipFile( filePath.toString() ) );
         } catch( ZipException e ) {
             throw new ExcelParserException( "File is not a valid Excel document." );
         }
     }
+
+    /** Consumer of rows read from a sheet.
+     */
+    private interface RowConsumer {
+
+        /** Accepts specified row.
+         * @param rowIndex index of the row in the sheet.
+         * @param row values of the row.
+         * @return whether further rows should be read.
+         */
+        boolean accept( int rowIndex, List<Object> row );
+    }
+
+    /** Range of cells containing values.
+     */
+    private static class UsedRange {
+        private int firstColumnIndex;
+        private int lastColumnIndex;
+        private int firstRowIndex;
+        private int lastRowIndex;
+
+        /** Extends the range by specified cell. Unknown indexes are ignored.
+         * @param columnIndex index of the column of the cell or 0, if unknown.
+         * @param rowIndex index of the row of the cell or 0, if unknown.
+         */
+        private void add( int columnIndex, int rowIndex ) {
+            if( columnIndex > 0 ) {
+                firstColumnIndex = firstColumnIndex == 0 ? columnIndex : Math.min( firstColumnIndex, columnIndex );
+                lastColumnIndex = Math.max( lastColumnIndex, columnIndex );
+            }
+            if( rowIndex > 0 ) {
+                firstRowIndex = firstRowIndex == 0 ? rowIndex : Math.min( firstRowIndex, rowIndex );
+                lastRowIndex = Math.max( lastRowIndex, rowIndex );
+            }
+        }
+    }
+
+    /** Column types of a sheet and statistics of the column values, which are collected in the same pass.
+     */
+    private static class ProbedColumns {
+        private final List<ValueType>        types;
+        private final List<ColumnStatistics> statistics;
+
+        private ProbedColumns( List<ValueType> types, List<ColumnStatistics> statistics ) {
+            this.types = types;
+            this.statistics = statistics;
+        }
+    }
+
+    /** Dimension and column names of a sheet. If all rows were scanned to find the range containing values, it also holds the number of rows.
+     */
+    private static class SheetLayout {
+        private final SheetDimension dimension;
+        private final List<String>   columnNames;
+        private final int            scannedRowCount;
+
+        private SheetLayout( SheetDimension dimension, List<String> columnNames ) {
+            this( dimension, columnNames, -1 );
+        }
+
+        private SheetLayout( SheetDimension dimension, List<String> columnNames, int scannedRowCount ) {
+            this.dimension = dimension;
+            this.columnNames = columnNames;
+            this.scannedRowCount = scannedRowCount;
+        }
+    }
 }
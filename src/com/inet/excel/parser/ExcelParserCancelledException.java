@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+/** Exception thrown, when reading data from Excel document is aborted by a {@link CancellationToken}.
+ */
+public class ExcelParserCancelledException extends ExcelParserException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final boolean timeout;
+
+    /** Creates new exception with specified message.
+     * @param message the detail message.
+     * @param timeout whether reading was aborted because the timeout elapsed, instead of being cancelled explicitly.
+     */
+    public ExcelParserCancelledException( String message, boolean timeout ) {
+        super( message );
+        this.timeout = timeout;
+    }
+
+    /** Returns whether reading was aborted because the timeout elapsed.
+     * @return true, if the timeout elapsed; false, if reading was cancelled explicitly.
+     */
+    public boolean isTimeout() {
+        return timeout;
+    }
+}
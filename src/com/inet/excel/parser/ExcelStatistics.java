@@ -0,0 +1,401 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/** Performance counters of the driver and all parsers of the JVM. The single instance is registered with the platform MBean server
+ * when the class is loaded. Counters are based on {@link LongAdder}, so that concurrent updates do not contend, and the parsers update
+ * them once per part or per scan instead of once per row or cell.
+ */
+public final class ExcelStatistics implements ExcelStatisticsMBean {
+
+    /** Name of the MBean. */
+    public static final String           OBJECT_NAME            = "com.inet.excel:type=ExcelStatistics";
+
+    private static final ExcelStatistics INSTANCE               = new ExcelStatistics();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean( INSTANCE, new ObjectName( OBJECT_NAME ) );
+        } catch( JMException | SecurityException ex ) {
+            // e.g. already registered by another class loader; the counters are still available by get()
+        }
+    }
+
+    private final LongAdder              connectionsOpened      = new LongAdder();
+    private final LongAdder              archivesOpened         = new LongAdder();
+    private final LongAdder[]            bytesInflated          = newAdders( Part.values().length );
+    private final LongAdder              rowsDecoded            = new LongAdder();
+    private final LongAdder              cellsDecoded           = new LongAdder();
+    private final LongAdder              sharedStringTableLoads = new LongAdder();
+    private final LongAdder              sharedStringsLoaded    = new LongAdder();
+    private final LongAdder              metadataCacheHits      = new LongAdder();
+    private final LongAdder              metadataCacheMisses    = new LongAdder();
+    private final LongAdder[]            phaseNanos             = newAdders( Phase.values().length );
+
+    private ExcelStatistics() {
+        // single instance
+    }
+
+    /** Returns the instance, which collects the counters of the JVM.
+     * @return the instance.
+     */
+    public static ExcelStatistics get() {
+        return INSTANCE;
+    }
+
+    /** Creates array of counters.
+     * @param count number of counters.
+     * @return array of counters.
+     */
+    private static LongAdder[] newAdders( int count ) {
+        LongAdder[] adders = new LongAdder[count];
+        for( int i = 0; i < count; i++ ) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /** Records that the driver opened a connection.
+     */
+    public void connectionOpened() {
+        connectionsOpened.increment();
+    }
+
+    /** Records that an Excel document was opened.
+     */
+    void archiveOpened() {
+        archivesOpened.increment();
+    }
+
+    /** Returns stream, which records the number of bytes read from given stream, when it is closed.
+     * @param entryName name of the part, which is provided by the stream.
+     * @param in uncompressed content of the part.
+     * @return counting stream.
+     */
+    InputStream countInflatedBytes( String entryName, InputStream in ) {
+        LongAdder counter = bytesInflated[Part.of( entryName ).ordinal()];
+        return new FilterInputStream( in ) {
+            private long count;
+
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if( b >= 0 ) {
+                    count++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read( byte[] b, int off, int len ) throws IOException {
+                int n = super.read( b, off, len );
+                if( n > 0 ) {
+                    count += n;
+                }
+                return n;
+            }
+
+            @Override
+            public void close() throws IOException {
+                counter.add( count );
+                ParsePhaseEvent.addBytesInflated( count );
+                count = 0;
+                super.close();
+            }
+        };
+    }
+
+    /** Records rows and cells, which were decoded by a scan of a sheet.
+     * @param rows number of decoded rows.
+     * @param cells number of decoded cells.
+     */
+    void rowsDecoded( long rows, long cells ) {
+        rowsDecoded.add( rows );
+        cellsDecoded.add( cells );
+    }
+
+    /** Records that a shared string table was loaded.
+     * @param size number of strings of the table.
+     */
+    void sharedStringTableLoaded( int size ) {
+        sharedStringTableLoads.increment();
+        sharedStringsLoaded.add( size );
+    }
+
+    /** Records requests for sheet metadata.
+     * @param hits number of requests answered by the cache.
+     * @param misses number of requests, which required to read a sheet.
+     */
+    void metadataRequested( int hits, int misses ) {
+        metadataCacheHits.add( hits );
+        metadataCacheMisses.add( misses );
+    }
+
+    /** Runs specified phase and records its time. It is also recorded as {@link ParsePhaseEvent}, if the event is enabled.
+     * @param phase the phase.
+     * @param fileName file name of the Excel document.
+     * @param sheetName name of the sheet or null, if phase does not belong to a sheet.
+     * @param task task of the phase.
+     * @param <T> type of the result.
+     * @return result of the task.
+     */
+    <T> T time( Phase phase, String fileName, String sheetName, Supplier<T> task ) {
+        ParsePhaseEvent event = ParsePhaseEvent.begin( phase, fileName, sheetName );
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            addTime( phase, start );
+            ParsePhaseEvent.end( event );
+        }
+    }
+
+    /** Records time of specified phase, which started at given time.
+     * @param phase the phase.
+     * @param startNanos start of the phase, as returned by {@link System#nanoTime()}.
+     */
+    void addTime( Phase phase, long startNanos ) {
+        phaseNanos[phase.ordinal()].add( System.nanoTime() - startNanos );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getConnectionsOpened() {
+        return connectionsOpened.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getArchivesOpened() {
+        return archivesOpened.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getWorkbookBytesInflated() {
+        return bytesInflated[Part.WORKBOOK.ordinal()].sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getStylesBytesInflated() {
+        return bytesInflated[Part.STYLES.ordinal()].sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSharedStringsBytesInflated() {
+        return bytesInflated[Part.SHARED_STRINGS.ordinal()].sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSheetBytesInflated() {
+        return bytesInflated[Part.SHEET.ordinal()].sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRowsDecoded() {
+        return rowsDecoded.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCellsDecoded() {
+        return cellsDecoded.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSharedStringTableLoads() {
+        return sharedStringTableLoads.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSharedStringsLoaded() {
+        return sharedStringsLoaded.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMetadataCacheHits() {
+        return metadataCacheHits.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getMetadataCacheMisses() {
+        return metadataCacheMisses.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInitSheetDataMillis() {
+        return getMillis( Phase.SHEET_DATA );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInitStylesMillis() {
+        return getMillis( Phase.STYLES );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInitSharedStringsMillis() {
+        return getMillis( Phase.SHARED_STRINGS );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInitDimensionAndColumnNamesMillis() {
+        return getMillis( Phase.DIMENSION_AND_COLUMN_NAMES );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getInitColumnTypesMillis() {
+        return getMillis( Phase.COLUMN_TYPES );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getReadRowsMillis() {
+        return getMillis( Phase.READ_ROWS );
+    }
+
+    /** Returns time spent in specified phase.
+     * @param phase the phase.
+     * @return time in milliseconds.
+     */
+    private long getMillis( Phase phase ) {
+        return TimeUnit.NANOSECONDS.toMillis( phaseNanos[phase.ordinal()].sum() );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        connectionsOpened.reset();
+        archivesOpened.reset();
+        for( LongAdder adder : bytesInflated ) {
+            adder.reset();
+        }
+        rowsDecoded.reset();
+        cellsDecoded.reset();
+        sharedStringTableLoads.reset();
+        sharedStringsLoaded.reset();
+        metadataCacheHits.reset();
+        metadataCacheMisses.reset();
+        for( LongAdder adder : phaseNanos ) {
+            adder.reset();
+        }
+    }
+
+    /** Phases of reading an Excel document.
+     */
+    enum Phase {
+        SHEET_DATA( "initSheetData" ), STYLES( "initStyles" ), SHARED_STRINGS( "initSharedStrings" ),
+        DIMENSION_AND_COLUMN_NAMES( "initDimensionAndColumnNames" ), COLUMN_TYPES( "initColumnTypes" ), READ_ROWS( "readRows" );
+
+        private final String label;
+
+        private Phase( String label ) {
+            this.label = label;
+        }
+
+        /** Returns name of the phase for diagnostic purposes.
+         * @return name of the phase.
+         */
+        String getLabel() {
+            return label;
+        }
+    }
+
+    /** Types of parts of an Excel document.
+     */
+    private enum Part {
+        WORKBOOK, STYLES, SHARED_STRINGS, SHEET, OTHER;
+
+        /** Returns type of specified part.
+         * @param entryName name of the part.
+         * @return type of the part.
+         */
+        private static Part of( String entryName ) {
+            switch( entryName ) {
+                case "xl/workbook.xml":
+                case "xl/_rels/workbook.xml.rels":
+                    return WORKBOOK;
+                case "xl/styles.xml":
+                    return STYLES;
+                case "xl/sharedStrings.xml":
+                    return SHARED_STRINGS;
+                default:
+                    return entryName.startsWith( "xl/worksheets/" ) ? SHEET : OTHER;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+/** Management interface of {@link ExcelStatistics}, which is registered with the platform MBean server as
+ * {@value ExcelStatistics#OBJECT_NAME}. All values are accumulated since start of the JVM or the last {@link #reset()}.
+ * Times of phases may overlap, e.g. shared strings are loaded on first access while reading rows.
+ */
+public interface ExcelStatisticsMBean {
+
+    /** Returns number of connections opened by the driver.
+     * @return number of opened connections.
+     */
+    long getConnectionsOpened();
+
+    /** Returns number of times an Excel document was opened, e.g. a ZIP file. Documents of stream and range request connections
+     * are opened only once per connection.
+     * @return number of opened documents.
+     */
+    long getArchivesOpened();
+
+    /** Returns number of uncompressed bytes read from the workbook part and its relationships.
+     * @return number of bytes.
+     */
+    long getWorkbookBytesInflated();
+
+    /** Returns number of uncompressed bytes read from the styles part.
+     * @return number of bytes.
+     */
+    long getStylesBytesInflated();
+
+    /** Returns number of uncompressed bytes read from the shared strings part.
+     * @return number of bytes.
+     */
+    long getSharedStringsBytesInflated();
+
+    /** Returns number of uncompressed bytes read from sheets.
+     * @return number of bytes.
+     */
+    long getSheetBytesInflated();
+
+    /** Returns number of rows with values, which were decoded from sheets.
+     * @return number of rows.
+     */
+    long getRowsDecoded();
+
+    /** Returns number of cell values, which were decoded from sheets.
+     * @return number of cells.
+     */
+    long getCellsDecoded();
+
+    /** Returns number of times a shared string table was loaded.
+     * @return number of loads.
+     */
+    long getSharedStringTableLoads();
+
+    /** Returns total number of strings of all loaded shared string tables.
+     * @return number of strings.
+     */
+    long getSharedStringsLoaded();
+
+    /** Returns number of requests for sheet metadata, which were answered by the cache of a parser.
+     * @return number of cache hits.
+     */
+    long getMetadataCacheHits();
+
+    /** Returns number of requests for sheet metadata, which required to read the sheet.
+     * @return number of cache misses.
+     */
+    long getMetadataCacheMisses();
+
+    /** Returns time spent reading sheet names and paths from the workbook.
+     * @return time in milliseconds.
+     */
+    long getInitSheetDataMillis();
+
+    /** Returns time spent reading styles.
+     * @return time in milliseconds.
+     */
+    long getInitStylesMillis();
+
+    /** Returns time spent reading shared strings.
+     * @return time in milliseconds.
+     */
+    long getInitSharedStringsMillis();
+
+    /** Returns time spent reading dimensions and column names of sheets.
+     * @return time in milliseconds.
+     */
+    long getInitDimensionAndColumnNamesMillis();
+
+    /** Returns time spent probing column types of sheets.
+     * @return time in milliseconds.
+     */
+    long getInitColumnTypesMillis();
+
+    /** Returns time spent reading rows of sheets.
+     * @return time in milliseconds.
+     */
+    long getReadRowsMillis();
+
+    /** Resets all counters to zero.
+     */
+    void reset();
+}
@@ -15,29 +15,95 @@
  */
 package com.inet.excel.parser;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /** Provides method to analyze cell's format code, in order to recognize cell value's type.
  */
 public class FormatCodeAnalyzer {
 
+    /** Maximum number of format codes, whose value types are cached. Documents usually share a few dozen format codes. */
+    static final int                        MAX_CACHED_FORMAT_CODES = 1024;
+
+    private static final Map<String, ValueType> CACHE               = new ConcurrentHashMap<>();
+
     /** Analyze cell's format code, in order to recognize cell value's type
      * @param formatCode format code to analyze. May be null or empty string.
      * @return cell value's type. Never null.
      */
     public static ValueType recognizeValueType( String formatCode ) {
-        if( formatCode == null || formatCode.trim().isEmpty() ) {
+        if( formatCode == null ) {
             return ValueType.VARCHAR;
         }
+        ValueType valueType = CACHE.get( formatCode );
+        if( valueType == null ) {
+            valueType = analyze( formatCode );
+            if( CACHE.size() < MAX_CACHED_FORMAT_CODES ) {
+                CACHE.put( formatCode, valueType );
+            }
+        }
+        return valueType;
+    }
 
-        formatCode = formatCode.toLowerCase();
+    /** Analyzes format code in a single pass. Date and time symbols are only taken into account, if they are neither enclosed in quotes
+     * nor escaped with backslash. "h" and "s" represent time, "y" and "d" represent date. "m" represents minutes, if it is not repeated
+     * more than twice and directly follows "h:" or is directly followed by ":s"; otherwise it represents the month. "am/pm" is ignored.
+     * @param formatCode format code to analyze. May not be null.
+     * @return cell value's type. Never null.
+     */
+    private static ValueType analyze( String formatCode ) {
+        boolean containsTime = false;
+        boolean containsDate = false;
+        boolean insideQuotes = false;
+        int length = formatCode.length();
+        for( int i = 0; i < length; i++ ) {
+            char ch = Character.toLowerCase( formatCode.charAt( i ) );
+            if( ch == '\\' ) {
+                i++; // escaped character
+                continue;
+            }
+            if( ch == '"' ) {
+                insideQuotes = !insideQuotes;
+                continue;
+            }
+            if( insideQuotes ) {
+                continue;
+            }
+            switch( ch ) {
+                case 'h':
+                case 's':
+                    containsTime = true;
+                    break;
+                case 'y':
+                case 'd':
+                    containsDate = true;
+                    break;
+                case 'a':
+                    if( formatCode.regionMatches( true, i, "am/pm", 0, 5 ) ) {
+                        i += 4;
+                    }
+                    break;
+                case 'm':
+                    int end = i + 1;
+                    while( end < length && Character.toLowerCase( formatCode.charAt( end ) ) == 'm' ) {
+                        end++;
+                    }
+                    boolean minutes = end - i <= 2 && ( (i >= 2 && formatCode.charAt( i - 1 ) == ':' && Character.toLowerCase( formatCode.charAt( i - 2 ) ) == 'h' && !isEscaped( formatCode, i - 2 ))
+                                    || formatCode.regionMatches( true, end, ":s", 0, 2 ) );
+                    if( !minutes ) {
+                        containsDate = true;
+                    }
+                    i = end - 1;
+                    break;
+                default:
+                    break;
+            }
+        }
 
-        if( countQuoteCharacters( formatCode ) % 2 != 0 ) {
+        if( insideQuotes ) {
             // invalid format code
             return ValueType.VARCHAR;
         }
-
-        boolean containsTime = containsTime( formatCode );
-        boolean containsDate = containsDate( formatCode );
-
         if( containsTime && containsDate ) {
             return ValueType.TIMESTAMP;
         }
@@ -50,118 +116,16 @@ public class FormatCodeAnalyzer {
         return ValueType.VARCHAR;
     }
 
-    /** Checks whether given format code contains section representing time.
-     * @param formatCode format code to analyze. May not be null.
-     * @return whether given format code contains section representing time.
-     */
-    private static boolean containsTime( String formatCode ) {
-        if( containsUnescapedSubstring( formatCode, "h" ) ) {
-            return true;
-        }
-        if( containsUnescapedSubstring( formatCode, "h:m" ) ) {
-            return true;
-        }
-        if( containsUnescapedSubstring( formatCode, "m:s" ) ) {
-            return true;
-        }
-        if( containsUnescapedSubstring( formatCode, "s" ) ) {
-            return true;
-        }
-        return false;
-    }
-
-    /** Checks whether given format code contains section representing date.
-     * @param formatCode format code to analyze. May not be null.
-     * @return whether given format code contains section representing date.
-     */
-    private static boolean containsDate( String formatCode ) {
-        if( containsUnescapedSubstring( formatCode, "y" ) ) {
-            return true;
-        }
-        if( containsUnescapedSubstring( formatCode, "d" ) ) {
-            return true;
-        }
-
-        formatCode = formatCode.replace( "h:mm", "" );
-        formatCode = formatCode.replace( "h:m", "" );
-        formatCode = formatCode.replace( "mm:s", "" );
-        formatCode = formatCode.replace( "m:s", "" );
-        formatCode = formatCode.replace( "am/pm", "" );
-        if( containsUnescapedSubstring( formatCode, "m" ) ) {
-            return true;
-        }
-        return false;
-    }
-
-    /** Checks whether given format code contains specified substring, which is not escaped using backslash or quotes.
-     * @param formatCode format code to analyze. May not be null.
-     * @param substring substring to check.
-     * @return whether given format code contains specified substring, which is not escaped using backslash or quotes.
-     */
-    private static boolean containsUnescapedSubstring( String formatCode, String substring ) {
-        int index = formatCode.indexOf( substring );
-        if( index == 0 ) {
-            return true;
-        }
-        while( index > 0 ) {
-            if( isInsideQuotes( formatCode, index ) || isEscapedWithBackslash( formatCode, index ) ) {
-                if( index + 1 < formatCode.length() ) {
-                    index = formatCode.indexOf( substring, index + 1 );
-                    continue;
-                } else {
-                    break;
-                }
-            } else {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /** Checks whether character at specified index is located inside quotes.
-     * @param formatCode format code to analyze. May not be null.
-     * @param charIndex index of the character from given format code. Must not be negative.
-     * @return whether character at specified index is located inside quotes.
-     */
-    private static boolean isInsideQuotes( String formatCode, int charIndex ) {
-        String before = formatCode.substring( 0, charIndex );
-        return countQuoteCharacters( before ) % 2 == 1;
-    }
-
     /** Checks whether character at specified index is escaped with backslash.
      * @param formatCode format code to analyze. May not be null.
      * @param charIndex index of the character from given format code. Must not be negative.
      * @return whether character at specified index is escaped with backslash.
      */
-    private static boolean isEscapedWithBackslash( String formatCode, int charIndex ) {
-        if( charIndex == 0 ) {
-            return false;
-        }
+    private static boolean isEscaped( String formatCode, int charIndex ) {
         int backslashCount = 0;
-        while( charIndex > 0 ) {
-            charIndex--;
-            if( formatCode.charAt( charIndex ) == '\\' ) {
-                backslashCount++;
-            } else {
-                break;
-            }
+        while( charIndex > 0 && formatCode.charAt( --charIndex ) == '\\' ) {
+            backslashCount++;
         }
         return backslashCount % 2 == 1;
     }
-
-    /** Counts quote characters included inside specified format code.
-     * @param formatCode format code to analyze. May not be null.
-     * @return number of quote characters included inside specified format code.
-     */
-    private static int countQuoteCharacters( String formatCode ) {
-        int count = 0;
-        int index = 0;
-        while( (index = formatCode.indexOf( "\"", index )) > -1 ) {
-            if( !isEscapedWithBackslash( formatCode, index ) ) {
-                count++;
-            }
-            index++;
-        }
-        return count;
-    }
 }
@@ -0,0 +1,268 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Archive reading Excel document from a HTTP server by means of range requests. Only the end of central directory, the central directory
+ * and the compressed data of the requested parts are fetched. Fetched data is kept in a bounded cache of fixed-size blocks, so that
+ * parts which are read repeatedly (e.g. the sheet) are fetched only once as long as they fit into the cache.
+ */
+public class HttpRangeArchive extends ZipArchive {
+
+    /** Default size of a cached block in bytes. */
+    public static final int     DEFAULT_BLOCK_SIZE  = 64 * 1024;
+
+    private static final int    READ_AHEAD_BLOCKS   = 16;
+
+    private final URL           url;
+    private final int           blockSize;
+    private final int           maxCachedBlocks;
+    private final long          size;
+    private final String        validator;
+    private final Map<Long, byte[]> blocks;
+    private final AtomicLong    requestCount        = new AtomicLong();
+    private final AtomicLong    transferredBytes    = new AtomicLong();
+
+    /** Creates archive for Excel document at specified URL. It checks, whether the server supports range requests.
+     * @param url URL of the Excel document. Must use HTTP or HTTPS protocol.
+     * @param blockSize size of a cached block in bytes.
+     * @param cacheSize maximum number of bytes kept in the block cache.
+     * @throws IOException if an I/O error has occurred or the server does not support range requests.
+     * @throws IllegalArgumentException if URL is null or block size is not greater than zero.
+     */
+    public HttpRangeArchive( URL url, int blockSize, long cacheSize ) throws IOException {
+        if( url == null ) {
+            throw new IllegalArgumentException( "url must not be null" );
+        }
+        if( blockSize <= 0 ) {
+            throw new IllegalArgumentException( "blockSize must be greater than zero" );
+        }
+        this.url = url;
+        this.blockSize = blockSize;
+        this.maxCachedBlocks = (int)Math.max( 2, Math.min( Integer.MAX_VALUE, cacheSize / blockSize ) );
+        this.blocks = new LinkedHashMap<Long, byte[]>( 16, 0.75f, true ) {
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<Long, byte[]> eldest ) {
+                return size() > maxCachedBlocks;
+            }
+        };
+
+        HttpURLConnection connection = openConnection( 0, 0, null );
+        try {
+            if( connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL ) {
+                throw new IOException( "Server does not support range requests: " + url );
+            }
+            this.size = parseTotalLength( connection.getHeaderField( "Content-Range" ) );
+            String eTag = connection.getHeaderField( "ETag" );
+            this.validator = eTag != null && !eTag.startsWith( "W/" ) ? eTag : connection.getHeaderField( "Last-Modified" );
+            try( InputStream in = connection.getInputStream() ) {
+                transferredBytes.addAndGet( in.readAllBytes().length );
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /** Returns total length of the document from value of the header "Content-Range", e.g. "bytes 0-0/12345".
+     * @param contentRange value of the header "Content-Range".
+     * @return total length of the document.
+     * @throws IOException if total length is missing or invalid.
+     */
+    private static long parseTotalLength( String contentRange ) throws IOException {
+        int slashIndex = contentRange == null ? -1 : contentRange.lastIndexOf( '/' );
+        try {
+            if( slashIndex >= 0 ) {
+                return Long.parseLong( contentRange.substring( slashIndex + 1 ).trim() );
+            }
+        } catch( NumberFormatException ex ) {
+            // handled below
+        }
+        throw new IOException( "Server does not report length of the document: " + contentRange );
+    }
+
+    /** Opens connection requesting specified range of the document.
+     * @param first position of the first requested byte.
+     * @param last position of the last requested byte (inclusive).
+     * @param ifRange optional validator, which ensures that the document was not modified.
+     * @return opened connection.
+     * @throws IOException if an I/O error has occurred.
+     */
+    private HttpURLConnection openConnection( long first, long last, String ifRange ) throws IOException {
+        URLConnection urlConnection = url.openConnection();
+        if( !(urlConnection instanceof HttpURLConnection) ) {
+            throw new IOException( "Range requests are only supported for HTTP URLs: " + url );
+        }
+        HttpURLConnection connection = (HttpURLConnection)urlConnection;
+        connection.setRequestProperty( "Range", "bytes=" + first + "-" + last );
+        connection.setRequestProperty( "Accept-Encoding", "identity" );
+        if( ifRange != null ) {
+            connection.setRequestProperty( "If-Range", ifRange );
+        }
+        requestCount.incrementAndGet();
+        return connection;
+    }
+
+    /** Returns number of HTTP requests sent for this archive.
+     * @return number of HTTP requests sent for this archive.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /** Returns number of bytes received from the server for this archive.
+     * @return number of bytes received from the server for this archive.
+     */
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected long size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected int getReadChunkSize() {
+        return blockSize * READ_AHEAD_BLOCKS;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected ByteBuffer read( long position, int length ) throws IOException {
+        if( position < 0 || position + length > size ) {
+            throw new IOException( "Range " + position + "+" + length + " exceeds document of size " + size );
+        }
+        byte[] result = new byte[length];
+        if( length == 0 ) {
+            return ByteBuffer.wrap( result );
+        }
+        long firstBlock = position / blockSize;
+        long lastBlock = (position + length - 1) / blockSize;
+
+        long block = firstBlock;
+        while( block <= lastBlock ) {
+            byte[] data = getCachedBlock( block );
+            if( data == null ) {
+                // fetch all consecutive missing blocks with a single request
+                long runEnd = block;
+                while( runEnd < lastBlock && getCachedBlock( runEnd + 1 ) == null ) {
+                    runEnd++;
+                }
+                byte[][] fetched = fetchBlocks( block, runEnd );
+                for( byte[] fetchedBlock : fetched ) {
+                    copy( fetchedBlock, block, position, result );
+                    block++;
+                }
+            } else {
+                copy( data, block, position, result );
+                block++;
+            }
+        }
+        return ByteBuffer.wrap( result );
+    }
+
+    /** Copies overlapping bytes of specified block into given result.
+     * @param data data of the block.
+     * @param block index of the block.
+     * @param position position of the first requested byte in the document.
+     * @param result array for requested bytes.
+     */
+    private void copy( byte[] data, long block, long position, byte[] result ) {
+        long blockStart = block * blockSize;
+        long from = Math.max( blockStart, position );
+        long to = Math.min( blockStart + data.length, position + result.length );
+        System.arraycopy( data, (int)(from - blockStart), result, (int)(from - position), (int)(to - from) );
+    }
+
+    /** Returns cached block with specified index.
+     * @param block index of the block.
+     * @return cached data of the block or null, if block is not cached.
+     */
+    private byte[] getCachedBlock( long block ) {
+        synchronized( blocks ) {
+            return blocks.get( Long.valueOf( block ) );
+        }
+    }
+
+    /** Fetches blocks from specified range with a single request and adds them to the cache.
+     * @param firstBlock index of the first block.
+     * @param lastBlock index of the last block (inclusive).
+     * @return data of fetched blocks.
+     * @throws IOException if an I/O error has occurred or the document was modified on the server.
+     */
+    private byte[][] fetchBlocks( long firstBlock, long lastBlock ) throws IOException {
+        long first = firstBlock * blockSize;
+        long last = Math.min( size, (lastBlock + 1) * blockSize ) - 1;
+        HttpURLConnection connection = openConnection( first, last, validator );
+        byte[] data;
+        try {
+            if( connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL ) {
+                throw new IOException( "Document was modified on the server or range request failed with status " + connection.getResponseCode() + ": " + url );
+            }
+            int expectedLength = (int)(last - first + 1);
+            try( InputStream in = connection.getInputStream() ) {
+                data = in.readNBytes( expectedLength );
+            }
+            transferredBytes.addAndGet( data.length );
+            if( data.length != expectedLength ) {
+                throw new IOException( "Server sent " + data.length + " bytes instead of " + expectedLength + ": " + url );
+            }
+        } finally {
+            connection.disconnect();
+        }
+
+        int count = (int)(lastBlock - firstBlock + 1);
+        byte[][] result = new byte[count][];
+        synchronized( blocks ) {
+            for( int index = 0; index < count; index++ ) {
+                int from = index * blockSize;
+                int to = Math.min( data.length, from + blockSize );
+                byte[] block = new byte[to - from];
+                System.arraycopy( data, from, block, 0, block.length );
+                result[index] = block;
+                blocks.put( Long.valueOf( firstBlock + index ), block );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        synchronized( blocks ) {
+            blocks.clear();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/** Value, which is loaded on first request. Concurrent requests wait for the load in progress instead of loading the value once more.
+ * If loading fails, the failure is passed to all waiting requests, but it is not remembered, so that the next request loads the value again.
+ * A load, which is aborted by the {@link CancellationToken} of the loading task, is not a failure of the waiting requests; they load the
+ * value again instead. While waiting, a request checks the token of its own task.
+ * @param <V> type of the value.
+ */
+class LazyValue<V> {
+
+    /** Interval, in which a waiting request checks the token of its task. */
+    private static final long                           WAIT_INTERVAL_MILLIS = 10;
+
+    private final AtomicReference<CompletableFuture<V>> future               = new AtomicReference<>();
+
+    /** Returns the value. If it is not loaded yet, it is loaded in the current thread or, if another thread is already loading it,
+     * the current thread waits for its result.
+     * @param loader loads the value. It must not return null.
+     * @return the value.
+     * @throws ExcelParserException if value could not be loaded.
+     * @throws ExcelParserCancelledException if the task of the current thread was cancelled, while loading or waiting.
+     */
+    V get( Supplier<V> loader ) {
+        while( true ) {
+            CompletableFuture<V> current = future.get();
+            if( current == null ) {
+                CompletableFuture<V> loading = new CompletableFuture<>();
+                if( !future.compareAndSet( null, loading ) ) {
+                    continue; // another thread started loading in the meantime
+                }
+                try {
+                    V value = loader.get();
+                    loading.complete( value );
+                    return value;
+                } catch( RuntimeException | Error ex ) {
+                    future.compareAndSet( loading, null );
+                    loading.completeExceptionally( ex );
+                    throw ex;
+                }
+            }
+            try {
+                return await( current );
+            } catch( ExecutionException ex ) {
+                Throwable cause = ex.getCause();
+                if( cause instanceof ExcelParserCancelledException ) {
+                    continue; // cancelled by the token of the loading task, not by the token of this one
+                }
+                if( cause instanceof RuntimeException ) {
+                    throw (RuntimeException)cause;
+                }
+                if( cause instanceof Error ) {
+                    throw (Error)cause;
+                }
+                throw new ExcelParserException( cause );
+            }
+        }
+    }
+
+    /** Waits for the value loaded by another thread. The token of the task of the current thread is checked periodically.
+     * @param loading load in progress.
+     * @return the value.
+     * @throws ExecutionException if loading failed.
+     * @throws ExcelParserCancelledException if the task of the current thread was cancelled.
+     * @throws ExcelParserException if the current thread was interrupted.
+     */
+    private V await( CompletableFuture<V> loading ) throws ExecutionException {
+        while( true ) {
+            CancellationToken.checkCurrent();
+            try {
+                return loading.get( WAIT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS );
+            } catch( TimeoutException ex ) {
+                // still loading
+            } catch( InterruptedException ex ) {
+                Thread.currentThread().interrupt();
+                throw new ExcelParserException( ex );
+            }
+        }
+    }
+
+    /** Returns the value, if it is already loaded.
+     * @return the value or null, if it is not loaded yet or loading is still in progress.
+     */
+    V getIfLoaded() {
+        CompletableFuture<V> current = future.get();
+        return current != null && current.isDone() && !current.isCompletedExceptionally() ? current.join() : null;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Budget for heap memory of large structures of parsers, e.g. the shared strings table. Every parser has its own budget, which is
+ * bounded by the budget of the JVM ({@link #global()}). A structure, which does not fit into the budget anymore, is spilled to a
+ * temporary file instead of failing. Usage of a budget is observable by {@link #getUsedBytes()} and {@link #getSpillCount()}.
+ */
+public final class MemoryBudget {
+
+    private static final MemoryBudget GLOBAL     = new MemoryBudget( null, Runtime.getRuntime().maxMemory() / 4 );
+
+    private final MemoryBudget        parent;
+    private final AtomicLong          usedBytes  = new AtomicLong();
+    private final AtomicLong          spillCount = new AtomicLong();
+    private volatile long             limit;
+
+    /** Creates budget.
+     * @param parent budget, which bounds this budget, or null.
+     * @param limit maximum number of bytes, which may be reserved.
+     * @throws IllegalArgumentException if limit is negative.
+     */
+    MemoryBudget( MemoryBudget parent, long limit ) {
+        this.parent = parent;
+        setLimit( limit );
+    }
+
+    /** Returns budget of the JVM, which bounds the budgets of all parsers. Its default limit is a quarter of the maximum heap size.
+     * @return budget of the JVM.
+     */
+    public static MemoryBudget global() {
+        return GLOBAL;
+    }
+
+    /** Returns maximum number of bytes, which may be reserved.
+     * @return maximum number of bytes, which may be reserved.
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /** Sets maximum number of bytes, which may be reserved. Bytes, which are already reserved, are not affected.
+     * @param limit maximum number of bytes, which may be reserved.
+     * @throws IllegalArgumentException if limit is negative.
+     */
+    public void setLimit( long limit ) {
+        if( limit < 0 ) {
+            throw new IllegalArgumentException( "limit must not be negative" );
+        }
+        this.limit = limit;
+    }
+
+    /** Returns number of bytes, which are currently reserved.
+     * @return number of reserved bytes.
+     */
+    public long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    /** Returns number of structures, which were spilled to temporary files, because they did not fit into this budget.
+     * @return number of spilled structures.
+     */
+    public long getSpillCount() {
+        return spillCount.get();
+    }
+
+    /** Reserves specified number of bytes, if neither this budget nor its parent is exceeded by it.
+     * @param bytes number of bytes to reserve.
+     * @return whether bytes were reserved.
+     */
+    boolean tryReserve( long bytes ) {
+        long current;
+        do {
+            current = usedBytes.get();
+            if( current + bytes > limit ) {
+                return false;
+            }
+        } while( !usedBytes.compareAndSet( current, current + bytes ) );
+        if( parent != null && !parent.tryReserve( bytes ) ) {
+            usedBytes.addAndGet( -bytes );
+            return false;
+        }
+        return true;
+    }
+
+    /** Releases specified number of reserved bytes.
+     * @param bytes number of bytes to release.
+     */
+    void release( long bytes ) {
+        usedBytes.addAndGet( -bytes );
+        if( parent != null ) {
+            parent.release( bytes );
+        }
+    }
+
+    /** Releases all reserved bytes, e.g. when the parser is not used anymore.
+     */
+    public void releaseAll() {
+        long bytes = usedBytes.getAndSet( 0 );
+        if( parent != null && bytes != 0 ) {
+            parent.release( bytes );
+        }
+    }
+
+    /** Records that a structure was spilled to a temporary file, in this budget and its parent.
+     */
+    void recordSpill() {
+        spillCount.incrementAndGet();
+        if( parent != null ) {
+            parent.recordSpill();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.math.BigInteger;
+
+/** Parser for the text of numeric cells. Excel writes numbers as plain decimals with at most 17 significant digits, e.g. "42", "-0.125"
+ * or "1.2345678901234501E-5". The digits of such a text are collected as integer significand with a decimal exponent and converted
+ * without the general algorithm of {@link Double#parseDouble(String)}:
+ * <ul>
+ * <li>if the significand is at most 2^53 and the exponent does not exceed 22, both are exactly representable as double, so a single
+ * multiplication or division yields the correctly rounded result (Clinger's fast path).</li>
+ * <li>otherwise the significand is multiplied by a 128-bit approximation of the power of ten and the result is rounded, if the
+ * truncated bits of the product can not change the rounding (Eisel-Lemire algorithm).</li>
+ * </ul>
+ * Texts with more than 18 significant digits, results which are subnormal or infinite, and products which are too close to the halfway
+ * point between two doubles are passed to {@link Double#parseDouble(String)}, as well as any other text. So the results are always identical.
+ * Integers are also available as long by {@link #parseLong(String)}, without a conversion to double.
+ */
+final class NumberParser {
+
+    /** Result of {@link #parseLong(String)} for texts, which are not integers of at most 18 digits. No such text has this value. */
+    static final long             NOT_A_LONG             = Long.MIN_VALUE;
+
+    private static final long     MAX_EXACT_SIGNIFICAND  = 1L << 53;
+
+    private static final int      MAX_SIGNIFICANT_DIGITS = 18;   // fits into a long
+
+    private static final double[] POWERS_OF_TEN          = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15,
+                                                             1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    /** Smallest decimal exponent of the table of 128-bit powers of ten. Smaller exponents yield zero for any significand. */
+    private static final int      MIN_EXPONENT           = -348;
+
+    /** Largest decimal exponent of the table of 128-bit powers of ten. Larger exponents yield infinity for any significand. */
+    private static final int      MAX_EXPONENT           = 347;
+
+    // upper and lower 64 bits of the powers of ten, normalized so that the highest bit is set, truncated to 128 bits and rounded up if negative
+    private static final long[]   POWERS_OF_TEN_HIGH     = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+    private static final long[]   POWERS_OF_TEN_LOW      = new long[MAX_EXPONENT - MIN_EXPONENT + 1];
+
+    static {
+        // computed once instead of a table with 1392 literals
+        for( int exponent = MIN_EXPONENT; exponent <= MAX_EXPONENT; exponent++ ) {
+            BigInteger power = BigInteger.TEN.pow( Math.abs( exponent ) );
+            BigInteger normalized;
+            if( exponent >= 0 ) {
+                int shift = power.bitLength() - 128;
+                normalized = shift >= 0 ? power.shiftRight( shift ) : power.shiftLeft( -shift );
+            } else {
+                normalized = BigInteger.ONE.shiftLeft( 127 + power.bitLength() ).divide( power ).add( BigInteger.ONE ); // rounded up
+            }
+            POWERS_OF_TEN_HIGH[exponent - MIN_EXPONENT] = normalized.shiftRight( 64 ).longValue();
+            POWERS_OF_TEN_LOW[exponent - MIN_EXPONENT] = normalized.longValue();
+        }
+    }
+
+    /** No instances.
+     */
+    private NumberParser() {
+    }
+
+    /** Parses specified text like {@link Double#parseDouble(String)}.
+     * @param text text of a numeric cell.
+     * @return parsed value.
+     * @throws NumberFormatException if text is not a number.
+     * @throws NullPointerException if text is null.
+     */
+    static double parseDouble( String text ) {
+        int length = text.length();
+        int index = 0;
+        boolean negative = false;
+        if( length > 0 && (text.charAt( 0 ) == '-' || text.charAt( 0 ) == '+') ) {
+            negative = text.charAt( 0 ) == '-';
+            index++;
+        }
+
+        long significand = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for( ; index < length; index++ ) {
+            char ch = text.charAt( index );
+            if( ch >= '0' && ch <= '9' ) {
+                digits++;
+                if( significand == 0 && ch == '0' ) {
+                    if( fraction ) {
+                        exponent--; // leading zero of the fraction
+                    }
+                    continue;
+                }
+                if( ++significantDigits > MAX_SIGNIFICANT_DIGITS ) {
+                    return Double.parseDouble( text );
+                }
+                significand = significand * 10 + (ch - '0');
+                if( fraction ) {
+                    exponent--;
+                }
+            } else if( ch == '.' && !fraction ) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+        if( digits == 0 ) {
+            return Double.parseDouble( text );
+        }
+
+        if( index < length ) {
+            char ch = text.charAt( index );
+            if( ch != 'e' && ch != 'E' ) {
+                return Double.parseDouble( text ); // whitespace, type suffix or invalid character
+            }
+            index++;
+            boolean negativeExponent = false;
+            if( index < length && (text.charAt( index ) == '-' || text.charAt( index ) == '+') ) {
+                negativeExponent = text.charAt( index ) == '-';
+                index++;
+            }
+            int exponentDigits = 0;
+            int explicitExponent = 0;
+            for( ; index < length; index++ ) {
+                ch = text.charAt( index );
+                if( ch < '0' || ch > '9' || ++exponentDigits > 4 ) {
+                    return Double.parseDouble( text );
+                }
+                explicitExponent = explicitExponent * 10 + (ch - '0');
+            }
+            if( exponentDigits == 0 ) {
+                return Double.parseDouble( text );
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+
+        if( significand == 0 ) {
+            return negative ? -0.0 : 0.0;
+        }
+        if( significand <= MAX_EXACT_SIGNIFICAND && exponent >= -22 && exponent <= 22 ) {
+            double value = significand;
+            value = exponent < 0 ? value / POWERS_OF_TEN[-exponent] : value * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        double value = eiselLemire( significand, exponent, negative );
+        return Double.isNaN( value ) ? Double.parseDouble( text ) : value;
+    }
+
+    /** Converts decimal significand and exponent to the nearest double by the Eisel-Lemire algorithm.
+     * @param significand decimal significand, greater than zero.
+     * @param exponent decimal exponent.
+     * @param negative whether the value is negative.
+     * @return the correctly rounded value or NaN, if the result is subnormal or infinite, or if it can not be decided with 128 bits
+     * of the power of ten in which direction the value is rounded.
+     */
+    static double eiselLemire( long significand, int exponent, boolean negative ) {
+        if( exponent < MIN_EXPONENT || exponent > MAX_EXPONENT ) {
+            return Double.NaN;
+        }
+        int leadingZeros = Long.numberOfLeadingZeros( significand );
+        long normalized = significand << leadingZeros;
+        // binary exponent: floor(exponent * log2(10)) + 64 + bias of double
+        long binaryExponent = ((217706L * exponent) >> 16) + 64 + 1023 - leadingZeros;
+
+        int index = exponent - MIN_EXPONENT;
+        long high = unsignedMultiplyHigh( normalized, POWERS_OF_TEN_HIGH[index] );
+        long low = normalized * POWERS_OF_TEN_HIGH[index];
+        if( (high & 0x1FF) == 0x1FF && Long.compareUnsigned( low + normalized, normalized ) < 0 ) {
+            // truncated bits may carry into the bits, which decide the rounding, so the lower half of the power is taken into account
+            long lowerHigh = unsignedMultiplyHigh( normalized, POWERS_OF_TEN_LOW[index] );
+            long lowerLow = normalized * POWERS_OF_TEN_LOW[index];
+            long mergedHigh = high;
+            long mergedLow = low + lowerHigh;
+            if( Long.compareUnsigned( mergedLow, low ) < 0 ) {
+                mergedHigh++;
+            }
+            if( (mergedHigh & 0x1FF) == 0x1FF && mergedLow == -1 && Long.compareUnsigned( lowerLow + normalized, normalized ) < 0 ) {
+                return Double.NaN;
+            }
+            high = mergedHigh;
+            low = mergedLow;
+        }
+
+        // 54 bits of the product, the lowest one decides the rounding
+        long msb = high >>> 63;
+        long mantissa = high >>> (msb + 9);
+        binaryExponent -= 1 ^ msb;
+        if( low == 0 && (high & 0x1FF) == 0 && (mantissa & 3) == 1 ) {
+            return Double.NaN; // exactly halfway according to the approximation, so rounding to even can not be decided
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if( (mantissa >>> 53) > 0 ) {
+            mantissa >>>= 1;
+            binaryExponent++;
+        }
+        if( binaryExponent <= 0 || binaryExponent >= 0x7FF ) {
+            return Double.NaN; // subnormal or infinite
+        }
+        long bits = (binaryExponent << 52) | (mantissa & 0x000FFFFFFFFFFFFFL);
+        return Double.longBitsToDouble( negative ? bits | Long.MIN_VALUE : bits );
+    }
+
+    /** Returns the upper 64 bits of the unsigned 128-bit product of specified values.
+     * @param x first unsigned factor.
+     * @param y second unsigned factor.
+     * @return upper 64 bits of the product.
+     */
+    private static long unsignedMultiplyHigh( long x, long y ) {
+        return Math.multiplyHigh( x, y ) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /** Parses specified text exactly as long, if it is an integer, which consists of an optional sign and at most 18 digits, e.g. "42".
+     * Such a text is never converted to double, so integers beyond 2^53 keep all digits.
+     * @param text text of a numeric cell.
+     * @return parsed value or {@link #NOT_A_LONG}, if text is no such integer, e.g. "1.5" or "1E3".
+     * @throws NullPointerException if text is null.
+     */
+    static long parseLong( String text ) {
+        int length = text.length();
+        int index = 0;
+        boolean negative = false;
+        if( length > 0 && (text.charAt( 0 ) == '-' || text.charAt( 0 ) == '+') ) {
+            negative = text.charAt( 0 ) == '-';
+            index++;
+        }
+        if( index == length || length - index > MAX_SIGNIFICANT_DIGITS ) {
+            return NOT_A_LONG;
+        }
+        long value = 0;
+        for( ; index < length; index++ ) {
+            char ch = text.charAt( index );
+            if( ch < '0' || ch > '9' ) {
+                return NOT_A_LONG;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    /** Parses specified text of a numeric cell.
+     * @param text text of a numeric cell.
+     * @return parsed value or null, if text is null or not a number.
+     */
+    static Double parse( String text ) {
+        if( text == null ) {
+            return null;
+        }
+        try {
+            return Double.valueOf( parseDouble( text ) );
+        } catch( NumberFormatException ex ) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import com.inet.excel.parser.ExcelStatistics.Phase;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/** Java Flight Recorder event for a phase of reading an Excel document, e.g. loading the shared strings or reading rows of a sheet.
+ * The event of the innermost phase of the current thread collects the uncompressed bytes read from the document. If the event is
+ * disabled, no event is created at all.
+ */
+@Name( "com.inet.excel.ParsePhase" )
+@Label( "Excel Parse Phase" )
+@Category( { "i-net Excel" } )
+@Description( "Phase of reading an Excel document" )
+final class ParsePhaseEvent extends Event {
+
+    private static final ThreadLocal<ParsePhaseEvent> CURRENT = new ThreadLocal<>();
+
+    @Label( "File Name" )
+    String                  fileName;
+
+    @Label( "Sheet Name" )
+    String                  sheetName;
+
+    @Label( "Phase" )
+    String                  phase;
+
+    @Label( "First Row" )
+    @Description( "Index of the first requested row in the sheet, in case of reading rows" )
+    int                     firstRow;
+
+    @Label( "Last Row" )
+    @Description( "Index of the last requested row in the sheet, in case of reading rows" )
+    int                     lastRow;
+
+    @Label( "Bytes Inflated" )
+    @Description( "Uncompressed bytes read from the document, excluding nested phases" )
+    @DataAmount
+    long                    bytesInflated;
+
+    @Label( "Row Count" )
+    @Description( "Number of decoded rows with values, in case of reading rows" )
+    long                    rowCount;
+
+    private transient ParsePhaseEvent outer;
+
+    /** Begins event for specified phase, if the event is enabled.
+     * @param phase the phase.
+     * @param fileName file name of the Excel document.
+     * @param sheetName name of the sheet or null, if phase does not belong to a sheet.
+     * @return begun event or null, if the event is disabled.
+     */
+    static ParsePhaseEvent begin( Phase phase, String fileName, String sheetName ) {
+        ParsePhaseEvent event = new ParsePhaseEvent();
+        if( !event.isEnabled() ) {
+            return null;
+        }
+        event.phase = phase.getLabel();
+        event.fileName = fileName;
+        event.sheetName = sheetName;
+        event.outer = CURRENT.get();
+        CURRENT.set( event );
+        event.begin();
+        return event;
+    }
+
+    /** Ends specified event and commits it, if it exceeds the threshold of the recording.
+     * @param event event returned by {@link #begin(Phase, String, String)} or null.
+     */
+    static void end( ParsePhaseEvent event ) {
+        if( event == null ) {
+            return;
+        }
+        event.end();
+        if( event.outer != null ) {
+            CURRENT.set( event.outer );
+        } else {
+            CURRENT.remove();
+        }
+        if( event.shouldCommit() ) {
+            event.commit();
+        }
+    }
+
+    /** Adds uncompressed bytes to the event of the innermost phase of the current thread.
+     * @param bytes number of bytes read.
+     */
+    static void addBytesInflated( long bytes ) {
+        ParsePhaseEvent event = CURRENT.get();
+        if( event != null ) {
+            event.bytesInflated += bytes;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+/** Ways to determine the number of rows of a sheet, see {@link ExcelParser#setRowCountMode(RowCountMode)}.
+ */
+public enum RowCountMode {
+    /** Takes the last row of the dimension of the sheet, if the document was written by an application known to write reliable dimensions.
+     * Otherwise the rows of the sheet are scanned. Dimensions within the used range scan limit (see {@link ExcelParser#setUsedRangeScanLimit(int)})
+     * are trimmed to the last row with values. Larger dimensions are taken as they are, so that trailing rows, which are only formatted,
+     * are counted and returned as rows, whose values are all null. */
+    DIMENSION,
+    /** Always scans the rows of the sheet. Trailing rows without values are not counted. */
+    SCAN,
+    /** Like {@link #DIMENSION}, but additionally scans the rows and fails, if the row count differs from the scanned one, i.e. if the dimension
+     * misses rows with values or includes trailing rows without values. Intended for tests. */
+    VERIFY
+}
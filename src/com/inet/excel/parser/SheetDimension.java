@@ -19,15 +19,35 @@ package com.inet.excel.parser;
  */
 public class SheetDimension {
 
+    /** Index of the last column of a sheet supported by Excel ("XFD"). */
+    public static final int MAX_COLUMN_INDEX = 16384;
+
+    /** Index of the last row of a sheet supported by Excel. */
+    public static final int MAX_ROW_INDEX    = 1048576;
+
     private final int firstColumnIndex;
     private final int lastColumnIndex;
+    private final int firstRowIndex;
+    private final int lastRowIndex;
 
-    /** Creates new immutable container for information about dimension of Excel sheet.
+    /** Creates new immutable container for information about dimension of Excel sheet, which does not include row indexes.
      * @param firstColumnIndex index of first column in sheet (inclusive). Minimum value is 1.
      * @param lastColumnIndex index of last column in sheet (inclusive). Minimum value is 1.
      * @throws IllegalArgumentException if one of specified indexes is smaller than 1; if first index is greater than last index.
      */
     public SheetDimension( int firstColumnIndex, int lastColumnIndex ) {
+        this( firstColumnIndex, lastColumnIndex, 0, 0 );
+    }
+
+    /** Creates new immutable container for information about dimension of Excel sheet.
+     * @param firstColumnIndex index of first column in sheet (inclusive). Minimum value is 1.
+     * @param lastColumnIndex index of last column in sheet (inclusive). Minimum value is 1.
+     * @param firstRowIndex index of first row in sheet (inclusive) or 0, if unknown.
+     * @param lastRowIndex index of last row in sheet (inclusive) or 0, if unknown.
+     * @throws IllegalArgumentException if one of specified column indexes is smaller than 1; if first index is greater than last index;
+     * if row indexes are negative or only one of them is known.
+     */
+    public SheetDimension( int firstColumnIndex, int lastColumnIndex, int firstRowIndex, int lastRowIndex ) {
         if( firstColumnIndex < 1 ) {
             throw new IllegalArgumentException( "firstColumnIndex must be greater than zero" );
         }
@@ -37,8 +57,16 @@ public class SheetDimension {
         if( firstColumnIndex > lastColumnIndex ) {
             throw new IllegalArgumentException( "firstColumnIndex  must be smaller than or equal to lastColumnIndex" );
         }
+        if( firstRowIndex < 0 || lastRowIndex < 0 || (firstRowIndex == 0) != (lastRowIndex == 0) ) {
+            throw new IllegalArgumentException( "row indexes must be both greater than zero or both zero" );
+        }
+        if( firstRowIndex > lastRowIndex ) {
+            throw new IllegalArgumentException( "firstRowIndex  must be smaller than or equal to lastRowIndex" );
+        }
         this.firstColumnIndex = firstColumnIndex;
         this.lastColumnIndex = lastColumnIndex;
+        this.firstRowIndex = firstRowIndex;
+        this.lastRowIndex = lastRowIndex;
     }
 
     /** Returns instance representing information about dimension of excel sheet retrieved from provided reference.
@@ -56,14 +84,20 @@ public class SheetDimension {
                 if( index == 0 ) {
                     return null;
                 }
-                return new SheetDimension( index, index );
+                int row = getRowIndexFromCellRef( range[0] );
+                return new SheetDimension( index, index, row, row );
             } else if( range.length == 2 ) {
                 int first = getColumnIndexFromCellRef( range[0] );
                 int last = getColumnIndexFromCellRef( range[1] );
                 if( first == 0 || last == 0 ) {
                     return null;
                 }
-                return new SheetDimension( first, last );
+                int firstRow = getRowIndexFromCellRef( range[0] );
+                int lastRow = getRowIndexFromCellRef( range[1] );
+                if( firstRow == 0 || lastRow == 0 || firstRow > lastRow ) {
+                    return new SheetDimension( first, last );
+                }
+                return new SheetDimension( first, last, firstRow, lastRow );
             } else {
                 return null; // ignores data if invalid
             }
@@ -92,6 +126,36 @@ public class SheetDimension {
         return result;
     }
 
+    /** Returns index of row from specified cell reference. In case of invalid cell reference or reference without row, it will return zero.
+     * Examples: "A1" returns 1, "BB44" returns 44, "A" returns 0.
+     * @param cellRef cell reference to retrieve row index from.
+     * @return row index, starting from 1 (inclusive). In case of invalid cell reference, zero.
+     */
+    public static int getRowIndexFromCellRef( String cellRef ) {
+        if( cellRef == null ) {
+            return 0;
+        }
+        int index = 0;
+        while( index < cellRef.length() && cellRef.charAt( index ) >= 'A' && cellRef.charAt( index ) <= 'Z' ) {
+            index++;
+        }
+        if( index == 0 || index == cellRef.length() ) {
+            return 0;
+        }
+        long result = 0;
+        for( ; index < cellRef.length(); index++ ) {
+            char c = cellRef.charAt( index );
+            if( c < '0' || c > '9' ) {
+                return 0;
+            }
+            result = result * 10 + (c - '0');
+            if( result > Integer.MAX_VALUE ) {
+                return 0;
+            }
+        }
+        return (int)result;
+    }
+
     /** Returns index of first column in sheet (inclusive). Minimum value is 1.
      * @return index of first column in sheet.
      */
@@ -105,4 +169,26 @@ public class SheetDimension {
     public int getLastColumnIndex() {
         return lastColumnIndex;
     }
+
+    /** Returns index of first row in sheet (inclusive), as declared by the sheet.
+     * @return index of first row in sheet or 0, if unknown.
+     */
+    public int getFirstRowIndex() {
+        return firstRowIndex;
+    }
+
+    /** Returns index of last row in sheet (inclusive), as declared by the sheet.
+     * @return index of last row in sheet or 0, if unknown.
+     */
+    public int getLastRowIndex() {
+        return lastRowIndex;
+    }
+
+    /** Returns whether the dimension extends to the last column or the last row supported by Excel, e.g. "A1:XFD1048576".
+     * Such dimensions are written for sheets with formatted whole rows or columns and do not reflect the range containing values.
+     * @return whether the dimension extends to the limits of a sheet.
+     */
+    public boolean reachesSheetLimits() {
+        return lastColumnIndex >= MAX_COLUMN_INDEX || lastRowIndex >= MAX_ROW_INDEX;
+    }
 }
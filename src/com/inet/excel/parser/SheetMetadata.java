@@ -0,0 +1,79 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.util.Collections;
+import java.util.List;
+
+/** Immutable description of a sheet: its name, column names, column types and statistics of the column values.
+ */
+public final class SheetMetadata {
+
+    private final String          sheetName;
+    private final List<String>    columnNames;
+    private final List<ValueType> columnTypes;
+    private final List<ColumnStatistics> columnStatistics;
+
+    /** Creates description of a sheet.
+     * @param sheetName name of the sheet.
+     * @param columnNames names of the columns.
+     * @param columnTypes types of the columns, in same order as column names.
+     */
+    SheetMetadata( String sheetName, List<String> columnNames, List<ValueType> columnTypes ) {
+        this( sheetName, columnNames, columnTypes, Collections.nCopies( columnNames.size(), ColumnStatistics.UNKNOWN ) );
+    }
+
+    /** Creates description of a sheet.
+     * @param sheetName name of the sheet.
+     * @param columnNames names of the columns.
+     * @param columnTypes types of the columns, in same order as column names.
+     * @param columnStatistics statistics of the columns, in same order as column names.
+     */
+    SheetMetadata( String sheetName, List<String> columnNames, List<ValueType> columnTypes, List<ColumnStatistics> columnStatistics ) {
+        this.sheetName = sheetName;
+        this.columnNames = Collections.unmodifiableList( columnNames );
+        this.columnTypes = Collections.unmodifiableList( columnTypes );
+        this.columnStatistics = Collections.unmodifiableList( columnStatistics );
+    }
+
+    /** Returns name of the sheet.
+     * @return name of the sheet.
+     */
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /** Returns names of the columns.
+     * @return unmodifiable list of column names.
+     */
+    public List<String> getColumnNames() {
+        return columnNames;
+    }
+
+    /** Returns types of the columns, in same order as column names.
+     * @return unmodifiable list of column types.
+     */
+    public List<ValueType> getColumnTypes() {
+        return columnTypes;
+    }
+
+    /** Returns statistics of the values of the columns: maximum length, precision and scale.
+     * @return unmodifiable list of column statistics, in same order as column names.
+     */
+    public List<ColumnStatistics> getColumnStatistics() {
+        return columnStatistics;
+    }
+}
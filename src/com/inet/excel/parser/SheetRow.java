@@ -0,0 +1,127 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/** Row of a sheet as returned by {@link ExcelParser#getRows(String, int, int)}. Numeric cells are stored with their text as written in the
+ * document, without a wrapper per cell. They are parsed on first access by {@link #get(int)}, which remembers the parsed value, while
+ * {@link #getText(int)} returns the text without parsing it and {@link #getNumber(int)} returns integers exactly.
+ */
+public abstract class SheetRow extends AbstractList<Object> implements RandomAccess {
+
+    /** Kind of a stored value, which is returned as it is. */
+    static final byte      VALUE          = 0;
+
+    /** Kind of a stored value, which is the text of a number. If it can not be parsed, the value of the cell is null. */
+    static final byte      NUMBER         = 1;
+
+    /** Kind of a stored value, which is the text of a number. If it can not be parsed, the text is the value of the cell. */
+    static final byte      NUMBER_OR_TEXT = 2;
+
+    private final Object[] values;
+    private final byte[]   kinds;
+    private Object[]       numbers;
+
+    /** Creates row.
+     * @param values stored values. The array is taken over.
+     * @param kinds kinds of the stored values, in same order as the values, or null, if all of them are of kind {@link #VALUE}.
+     */
+    SheetRow( Object[] values, byte[] kinds ) {
+        this.values = values;
+        this.kinds = kinds;
+    }
+
+    /** Returns position of the stored value of specified column.
+     * @param index index of the column, starting with 0.
+     * @return position in the stored values or -1, if the column has no value.
+     * @throws IndexOutOfBoundsException if index is not a valid column index.
+     */
+    abstract int getPosition( int index );
+
+    /** Returns number of stored values.
+     * @return number of stored values.
+     */
+    int getStoredValueCount() {
+        return values.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Object get( int index ) {
+        int position = getPosition( index );
+        if( position < 0 ) {
+            return null;
+        }
+        Object value = values[position];
+        if( kinds == null || kinds[position] == VALUE || value == null ) {
+            return value;
+        }
+        Object[] numbers = this.numbers;
+        if( numbers == null ) {
+            numbers = new Object[values.length];
+            this.numbers = numbers;
+        }
+        Object number = numbers[position];
+        if( number == null ) {
+            number = NumberParser.parse( (String)value );
+            if( number == null ) {
+                return kinds[position] == NUMBER_OR_TEXT ? value : null;
+            }
+            numbers[position] = number; // NOTE: concurrent accesses may parse more than once, but yield equal values
+        }
+        return number;
+    }
+
+    /** Returns value of specified column as number. Numeric cells with an integer text of at most 18 digits return the exact value as
+     * {@link Long}, which is not converted to double and therefore keeps all digits. Other cells return the value of {@link #get(int)}.
+     * @param index index of the column, starting with 0.
+     * @return value of the column or null, if the column has no value.
+     * @throws IndexOutOfBoundsException if index is not a valid column index.
+     * @throws ClassCastException if the value is not a number.
+     */
+    public Number getNumber( int index ) {
+        int position = getPosition( index );
+        if( position >= 0 && kinds != null && kinds[position] != VALUE && values[position] != null ) {
+            long value = NumberParser.parseLong( (String)values[position] );
+            if( value != NumberParser.NOT_A_LONG ) {
+                return Long.valueOf( value );
+            }
+        }
+        return (Number)get( index );
+    }
+
+    /** Returns value of specified column as text. Numeric cells return their text as written in the document. Only the text of a cell
+     * of kind {@link #NUMBER} is parsed, because the cell is null like in {@link #get(int)}, if its text is not a number.
+     * @param index index of the column, starting with 0.
+     * @return text of the value or null, if the column has no value.
+     * @throws IndexOutOfBoundsException if index is not a valid column index.
+     */
+    public String getText( int index ) {
+        int position = getPosition( index );
+        if( position < 0 ) {
+            return null;
+        }
+        Object value = values[position];
+        if( value == null || (kinds != null && kinds[position] == NUMBER && get( index ) == null) ) {
+            return null;
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.util.Arrays;
+import java.util.List;
+
+/** Immutable row of a sheet, which stores only its non-null values together with their column indexes. It is used for rows with only
+ * a small fraction of populated cells, so that memory scales with the number of values instead of the width of the sheet.
+ * Access to a value takes O(log k), where k is the number of values of the row. Numeric values are parsed on first access, see {@link SheetRow}.
+ */
+final class SparseRow extends SheetRow {
+
+    /** Minimum number of columns, for which a sparse row is created. */
+    static final int       MIN_COLUMN_COUNT = 16;
+
+    /** Maximum ratio of populated cells, for which a sparse row is created. */
+    static final double    MAX_FILL_RATIO   = 0.25;
+
+    private static final int[]    NO_INDEXES = new int[0];
+    private static final Object[] NO_VALUES  = new Object[0];
+
+    private final int      size;
+    private final int[]    columnIndexes;
+
+    /** Creates sparse row.
+     * @param size number of columns of the row.
+     * @param columnIndexes strictly ascending indexes (zero-based) of populated columns.
+     * @param values values of populated columns, in same order as column indexes.
+     * @param kinds kinds of the values, see {@link SheetRow#NUMBER}, or null, if there are no numbers to parse.
+     */
+    private SparseRow( int size, int[] columnIndexes, Object[] values, byte[] kinds ) {
+        super( values, kinds );
+        this.size = size;
+        this.columnIndexes = columnIndexes;
+    }
+
+    /** Returns row without any values.
+     * @param columnCount number of columns of the row.
+     * @return row, whose values are all null.
+     */
+    static List<Object> empty( int columnCount ) {
+        return new SparseRow( columnCount, NO_INDEXES, NO_VALUES, null );
+    }
+
+    /** Returns row with specified values. If the ratio of populated cells is low, a sparse row is returned, otherwise a dense one.
+     * @param columnCount number of columns of the row.
+     * @param columnIndexes indexes (zero-based) of populated columns. Only the first valueCount elements are used.
+     * @param values values of populated columns, in same order as column indexes. Only the first valueCount elements are used.
+     * @param valueCount number of populated columns.
+     * @return row with specified values.
+     */
+    static List<Object> of( int columnCount, int[] columnIndexes, Object[] values, int valueCount ) {
+        return of( columnCount, columnIndexes, values, null, valueCount );
+    }
+
+    /** Returns row with specified values. If the ratio of populated cells is low, a sparse row is returned, otherwise a dense one.
+     * @param columnCount number of columns of the row.
+     * @param columnIndexes indexes (zero-based) of populated columns. Only the first valueCount elements are used.
+     * @param values values of populated columns, in same order as column indexes. Only the first valueCount elements are used.
+     * @param kinds kinds of the values, see {@link SheetRow#NUMBER}, in same order as column indexes, or null, if there are no numbers
+     * to parse. Only the first valueCount elements are used.
+     * @param valueCount number of populated columns.
+     * @return row with specified values.
+     */
+    static List<Object> of( int columnCount, int[] columnIndexes, Object[] values, byte[] kinds, int valueCount ) {
+        boolean ascending = true;
+        for( int i = 1; i < valueCount && ascending; i++ ) {
+            ascending = columnIndexes[i - 1] < columnIndexes[i];
+        }
+        if( ascending && columnCount >= MIN_COLUMN_COUNT && valueCount <= columnCount * MAX_FILL_RATIO ) {
+            return new SparseRow( columnCount, Arrays.copyOf( columnIndexes, valueCount ), Arrays.copyOf( values, valueCount ), kinds == null ? null : Arrays.copyOf( kinds, valueCount ) );
+        }
+        Object[] row = new Object[columnCount];
+        byte[] rowKinds = kinds == null ? null : new byte[columnCount];
+        for( int i = 0; i < valueCount; i++ ) {
+            row[columnIndexes[i]] = values[i];
+            if( rowKinds != null ) {
+                rowKinds[columnIndexes[i]] = kinds[i];
+            }
+        }
+        return new DenseRow( row, rowKinds );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    int getPosition( int index ) {
+        if( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+        }
+        int position = Arrays.binarySearch( columnIndexes, index );
+        return position < 0 ? -1 : position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Returns number of populated cells of the row.
+     * @return number of populated cells of the row.
+     */
+    int getValueCount() {
+        return getStoredValueCount();
+    }
+}
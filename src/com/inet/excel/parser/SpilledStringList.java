@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/** Immutable list of strings, which are stored UTF-8 encoded in a memory-mapped temporary file instead of the heap.
+ * Only the offsets of the strings are kept on the heap. Every access decodes the string once more.
+ */
+final class SpilledStringList extends AbstractList<String> implements RandomAccess {
+
+    private static final int          SEGMENT_SIZE = 1 << 30;
+
+    private final MappedByteBuffer[]  segments;
+    private final long[]              offsets;
+    private final int                 size;
+
+    /** Creates list.
+     * @param segments mapped segments of the file.
+     * @param offsets start offsets of the strings, followed by the length of the file.
+     * @param size number of strings.
+     */
+    private SpilledStringList( MappedByteBuffer[] segments, long[] offsets, int size ) {
+        this.segments = segments;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String get( int index ) {
+        if( index < 0 || index >= size ) {
+            throw new IndexOutOfBoundsException( "Index: " + index + ", Size: " + size );
+        }
+        long start = offsets[index];
+        byte[] bytes = new byte[(int)(offsets[index + 1] - start)];
+        int copied = 0;
+        while( copied < bytes.length ) {
+            long position = start + copied;
+            ByteBuffer segment = segments[(int)(position / SEGMENT_SIZE)].duplicate(); // NOTE: position of a duplicate is not shared
+            segment.position( (int)(position % SEGMENT_SIZE) );
+            int count = Math.min( bytes.length - copied, segment.remaining() );
+            segment.get( bytes, copied, count );
+            copied += count;
+        }
+        return new String( bytes, StandardCharsets.UTF_8 );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** Writes strings to a temporary file, which is mapped into memory when all strings are written.
+     */
+    static class Writer {
+
+        private final Path         file;
+        private final OutputStream out;
+        private long[]             offsets = new long[1024];
+        private int                size;
+        private long               length;
+
+        /** Creates temporary file.
+         * @throws IOException if an I/O error has occurred.
+         */
+        Writer() throws IOException {
+            file = Files.createTempFile( "inetexcel", ".sst" );
+            out = new BufferedOutputStream( Files.newOutputStream( file ), 64 * 1024 );
+        }
+
+        /** Appends specified string.
+         * @param string string to append.
+         * @throws IOException if an I/O error has occurred.
+         */
+        void add( String string ) throws IOException {
+            if( size + 1 == offsets.length ) {
+                offsets = Arrays.copyOf( offsets, offsets.length * 2 );
+            }
+            byte[] bytes = string.getBytes( StandardCharsets.UTF_8 );
+            out.write( bytes );
+            offsets[size++] = length;
+            length += bytes.length;
+        }
+
+        /** Maps the written strings into memory. The temporary file is deleted right away, if the platform permits this for mapped
+         * files, otherwise on exit.
+         * @return list of the written strings.
+         * @throws IOException if an I/O error has occurred.
+         */
+        SpilledStringList finish() throws IOException {
+            out.close();
+            offsets[size] = length;
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int)((length + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            try( FileChannel channel = FileChannel.open( file, StandardOpenOption.READ ) ) {
+                for( int i = 0; i < segments.length; i++ ) {
+                    long position = (long)i * SEGMENT_SIZE;
+                    segments[i] = channel.map( FileChannel.MapMode.READ_ONLY, position, Math.min( SEGMENT_SIZE, length - position ) );
+                }
+            }
+            delete();
+            return new SpilledStringList( segments, Arrays.copyOf( offsets, size + 1 ), size );
+        }
+
+        /** Discards the written strings and deletes the temporary file.
+         */
+        void abort() {
+            try {
+                out.close();
+            } catch( IOException ex ) {
+                // file is deleted anyway
+            }
+            delete();
+        }
+
+        /** Deletes the temporary file. Only if this fails, e.g. because the platform does not permit it for mapped files, the file is
+         * registered for deletion on exit, so that the list of the JVM does not grow with every spill.
+         */
+        private void delete() {
+            try {
+                Files.deleteIfExists( file );
+            } catch( IOException ex ) {
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/** Archive reading Excel document from a non-seekable source, e.g. a pipe or a stream of an URL connection.
+ * The source is read exactly once, in order of the local file headers, when the archive is loaded. Parts which can be
+ * processed right away (styles and shared strings) are handed to the registered {@link EntryHandler}. Of the remaining
+ * parts only those needed for reading data (workbook, relationships, document properties and sheets) are retained,
+ * compressed in memory or, above the in-memory threshold, in temporary files. All other parts (themes, images, drawings, ...) are skipped.
+ */
+public class StreamArchive implements ExcelArchive {
+
+    private final long                inMemoryThreshold;
+    private final Map<String, byte[]> entriesInMemory = new HashMap<>();
+    private final Map<String, Path>   spilledEntries  = new HashMap<>();
+    private final List<Path>          tempFiles       = new ArrayList<>();
+
+    private InputStream               source;
+    private EntryHandler              entryHandler;
+    private boolean                   loaded;
+    private IOException               failure;
+    private long                      retainedBytes;
+
+    /** Creates archive for specified source. The source is not read until the archive is loaded.
+     * @param source stream providing content of Excel document. It is going to be closed once it is read.
+     * @param inMemoryThreshold maximum number of (compressed) bytes, which are retained in memory. Further parts are spilled to temporary files.
+     * @throws IllegalArgumentException if source is null.
+     */
+    public StreamArchive( InputStream source, long inMemoryThreshold ) {
+        if( source == null ) {
+            throw new IllegalArgumentException( "source must not be null" );
+        }
+        this.source = source;
+        this.inMemoryThreshold = inMemoryThreshold;
+    }
+
+    /** Sets handler, which is given the chance to process parts of the document while the source is read.
+     * @param entryHandler handler to be called for every part, which may be needed for reading data.
+     */
+    synchronized void setEntryHandler( EntryHandler entryHandler ) {
+        this.entryHandler = entryHandler;
+    }
+
+    /** Reads the source in a single pass, if it is not already read. The pass is not cancelled by the {@link CancellationToken} of the
+     * calling task, because the source can not be read again, so that a cancelled pass would break the archive for all other tasks.
+     * @throws IOException if an I/O error has occurred, now or in previous attempt to read the source.
+     */
+    synchronized void load() throws IOException {
+        if( loaded ) {
+            if( failure != null ) {
+                throw new IOException( "Excel document could not be read from stream", failure );
+            }
+            return;
+        }
+        loaded = true;
+        CancellationToken caller = CancellationToken.detachCurrent();
+        try( ZipInputStream zip = new ZipInputStream( source ) ) {
+            ZipEntry entry;
+            while( (entry = zip.getNextEntry()) != null ) {
+                String name = entry.getName();
+                if( entry.isDirectory() || !isNeeded( name ) ) {
+                    continue; // NOTE: data of the entry is skipped by next call of getNextEntry()
+                }
+                InputStream content = new FilterInputStream( zip ) {
+                    @Override
+                    public void close() {
+                        // entry is closed by getNextEntry()
+                    }
+                };
+                if( entryHandler != null && entryHandler.handle( name, content ) ) {
+                    continue;
+                }
+                retain( name, content );
+            }
+        } catch( IOException ex ) {
+            failure = ex;
+            throw ex;
+        } catch( RuntimeException ex ) {
+            failure = new IOException( ex );
+            throw ex;
+        } finally {
+            source = null;
+            CancellationToken.restoreCurrent( caller );
+        }
+    }
+
+    /** Checks whether specified part of the document may be needed for reading data.
+     * @param name name of the part.
+     * @return whether specified part of the document may be needed for reading data.
+     */
+    private static boolean isNeeded( String name ) {
+        switch( name ) {
+            case "xl/workbook.xml":
+            case "xl/_rels/workbook.xml.rels":
+            case "xl/styles.xml":
+            case "xl/sharedStrings.xml":
+            case "docProps/app.xml":
+                return true;
+            default:
+                return name.startsWith( "xl/worksheets/" ) && name.endsWith( ".xml" ) && name.indexOf( '/', "xl/worksheets/".length() ) < 0;
+        }
+    }
+
+    /** Stores compressed content of specified part in memory or in temporary file, if in-memory threshold is exceeded.
+     * @param name name of the part.
+     * @param content uncompressed content of the part.
+     * @throws IOException if an I/O error has occurred.
+     */
+    private void retain( String name, InputStream content ) throws IOException {
+        ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        OutputStream target = memory;
+        Path tempFile = null;
+
+        Deflater deflater = new Deflater( Deflater.BEST_SPEED );
+        try {
+            byte[] buffer = new byte[8192];
+            DeflaterOutputStream out = new DeflaterOutputStream( memory, deflater, 8192 );
+
+            int count;
+            while( (count = content.read( buffer )) >= 0 ) {
+                out.write( buffer, 0, count );
+                if( tempFile == null && retainedBytes + memory.size() > inMemoryThreshold ) {
+                    tempFile = Files.createTempFile( null, null );
+                    tempFiles.add( tempFile );
+                    target = Files.newOutputStream( tempFile );
+                }
+                if( target != memory ) {
+                    memory.writeTo( target );
+                    memory.reset();
+                }
+            }
+            out.finish();
+            if( target != memory ) {
+                memory.writeTo( target );
+                target.close();
+                spilledEntries.put( name, tempFile );
+            } else {
+                retainedBytes += memory.size();
+                entriesInMemory.put( name, memory.toByteArray() );
+            }
+        } catch( IOException ex ) {
+            if( target != memory ) {
+                target.close();
+            }
+            throw ex;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /** Returns number of compressed bytes retained in memory.
+     * @return number of compressed bytes retained in memory.
+     */
+    synchronized long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /** Returns number of parts, which were spilled to temporary files.
+     * @return number of parts, which were spilled to temporary files.
+     */
+    synchronized int getSpilledEntryCount() {
+        return spilledEntries.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getInputStream( String entryName ) throws IOException {
+        InputStream compressed;
+        synchronized( this ) {
+            load();
+            byte[] bytes = entriesInMemory.get( entryName );
+            Path tempFile = spilledEntries.get( entryName );
+            if( bytes != null ) {
+                compressed = new ByteArrayInputStream( bytes );
+            } else if( tempFile != null ) {
+                compressed = Files.newInputStream( tempFile );
+            } else {
+                return null;
+            }
+        }
+        Inflater inflater = new Inflater();
+        return new InflaterInputStream( compressed, inflater, 8192 ) {
+            private boolean closed;
+
+            @Override
+            public void close() throws IOException {
+                if( !closed ) {
+                    closed = true;
+                    super.close();
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if( source != null ) {
+            source.close();
+            source = null;
+        }
+        loaded = true;
+        failure = new IOException( "archive is closed" );
+        entriesInMemory.clear();
+        spilledEntries.clear();
+        for( Path tempFile : tempFiles ) {
+            Files.deleteIfExists( tempFile );
+        }
+        tempFiles.clear();
+    }
+
+    /** Handler for parts of the document, which is called while the source is read.
+     */
+    interface EntryHandler {
+
+        /** Gives the chance to process specified part of the document.
+         * @param entryName name of the part.
+         * @param content uncompressed content of the part. Must not be closed by handler.
+         * @return true, if part was processed and does not need to be retained; otherwise false.
+         * @throws IOException if an I/O error has occurred.
+         */
+        boolean handle( String entryName, InputStream content ) throws IOException;
+    }
+}
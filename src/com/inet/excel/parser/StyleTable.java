@@ -0,0 +1,60 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.util.Arrays;
+
+/** Value types of the cell styles of a document, compiled into one byte per style, so that the table stays small even for documents
+ * with tens of thousands of styles.
+ */
+final class StyleTable {
+
+    private static final ValueType[] VALUE_TYPES = ValueType.values();
+
+    private final byte[]             valueTypes;
+
+    /** Creates table for specified number of styles, which are all of type {@link ValueType#VARCHAR} until they are set.
+     * @param styleCount number of styles.
+     */
+    StyleTable( int styleCount ) {
+        this.valueTypes = new byte[styleCount];
+        Arrays.fill( valueTypes, (byte)ValueType.VARCHAR.ordinal() );
+    }
+
+    /** Sets value type of cells with specified style. It is only called while the table is compiled.
+     * @param styleIndex index of the style.
+     * @param valueType value type of cells with this style.
+     */
+    void set( int styleIndex, ValueType valueType ) {
+        valueTypes[styleIndex] = (byte)valueType.ordinal();
+    }
+
+    /** Returns value type of cells with specified style.
+     * @param styleIndex index of the style.
+     * @return value type of cells with specified style.
+     * @throws IndexOutOfBoundsException if style index is out of range.
+     */
+    ValueType get( int styleIndex ) {
+        return VALUE_TYPES[valueTypes[styleIndex]];
+    }
+
+    /** Returns number of styles.
+     * @return number of styles.
+     */
+    int size() {
+        return valueTypes.length;
+    }
+}
@@ -0,0 +1,27 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+/** Parts of Excel document, which may be parsed in advance by {@link ExcelParser#warmUp(java.util.Set, java.util.concurrent.Executor)}.
+ */
+public enum WarmUp {
+    /** Workbook with names of sheets and for every sheet its dimension, column names and column types. */
+    SHEETS,
+    /** Styles, which define value types of cells. */
+    STYLES,
+    /** Shared strings. */
+    SHARED_STRINGS
+}
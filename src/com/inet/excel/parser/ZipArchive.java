@@ -0,0 +1,341 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/** Archive, which reads Excel document (zip file) on its own, starting from the central directory at the end of the data.
+ * Subclasses only have to provide random read access to the raw bytes of the document. Only those parts of the document,
+ * which are really requested, are read and inflated.
+ */
+abstract class ZipArchive implements ExcelArchive {
+
+    private static final int  END_OF_CENTRAL_DIRECTORY_SIGNATURE       = 0x06054b50;
+    private static final int  END_OF_CENTRAL_DIRECTORY_MIN_SIZE        = 22;
+    private static final int  ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int  ZIP64_LOCATOR_SIGNATURE                  = 0x07064b50;
+    private static final int  ZIP64_LOCATOR_SIZE                       = 20;
+    private static final int  CENTRAL_DIRECTORY_ENTRY_SIGNATURE        = 0x02014b50;
+    private static final int  LOCAL_HEADER_SIGNATURE                   = 0x04034b50;
+    private static final int  LOCAL_HEADER_SIZE                        = 30;
+    private static final int  MAX_COMMENT_LENGTH                       = 0xFFFF;
+    private static final long UNSIGNED_INT_MAX                         = 0xFFFFFFFFL;
+
+    private static final int  METHOD_STORED                            = 0;
+    private static final int  METHOD_DEFLATED                          = 8;
+
+    private static final int  READ_CHUNK_SIZE                          = 64 * 1024;
+
+    private volatile Map<String, Entry> entries;
+
+    /** Returns total number of bytes of the document.
+     * @return total number of bytes of the document.
+     * @throws IOException if an I/O error has occurred.
+     */
+    protected abstract long size() throws IOException;
+
+    /** Reads specified range of raw bytes of the document.
+     * @param position position of the first byte to read.
+     * @param length number of bytes to read.
+     * @return buffer with requested bytes. Its position is 0 and its limit is equal to requested length.
+     * @throws IOException if an I/O error has occurred or the range exceeds the document.
+     */
+    protected abstract ByteBuffer read( long position, int length ) throws IOException;
+
+    /** Returns number of bytes requested at once by means of {@link #read(long, int)}, while content of an entry is streamed.
+     * @return number of bytes requested at once.
+     */
+    protected int getReadChunkSize() {
+        return READ_CHUNK_SIZE;
+    }
+
+    /** Returns stream with raw (possibly compressed) bytes from specified range of the document.
+     * Default implementation reads the range in chunks of {@link #getReadChunkSize()} bytes by means of {@link #read(long, int)}.
+     * @param position position of the first byte.
+     * @param length number of bytes.
+     * @return stream with raw bytes from specified range of the document.
+     * @throws IOException if an I/O error has occurred.
+     */
+    protected InputStream openRange( long position, long length ) throws IOException {
+        return new InputStream() {
+            private long       next      = position;
+            private final long end       = position + length;
+            private ByteBuffer buffer    = ByteBuffer.allocate( 0 );
+
+            @Override
+            public int read() throws IOException {
+                if( !fill() ) {
+                    return -1;
+                }
+                return buffer.get() & 0xFF;
+            }
+
+            @Override
+            public int read( byte[] b, int off, int len ) throws IOException {
+                if( len == 0 ) {
+                    return 0;
+                }
+                if( !fill() ) {
+                    return -1;
+                }
+                int count = Math.min( len, buffer.remaining() );
+                buffer.get( b, off, count );
+                return count;
+            }
+
+            private boolean fill() throws IOException {
+                if( buffer.hasRemaining() ) {
+                    return true;
+                }
+                if( next >= end ) {
+                    return false;
+                }
+                int count = (int)Math.min( getReadChunkSize(), end - next );
+                buffer = ZipArchive.this.read( next, count );
+                next += count;
+                return true;
+            }
+        };
+    }
+
+    /** Reads central directory of the document, if it is not already read, in order to verify that document is a valid zip file.
+     * @return this archive.
+     * @throws IOException if an I/O error has occurred.
+     * @throws ZipException if the document is not a valid zip file.
+     */
+    ZipArchive open() throws IOException {
+        getEntries();
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getInputStream( String entryName ) throws IOException {
+        Entry entry = getEntries().get( entryName );
+        if( entry == null ) {
+            return null;
+        }
+
+        ByteBuffer localHeader = read( entry.localHeaderOffset, LOCAL_HEADER_SIZE ).order( ByteOrder.LITTLE_ENDIAN );
+        if( localHeader.getInt( 0 ) != LOCAL_HEADER_SIGNATURE ) {
+            throw new ZipException( "Invalid local file header of entry " + entryName );
+        }
+        long dataOffset = entry.localHeaderOffset + LOCAL_HEADER_SIZE + getUnsignedShort( localHeader, 26 ) + getUnsignedShort( localHeader, 28 );
+
+        switch( entry.method ) {
+            case METHOD_STORED:
+                return openRange( dataOffset, entry.size );
+            case METHOD_DEFLATED:
+                // NOTE: inflater in "nowrap" mode may require an extra dummy byte after the compressed data
+                InputStream compressed = new SequenceInputStream( openRange( dataOffset, entry.compressedSize ), new InputStream() {
+                    private boolean done;
+
+                    @Override
+                    public int read() {
+                        if( done ) {
+                            return -1;
+                        }
+                        done = true;
+                        return 0;
+                    }
+                } );
+                Inflater inflater = new Inflater( true );
+                return new InflaterInputStream( compressed, inflater, 8192 ) {
+                    private boolean closed;
+
+                    @Override
+                    public void close() throws IOException {
+                        if( !closed ) {
+                            closed = true;
+                            super.close();
+                            inflater.end();
+                        }
+                    }
+                };
+            default:
+                throw new ZipException( "Unsupported compression method " + entry.method + " of entry " + entryName );
+        }
+    }
+
+    /** Returns all entries of the document, mapped by their names. Reads central directory on first call.
+     * @return all entries of the document.
+     * @throws IOException if an I/O error has occurred or the document is not a valid zip file.
+     */
+    private Map<String, Entry> getEntries() throws IOException {
+        Map<String, Entry> result = entries;
+        if( result == null ) {
+            synchronized( this ) {
+                result = entries;
+                if( result == null ) {
+                    entries = result = readCentralDirectory();
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Locates and reads central directory of the document.
+     * @return all entries of the document, mapped by their names.
+     * @throws IOException if an I/O error has occurred or the document is not a valid zip file.
+     */
+    private Map<String, Entry> readCentralDirectory() throws IOException {
+        long size = size();
+        if( size < END_OF_CENTRAL_DIRECTORY_MIN_SIZE ) {
+            throw new ZipException( "zip file is empty" );
+        }
+
+        int tailLength = (int)Math.min( size, END_OF_CENTRAL_DIRECTORY_MIN_SIZE + MAX_COMMENT_LENGTH );
+        long tailStart = size - tailLength;
+        ByteBuffer tail = read( tailStart, tailLength ).order( ByteOrder.LITTLE_ENDIAN );
+
+        int eocd = -1;
+        for( int index = tailLength - END_OF_CENTRAL_DIRECTORY_MIN_SIZE; index >= 0; index-- ) {
+            if( tail.getInt( index ) == END_OF_CENTRAL_DIRECTORY_SIGNATURE ) {
+                eocd = index;
+                break;
+            }
+        }
+        if( eocd < 0 ) {
+            throw new ZipException( "zip END header not found" );
+        }
+
+        long entryCount = getUnsignedShort( tail, eocd + 10 );
+        long directorySize = getUnsignedInt( tail, eocd + 12 );
+        long directoryOffset = getUnsignedInt( tail, eocd + 16 );
+
+        if( entryCount == 0xFFFF || directorySize == UNSIGNED_INT_MAX || directoryOffset == UNSIGNED_INT_MAX ) {
+            int locator = eocd - ZIP64_LOCATOR_SIZE;
+            if( locator >= 0 && tail.getInt( locator ) == ZIP64_LOCATOR_SIGNATURE ) {
+                long zip64RecordOffset = tail.getLong( locator + 8 );
+                ByteBuffer zip64Record = read( zip64RecordOffset, 56 ).order( ByteOrder.LITTLE_ENDIAN );
+                if( zip64Record.getInt( 0 ) != ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE ) {
+                    throw new ZipException( "invalid zip64 END header" );
+                }
+                entryCount = zip64Record.getLong( 32 );
+                directorySize = zip64Record.getLong( 40 );
+                directoryOffset = zip64Record.getLong( 48 );
+            }
+        }
+        if( directoryOffset + directorySize > size || directorySize > Integer.MAX_VALUE ) {
+            throw new ZipException( "invalid END header (bad central directory offset)" );
+        }
+
+        ByteBuffer directory = read( directoryOffset, (int)directorySize ).order( ByteOrder.LITTLE_ENDIAN );
+        Map<String, Entry> map = new HashMap<>();
+        int pos = 0;
+        for( long index = 0; index < entryCount; index++ ) {
+            if( pos + 46 > directory.limit() || directory.getInt( pos ) != CENTRAL_DIRECTORY_ENTRY_SIGNATURE ) {
+                throw new ZipException( "invalid CEN header (bad signature)" );
+            }
+            int flags = getUnsignedShort( directory, pos + 8 );
+            int method = getUnsignedShort( directory, pos + 10 );
+            long compressedSize = getUnsignedInt( directory, pos + 20 );
+            long uncompressedSize = getUnsignedInt( directory, pos + 24 );
+            int nameLength = getUnsignedShort( directory, pos + 28 );
+            int extraLength = getUnsignedShort( directory, pos + 30 );
+            int commentLength = getUnsignedShort( directory, pos + 32 );
+            long localHeaderOffset = getUnsignedInt( directory, pos + 42 );
+
+            byte[] nameBytes = new byte[nameLength];
+            directory.position( pos + 46 );
+            directory.get( nameBytes );
+            String name = new String( nameBytes, StandardCharsets.UTF_8 ); // NOTE: names of Excel parts are plain ASCII
+
+            // zip64 extended information contains only those values, which are set to 0xFFFFFFFF in the header
+            int extra = pos + 46 + nameLength;
+            int extraEnd = extra + extraLength;
+            while( extra + 4 <= extraEnd ) {
+                int headerId = getUnsignedShort( directory, extra );
+                int dataSize = getUnsignedShort( directory, extra + 2 );
+                if( headerId == 0x0001 ) {
+                    int field = extra + 4;
+                    if( uncompressedSize == UNSIGNED_INT_MAX ) {
+                        uncompressedSize = directory.getLong( field );
+                        field += 8;
+                    }
+                    if( compressedSize == UNSIGNED_INT_MAX ) {
+                        compressedSize = directory.getLong( field );
+                        field += 8;
+                    }
+                    if( localHeaderOffset == UNSIGNED_INT_MAX ) {
+                        localHeaderOffset = directory.getLong( field );
+                    }
+                    break;
+                }
+                extra += 4 + dataSize;
+            }
+
+            if( (flags & 1) == 0 ) { // NOTE: encrypted entries are not supported and therefore treated as missing
+                map.put( name, new Entry( method, compressedSize, uncompressedSize, localHeaderOffset ) );
+            }
+            pos = extraEnd + commentLength;
+        }
+        return Collections.unmodifiableMap( map );
+    }
+
+    /** Returns unsigned short value from specified position of given little-endian buffer.
+     * @param buffer buffer to read from.
+     * @param index absolute position of the value.
+     * @return unsigned short value.
+     */
+    private static int getUnsignedShort( ByteBuffer buffer, int index ) {
+        return buffer.getShort( index ) & 0xFFFF;
+    }
+
+    /** Returns unsigned int value from specified position of given little-endian buffer.
+     * @param buffer buffer to read from.
+     * @param index absolute position of the value.
+     * @return unsigned int value.
+     */
+    private static long getUnsignedInt( ByteBuffer buffer, int index ) {
+        return buffer.getInt( index ) & UNSIGNED_INT_MAX;
+    }
+
+    /** Information from central directory about single entry of zip file.
+     */
+    private static class Entry {
+        private final int  method;
+        private final long compressedSize;
+        private final long size;
+        private final long localHeaderOffset;
+
+        /** Creates container for information about single entry.
+         * @param method compression method.
+         * @param compressedSize size of compressed data.
+         * @param size size of uncompressed data.
+         * @param localHeaderOffset position of local file header.
+         */
+        private Entry( int method, long compressedSize, long size, long localHeaderOffset ) {
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/** Archive reading Excel document from file system by means of {@link ZipFile}.
+ */
+class ZipFileArchive implements ExcelArchive {
+
+    private final ZipFile zipFile;
+
+    /** Creates archive for specified zip file.
+     * @param zipFile opened zip file. It is going to be closed together with this archive.
+     */
+    ZipFileArchive( ZipFile zipFile ) {
+        this.zipFile = zipFile;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public InputStream getInputStream( String entryName ) throws IOException {
+        ZipEntry entry = zipFile.getEntry( entryName );
+        if( entry == null ) {
+            return null;
+        }
+        return zipFile.getInputStream( entry );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        zipFile.close();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import com.inet.excel.parser.HttpTestServer;
+
+public class DownloadCacheTest {
+
+    @Test
+    public void unchanged_document_is_revalidated_but_not_downloaded_again() throws IOException {
+        byte[] content = "first version".getBytes( StandardCharsets.UTF_8 );
+        try( HttpTestServer server = new HttpTestServer( content ) ) {
+            DownloadCache cache = new DownloadCache( Files.createTempDirectory( null ), Long.MAX_VALUE );
+            DownloadCache.Lease first = cache.acquire( server.getURL( "doc.xlsx" ) );
+            DownloadCache.Lease second = cache.acquire( server.getURL( "doc.xlsx" ) );
+
+            assertEquals( 2, server.getRequestCount() );
+            assertEquals( content.length, server.getTransferredBytes() );
+            assertEquals( first.getFile(), second.getFile() );
+            assertArrayEquals( content, Files.readAllBytes( first.getFile() ) );
+            assertEquals( 0, cache.getDownloadLockCount() ); // locks are not retained per URL
+
+            first.release();
+            second.release();
+            assertTrue( Files.exists( first.getFile() ) );
+        }
+    }
+
+    @Test
+    public void modified_document_is_downloaded_and_previous_version_is_deleted_when_released() throws IOException {
+        try( HttpTestServer server = new HttpTestServer( "first version".getBytes( StandardCharsets.UTF_8 ) ) ) {
+            DownloadCache cache = new DownloadCache( Files.createTempDirectory( null ), Long.MAX_VALUE );
+            DownloadCache.Lease first = cache.acquire( server.getURL( "doc.xlsx" ) );
+
+            byte[] modified = "second version".getBytes( StandardCharsets.UTF_8 );
+            server.setContent( modified );
+            DownloadCache.Lease second = cache.acquire( server.getURL( "doc.xlsx" ) );
+            assertNotEquals( first.getFile(), second.getFile() );
+            assertArrayEquals( modified, Files.readAllBytes( second.getFile() ) );
+
+            // previous version is still in use
+            Path previousFile = first.getFile();
+            assertTrue( Files.exists( previousFile ) );
+            first.release();
+            first.release();
+            assertFalse( Files.exists( previousFile ) );
+            assertEquals( modified.length, cache.getTotalSize() );
+            second.release();
+        }
+    }
+
+    @Test
+    public void unused_documents_are_evicted_if_maximum_size_is_exceeded() throws IOException {
+        byte[] content = new byte[1000];
+        try( HttpTestServer server = new HttpTestServer( content ) ) {
+            DownloadCache cache = new DownloadCache( Files.createTempDirectory( null ), 2500 );
+            DownloadCache.Lease first = cache.acquire( server.getURL( "first.xlsx" ) );
+            DownloadCache.Lease second = cache.acquire( server.getURL( "second.xlsx" ) );
+            first.release();
+            second.release();
+            assertEquals( 2000, cache.getTotalSize() );
+
+            // least recently used document is evicted
+            DownloadCache.Lease third = cache.acquire( server.getURL( "third.xlsx" ) );
+            assertFalse( Files.exists( first.getFile() ) );
+            assertTrue( Files.exists( second.getFile() ) );
+            assertEquals( 2000, cache.getTotalSize() );
+
+            // documents in use are not evicted
+            cache.setMaxSize( 0 );
+            assertFalse( Files.exists( second.getFile() ) );
+            assertTrue( Files.exists( third.getFile() ) );
+            third.release();
+            assertFalse( Files.exists( third.getFile() ) );
+            assertEquals( 0, cache.getTotalSize() );
+        }
+    }
+}
@@ -15,13 +15,21 @@
  */
 package com.inet.excel;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.ByteBuffer;
 import java.nio.file.Paths;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
 
 import org.junit.jupiter.api.Test;
 
 import com.inet.excel.parser.ExcelParser;
+import com.inet.excel.parser.TestWorkbooks;
 
 public class ExcelCallableStatementTest {
 
@@ -35,4 +43,37 @@ public class ExcelCallableStatementTest {
         ExcelParser parser = new ExcelParser( Paths.get( "zxc.xlsx" ), false );
         assertThrows( IllegalArgumentException.class, () -> new ExcelCallableStatement( parser, null ) );
     }
+
+    @Test
+    public void cancel_aborts_reading_of_further_rows() throws SQLException {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Id" ) );
+        for( int i = 2; i <= 200; i++ ) {
+            rows.append( TestWorkbooks.row( i, String.valueOf( i ) ) );
+        }
+        ExcelParser parser = new ExcelParser( "cancel.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:A200", rows ) ), true );
+        try( ExcelCallableStatement statement = new ExcelCallableStatement( parser, "{call Sheet1}" ) ) {
+            assertEquals( 0, statement.getQueryTimeout() );
+            statement.setQueryTimeout( 30 );
+            assertEquals( 30, statement.getQueryTimeout() );
+            assertThrows( SQLException.class, () -> statement.setQueryTimeout( -1 ) );
+
+            ResultSet rs = statement.executeQuery();
+            assertTrue( rs.next() );
+            statement.cancel();
+            SQLException ex = assertThrows( SQLException.class, () -> {
+                while( rs.next() ) {
+                    // rows of the current batch are still available
+                }
+            } );
+            assertFalse( ex instanceof SQLTimeoutException );
+
+            // next execution is not affected
+            ResultSet next = statement.executeQuery();
+            int count = 0;
+            while( next.next() ) {
+                count++;
+            }
+            assertEquals( 199, count );
+        }
+    }
 }
@@ -16,20 +16,29 @@
 package com.inet.excel;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import org.junit.jupiter.api.Test;
 
+import com.inet.excel.parser.ExcelArchive;
 import com.inet.excel.parser.ExcelParser;
 import com.inet.excel.parser.ExcelParserTest;
 
@@ -70,6 +79,95 @@ public class ExcelDatabaseMetaDataTest {
         getProcedureColumns_returns_information_about_columns( "Sheet2", Collections.singletonMap( "Sheet2", Arrays.asList( "Cat", "C4", "C5", "Fun" ) ) );
     }
 
+    @Test
+    public void getProcedures_returns_only_procedures_matching_pattern() throws SQLException {
+        File resource = new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() );
+        ExcelDatabaseMetaData metaData = new ExcelDatabaseMetaData( new ExcelParser( resource.toPath(), true ) );
+
+        List<String> procedureNames = new ArrayList<>();
+        ResultSet rs = metaData.getProcedures( null, null, "%2" );
+        while( rs.next() ) {
+            procedureNames.add( rs.getString( "PROCEDURE_NAME" ) );
+        }
+        assertEquals( Arrays.asList( "Sheet2" ), procedureNames );
+        assertEquals( "\\", metaData.getSearchStringEscape() );
+    }
+
+    @Test
+    public void getProcedureColumns_returns_information_about_columns_matching_patterns() throws SQLException {
+        Map<String, List<String>> expectedProcedureColumns = new HashMap<>();
+        expectedProcedureColumns.put( "Sheet1", Arrays.asList( "C2", "Chocolate", "C4", "Egg", "Forest", "C7" ) );
+        expectedProcedureColumns.put( "Sheet2", Arrays.asList( "Cat", "C4", "C5", "Fun" ) );
+        getProcedureColumns_returns_information_about_columns( "Sheet_", expectedProcedureColumns );
+        getProcedureColumns_returns_information_about_columns( "%1", Collections.singletonMap( "Sheet1", Arrays.asList( "C2", "Chocolate", "C4", "Egg", "Forest", "C7" ) ) );
+        getProcedureColumns_returns_information_about_columns( "Sheet", Collections.emptyMap() );
+
+        File resource = new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() );
+        ExcelDatabaseMetaData metaData = new ExcelDatabaseMetaData( new ExcelParser( resource.toPath(), true ) );
+        List<String> columns = new ArrayList<>();
+        ResultSet rs = metaData.getProcedureColumns( null, null, "%", "C_" );
+        while( rs.next() ) {
+            columns.add( rs.getString( "PROCEDURE_NAME" ) + "." + rs.getString( "COLUMN_NAME" ) + "@" + rs.getInt( "ORDINAL_POSITION" ) );
+        }
+        assertEquals( Arrays.asList( "Sheet1.C2@1", "Sheet1.C4@3", "Sheet1.C7@6", "Sheet2.C4@2", "Sheet2.C5@3" ), columns );
+    }
+
+    @Test
+    public void getTables_returns_sheets_matching_pattern_and_type() throws SQLException {
+        File resource = new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() );
+        ExcelDatabaseMetaData metaData = new ExcelDatabaseMetaData( new ExcelParser( resource.toPath(), true ) );
+
+        assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getStrings( metaData.getTables( null, null, null, null ), "TABLE_NAME" ) );
+        assertEquals( Arrays.asList( "Sheet2" ), getStrings( metaData.getTables( null, null, "%2", new String[] { "TABLE" } ), "TABLE_NAME" ) );
+        assertEquals( Collections.emptyList(), getStrings( metaData.getTables( null, null, null, new String[] { "VIEW" } ), "TABLE_NAME" ) );
+        assertEquals( Arrays.asList( "column_names.xlsx", "column_names.xlsx" ), getStrings( metaData.getTables( null, null, null, null ), "TABLE_CAT" ) );
+        assertEquals( Arrays.asList( "TABLE" ), getStrings( metaData.getTableTypes(), "TABLE_TYPE" ) );
+    }
+
+    @Test
+    public void getColumns_returns_columns_of_sheets_from_cached_metadata() throws SQLException, IOException {
+        File resource = new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() );
+        AtomicInteger openCount = new AtomicInteger();
+        try( ZipFile zipFile = new ZipFile( resource ) ) {
+            ExcelArchive archive = new ExcelArchive() {
+                @Override
+                public InputStream getInputStream( String entryName ) throws IOException {
+                    openCount.incrementAndGet();
+                    ZipEntry entry = zipFile.getEntry( entryName );
+                    return entry == null ? null : zipFile.getInputStream( entry );
+                }
+
+                @Override
+                public void close() {
+                    // closed by test
+                }
+            };
+            ExcelDatabaseMetaData metaData = new ExcelDatabaseMetaData( new ExcelParser( "column_names.xlsx", archive, true ) );
+
+            ResultSet rs = metaData.getColumns( null, null, "Sheet2", null );
+            List<String> columns = new ArrayList<>();
+            while( rs.next() ) {
+                columns.add( rs.getString( "TABLE_NAME" ) + "." + rs.getString( "COLUMN_NAME" ) + "@" + rs.getInt( "ORDINAL_POSITION" ) + ":" + rs.getString( "TYPE_NAME" ) );
+            }
+            assertEquals( Arrays.asList( "Sheet2.Cat@1:VARCHAR", "Sheet2.C4@2:VARCHAR", "Sheet2.C5@3:VARCHAR", "Sheet2.Fun@4:VARCHAR" ), columns );
+
+            assertEquals( Arrays.asList( "Cat", "Fun" ), getStrings( metaData.getColumns( null, null, "%2", "___" ), "COLUMN_NAME" ) );
+
+            // repeated calls are served from the cache without reading the document
+            int count = openCount.get();
+            assertEquals( Arrays.asList( "C4", "C5" ), getStrings( metaData.getColumns( null, null, "Sheet2", "C_" ), "COLUMN_NAME" ) );
+            assertEquals( count, openCount.get() );
+        }
+    }
+
+    private static List<String> getStrings( ResultSet rs, String columnLabel ) throws SQLException {
+        List<String> values = new ArrayList<>();
+        while( rs.next() ) {
+            values.add( rs.getString( columnLabel ) );
+        }
+        return values;
+    }
+
     private void getProcedureColumns_returns_information_about_columns( String procedureNamePattern, Map<String, List<String>> expectedProcedureColumns ) throws SQLException {
         File resource = new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() );
         ExcelParser parser = new ExcelParser( resource.toPath(), true );
@@ -85,4 +183,18 @@ public class ExcelDatabaseMetaDataTest {
 
         assertEquals( expectedProcedureColumns, procedureColumns );
     }
+
+    @Test
+    public void getPseudoColumns_returns_row_number_column_of_matching_sheets() throws SQLException {
+        File resource = new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() );
+        ExcelDatabaseMetaData metaData = new ExcelDatabaseMetaData( new ExcelParser( resource.toPath(), true ) );
+        ResultSet rs = metaData.getPseudoColumns( null, null, "%2", null );
+        assertTrue( rs.next() );
+        assertEquals( "Sheet2", rs.getString( "TABLE_NAME" ) );
+        assertEquals( ExcelSheetResultSet.ROW_NUMBER_COLUMN, rs.getString( "COLUMN_NAME" ) );
+        assertEquals( Types.INTEGER, rs.getInt( "DATA_TYPE" ) );
+        assertFalse( rs.next() );
+
+        assertFalse( metaData.getPseudoColumns( null, null, null, "ID" ).next() );
+    }
 }
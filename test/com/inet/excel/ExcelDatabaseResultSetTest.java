@@ -15,8 +15,10 @@
  */
 package com.inet.excel;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -55,4 +57,19 @@ public class ExcelDatabaseResultSetTest {
                                                                 Arrays.asList( "Z", "X", "C", "V" ) );
         assertThrows( IllegalArgumentException.class, () -> new ExcelDatabaseResultSet( columnNames, rowsWithTooMuchData ) );
     }
+
+    @SuppressWarnings( "resource" )
+    @Test
+    public void findColumn_matches_exact_label_and_null() throws SQLException {
+        ExcelDatabaseResultSet rs = new ExcelDatabaseResultSet( Arrays.asList( "Name", "id", null, "Name", null ), new ArrayList<>() );
+
+        assertEquals( 1, rs.findColumn( "Name" ) ); // first of duplicate labels
+        assertEquals( 2, rs.findColumn( "id" ) );
+        assertEquals( 3, rs.findColumn( null ) );
+        assertThrows( SQLException.class, () -> rs.findColumn( "ID" ) );
+        assertThrows( SQLException.class, () -> rs.findColumn( "unknown" ) );
+
+        ExcelDatabaseResultSet withoutNull = new ExcelDatabaseResultSet( Arrays.asList( "Name" ), new ArrayList<>() );
+        assertThrows( SQLException.class, () -> withoutNull.findColumn( null ) );
+    }
 }
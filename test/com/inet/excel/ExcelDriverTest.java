@@ -19,8 +19,14 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
@@ -28,6 +34,11 @@ import java.util.UUID;
 
 import org.junit.jupiter.api.Test;
 
+import com.inet.excel.parser.ExcelParserTest;
+import com.inet.excel.parser.HttpTestServer;
+import com.inet.excel.parser.MemoryBudget;
+import com.inet.excel.parser.ValueType;
+
 class ExcelDriverTest {
 
     @Test
@@ -89,6 +100,159 @@ class ExcelDriverTest {
         assertNotNull( newDriver().connect( urlWithPathToExistingFile, new Properties() ) );
     }
 
+    @Test
+    public void connect_reads_document_from_data_property() throws IOException, SQLException {
+        byte[] content = Files.readAllBytes( new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() ).toPath() );
+
+        Properties info = new Properties();
+        info.put( ExcelDriver.PROPERTY_DATA, content );
+        assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( ExcelDriver.URL_PREFIX + "upload.xlsx", info ) ) );
+
+        info.put( ExcelDriver.PROPERTY_DATA, ByteBuffer.wrap( content ) );
+        assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( ExcelDriver.URL_PREFIX + "upload.xlsx", info ) ) );
+
+        // document larger than threshold is spilled to a temporary file
+        info.put( ExcelDriver.PROPERTY_DATA, content );
+        String url = ExcelDriver.URL_PREFIX + "upload.xlsx?" + ExcelDriver.PROPERTY_IN_MEMORY_THRESHOLD + "=10";
+        assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( url, info ) ) );
+
+        // document is read from stream in a single pass
+        info.put( ExcelDriver.PROPERTY_DATA, new ByteArrayInputStream( content ) );
+        assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( ExcelDriver.URL_PREFIX + "upload.xlsx", info ) ) );
+    }
+
+    @Test
+    public void connect_reads_remote_document_with_range_requests() throws IOException, SQLException {
+        byte[] content = Files.readAllBytes( new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() ).toPath() );
+
+        try( HttpTestServer server = new HttpTestServer( content ) ) {
+            Properties info = new Properties();
+            info.put( ExcelDriver.PROPERTY_RANGE_REQUESTS, "true" );
+            String url = ExcelDriver.URL_PREFIX + server.getURL( "column_names.xlsx" );
+            assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( url, info ) ) );
+            assertEquals( 0, server.getFullResponseCount() );
+
+            // falls back to download of the complete document
+            server.setRangeSupported( false );
+            assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( url, info ) ) );
+            assertTrue( server.getFullResponseCount() > 0 );
+        }
+    }
+
+    @Test
+    public void connect_downloads_remote_document_to_memory_or_temporary_file() throws IOException, SQLException {
+        byte[] content = Files.readAllBytes( new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() ).toPath() );
+
+        try( HttpTestServer server = new HttpTestServer( content ) ) {
+            String url = ExcelDriver.URL_PREFIX + server.getURL( "column_names.xlsx" );
+            assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( url, null ) ) );
+
+            // announced length exceeds threshold, so the document is written to a temporary file
+            url += "?" + ExcelDriver.PROPERTY_IN_MEMORY_THRESHOLD + "=10";
+            assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( url, null ) ) );
+            assertEquals( 2, server.getFullResponseCount() );
+        }
+    }
+
+    @Test
+    public void connect_reads_remote_document_from_download_cache() throws IOException, SQLException {
+        byte[] content = Files.readAllBytes( new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() ).toPath() );
+
+        try( HttpTestServer server = new HttpTestServer( content ) ) {
+            Properties info = new Properties();
+            info.put( ExcelDriver.PROPERTY_DOWNLOAD_CACHE, "true" );
+            String url = ExcelDriver.URL_PREFIX + server.getURL( "cached.xlsx" );
+            try( Connection first = newDriver().connect( url, info ) ) {
+                assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( url, info ) ) );
+                assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( first ) );
+            }
+            assertEquals( 2, server.getRequestCount() );
+            assertEquals( content.length, server.getTransferredBytes() );
+        }
+    }
+
+    @Test
+    public void connect_starts_warmup_if_requested() throws IOException, SQLException {
+        String filePath = new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() ).getAbsolutePath();
+        assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?warmup=all", null ) ) );
+        assertEquals( Arrays.asList( "Sheet1", "Sheet2" ), getSheetNames( newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?warmup=sheets,sst", null ) ) );
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?warmup=everything", null ) );
+    }
+
+    @Test
+    public void connect_applies_type_sampling_properties() throws IOException, SQLException {
+        String filePath = new File( ExcelParserTest.class.getResource( "./files/column_types.xlsx" ).getPath() ).getAbsolutePath();
+        try( Connection connection = newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?typeProbeCells=0", null ) ) {
+            ResultSet rs = connection.getMetaData().getColumns( null, null, "SingleType", null );
+            while( rs.next() ) {
+                assertEquals( "VARCHAR", rs.getString( "TYPE_NAME" ) );
+            }
+        }
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?typeSampling=random", null ) );
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?typeProbeRows=many", null ) );
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?typeProbeCells=4294967296", null ) );
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?typeProbeRows=-4294967296", null ) );
+    }
+
+    @Test
+    public void connect_applies_row_count_mode() throws SQLException {
+        String filePath = new File( ExcelParserTest.class.getResource( "./files/row_count.xlsx" ).getPath() ).getAbsolutePath();
+        for( String mode : Arrays.asList( "dimension", "scan", "verify" ) ) {
+            try( Connection connection = newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?rowCount=" + mode, null ) ) {
+                assertEquals( 16, ((ExcelConnection)connection).getParser().getRowCount( "Sheet2" ), mode );
+            }
+        }
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?rowCount=guess", null ) );
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?usedRangeScanRows=4294967296", null ) );
+    }
+
+    @Test
+    public void connect_applies_schema_file() throws IOException, SQLException {
+        String filePath = new File( ExcelParserTest.class.getResource( "./files/column_names.xlsx" ).getPath() ).getAbsolutePath();
+        Path schema = Files.createTempFile( "schema", ".properties" );
+        try {
+            Files.write( schema, Arrays.asList( "# declared columns", "Sheet1 = First, Second:number" ) );
+            try( Connection connection = newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?schema=" + schema, null ) ) {
+                ResultSet rs = connection.getMetaData().getColumns( null, null, "Sheet1", null );
+                assertTrue( rs.next() );
+                assertEquals( "First", rs.getString( "COLUMN_NAME" ) );
+                assertEquals( "VARCHAR", rs.getString( "TYPE_NAME" ) );
+                assertTrue( rs.next() );
+                assertEquals( "Second", rs.getString( "COLUMN_NAME" ) );
+                assertEquals( "NUMERIC", rs.getString( "TYPE_NAME" ) );
+                assertFalse( rs.next() );
+
+                assertTrue( connection.isWrapperFor( ExcelConnection.class ) );
+                connection.unwrap( ExcelConnection.class ).setSchemaHint( "Sheet2", Arrays.asList( "X" ), Arrays.asList( ValueType.VARCHAR ) );
+                rs = connection.getMetaData().getColumns( null, null, "Sheet2", null );
+                assertTrue( rs.next() );
+                assertEquals( "X", rs.getString( "COLUMN_NAME" ) );
+                assertFalse( rs.next() );
+            }
+
+            Files.write( schema, Arrays.asList( "Sheet1 = First:MONEY" ) );
+            assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?schema=" + schema, null ) );
+
+            // invalid schema is rejected before the document is opened, so nothing is left to be released
+            ByteArrayInputStream data = new ByteArrayInputStream( Files.readAllBytes( new File( filePath ).toPath() ) );
+            int available = data.available();
+            Properties info = new Properties();
+            info.put( ExcelDriver.PROPERTY_DATA, data );
+            assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + "column_names.xlsx?schema=" + schema, info ) );
+            assertEquals( available, data.available() );
+        } finally {
+            Files.delete( schema );
+        }
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + filePath + "?schema=" + schema, null ) );
+    }
+
+    @Test
+    public void connect_throws_exception_if_data_property_has_unsupported_type() {
+        Properties info = new Properties();
+        info.put( ExcelDriver.PROPERTY_DATA, "not binary" );
+        assertThrows( SQLException.class, () -> newDriver().connect( ExcelDriver.URL_PREFIX + "upload.xlsx", info ) );
+    }
+
     @Test
     public void acceptsURL_throws_exception_if_url_is_null() {
         ExcelDriver driver = newDriver();
@@ -123,11 +287,34 @@ class ExcelDriverTest {
         assertEquals( ExcelDriver.MINOR_VERSION, newDriver().getMinorVersion() );
     }
 
+    @Test
+    public void setGlobalMemoryBudget_changes_limit_of_all_connections() {
+        long limit = MemoryBudget.global().getLimit();
+        try {
+            ExcelDriver.setGlobalMemoryBudget( 4096 );
+            assertEquals( 4096, MemoryBudget.global().getLimit() );
+            assertThrows( IllegalArgumentException.class, () -> ExcelDriver.setGlobalMemoryBudget( -1 ) );
+            assertEquals( 4096, MemoryBudget.global().getLimit() );
+        } finally {
+            ExcelDriver.setGlobalMemoryBudget( limit );
+        }
+    }
+
     @Test
     public void jdbcCompliant_returns_false() {
         assertFalse( newDriver().jdbcCompliant() );
     }
 
+    private List<String> getSheetNames( Connection connection ) throws SQLException {
+        List<String> sheetNames = new ArrayList<>();
+        try( Connection conn = connection; ResultSet rs = conn.getMetaData().getProcedures( null, null, null ) ) {
+            while( rs.next() ) {
+                sheetNames.add( rs.getString( "PROCEDURE_NAME" ) );
+            }
+        }
+        return sheetNames;
+    }
+
     private ExcelDriver newDriver() {
         return new ExcelDriver();
     }
@@ -15,14 +15,30 @@
  */
 package com.inet.excel;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
 import com.inet.excel.parser.ExcelParser;
 import com.inet.excel.parser.ExcelParserTest;
+import com.inet.excel.parser.TestWorkbooks;
+import com.inet.excel.parser.ValueType;
 
 public class ExcelSheetResultSetTest {
 
@@ -46,7 +62,234 @@ public class ExcelSheetResultSetTest {
         assertThrows( IllegalArgumentException.class, () -> new ExcelSheetResultSet( parser, sheetName, 0 ) );
         new ExcelSheetResultSet( parser, sheetName, 1 ); // should not throw exception
     }
-    
+
+    @Test
+    public void findColumn_ignores_case_only_if_requested() throws SQLException {
+        String rows = TestWorkbooks.row( 1, "Name", "id", "ID" ) + TestWorkbooks.row( 2, "a", "1", "2" );
+        ExcelParser parser = new ExcelParser( "labels.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:C2", rows ) ), true );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertEquals( 1, rs.findColumn( "Name" ) );
+            assertThrows( SQLException.class, () -> rs.findColumn( "NAME" ) );
+        }
+
+        parser.setCaseInsensitiveLabels( true );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertEquals( 1, rs.findColumn( "NAME" ) );
+            assertEquals( 2, rs.findColumn( "id" ) );
+            assertEquals( 3, rs.findColumn( "ID" ) ); // exact match takes precedence
+            assertEquals( 2, rs.findColumn( "Id" ) );
+            assertThrows( SQLException.class, () -> rs.findColumn( "unknown" ) );
+        }
+    }
+
+    @Test
+    public void metaData_is_shared_by_result_sets_of_the_same_sheet() throws SQLException {
+        ExcelParser parser = getParser();
+        try( ExcelSheetResultSet first = new ExcelSheetResultSet( parser, "Sheet1", 10 );
+                        ExcelSheetResultSet second = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertSame( first.getMetaData(), second.getMetaData() );
+            assertSame( first.getMetaData(), first.getMetaData() );
+            assertEquals( parser.getColumnNames( "Sheet1" ).size(), first.getMetaData().getColumnCount() );
+        }
+    }
+
+    @Test
+    public void metaData_is_kept_after_result_sets_of_the_sheet_are_closed() throws SQLException {
+        ExcelParser parser = getParser();
+        WeakReference<ResultSetMetaData> reference;
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            reference = new WeakReference<>( rs.getMetaData() );
+        }
+        System.gc();
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertSame( reference.get(), rs.getMetaData() );
+        }
+    }
+
+    @Test
+    public void metaData_is_renewed_if_columns_of_the_sheet_are_declared() throws SQLException {
+        ExcelParser parser = getParser();
+        try( ExcelSheetResultSet before = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            parser.setSchemaHint( "Sheet1", Arrays.asList( "A" ), Arrays.asList( ValueType.NUMBER ) );
+            try( ExcelSheetResultSet after = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+                assertNotSame( before.getMetaData(), after.getMetaData() );
+                assertEquals( 1, after.getMetaData().getColumnCount() );
+                assertEquals( "A", after.getMetaData().getColumnLabel( 1 ) );
+                assertEquals( Types.NUMERIC, after.getMetaData().getColumnType( 1 ) );
+            }
+        }
+    }
+
+    @Test
+    public void metaData_reports_column_sizes_from_values() throws SQLException {
+        String rows = TestWorkbooks.row( 1, "Amount", "Name", "Empty" ) + TestWorkbooks.row( 2, "1234.5", "abc" ) + TestWorkbooks.row( 3, "-7", "abcdef" );
+        ExcelParser parser = new ExcelParser( "sizes.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:C3", rows ) ), true );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            ResultSetMetaData metaData = rs.getMetaData();
+            assertEquals( 6, metaData.getColumnDisplaySize( 1 ) );
+            assertEquals( 5, metaData.getPrecision( 1 ) );
+            assertEquals( 1, metaData.getScale( 1 ) );
+            assertEquals( 6, metaData.getColumnDisplaySize( 2 ) );
+            assertEquals( 6, metaData.getPrecision( 2 ) );
+            assertEquals( 0, metaData.getScale( 2 ) );
+            // no values, so the limits of Excel are reported
+            assertEquals( 32767, metaData.getColumnDisplaySize( 3 ) );
+            assertEquals( ExcelDatabaseMetaData.COLUMN_SIZE_IN_BYTES, metaData.getPrecision( 3 ) );
+        }
+    }
+
+    @Test
+    public void metaData_reports_upper_bounds_if_not_all_rows_are_probed() throws SQLException {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Name" ) );
+        for( int i = 2; i <= 50; i++ ) {
+            rows.append( TestWorkbooks.row( i, i == 50 ? "value beyond the probed rows" : "abc" ) );
+        }
+        ExcelParser parser = new ExcelParser( "sizes.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:A50", rows ) ), true );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertEquals( 32767, rs.getMetaData().getColumnDisplaySize( 1 ) );
+            assertEquals( ExcelDatabaseMetaData.COLUMN_SIZE_IN_BYTES, rs.getMetaData().getPrecision( 1 ) );
+        }
+
+        parser = new ExcelParser( "sizes.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:A50", rows ) ), true );
+        parser.setExactColumnStatistics( true );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertEquals( "value beyond the probed rows".length(), rs.getMetaData().getColumnDisplaySize( 1 ) );
+        }
+    }
+
+    @Test
+    public void getString_returns_text_of_numeric_cells() throws SQLException {
+        String rows = TestWorkbooks.row( 1, "Amount", "Declared" ) //
+                        + "<row r=\"2\"><c r=\"A2\" s=\"0\"><v>1</v></c><c r=\"B2\" t=\"str\"><v>2.50</v></c></row>" //
+                        + "<row r=\"3\"><c r=\"A3\" s=\"0\"><v>1.2345678901234501E-5</v></c><c r=\"B3\" t=\"str\"><v>n/a</v></c></row>";
+        ExcelParser parser = new ExcelParser( "numbers.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B3", rows ) ), true );
+        parser.setSchemaHint( "Sheet1", Arrays.asList( "Amount", "Declared" ), Arrays.asList( ValueType.NUMBER, ValueType.NUMBER ) );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertTrue( rs.next() );
+            assertEquals( "1", rs.getString( 1 ) );
+            assertEquals( Double.valueOf( 1 ), rs.getObject( 1 ) );
+            assertEquals( "2.50", rs.getString( 2 ) );
+            assertEquals( 2.5, rs.getDouble( 2 ) );
+            assertTrue( rs.next() );
+            assertEquals( "1.2345678901234501E-5", rs.getString( 1 ) );
+            assertEquals( "n/a", rs.getString( 2 ) );
+            assertEquals( "n/a", rs.getObject( 2 ) );
+            assertFalse( rs.wasNull() );
+        }
+
+        // number according to the style of the cell
+        parser = new ExcelParser( "numbers.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B3", rows ) ), true );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertTrue( rs.next() );
+            assertEquals( "1", rs.getString( 1 ) );
+            assertEquals( Double.valueOf( 1 ), rs.getObject( 1 ) );
+        }
+    }
+
+    @Test
+    public void getLong_returns_exact_integers_of_numeric_cells() throws SQLException {
+        String rows = TestWorkbooks.row( 1, "Amount", "Text" ) //
+                        + "<row r=\"2\"><c r=\"A2\" s=\"0\"><v>12345678901234567</v></c></row>" //
+                        + "<row r=\"3\"><c r=\"A3\" s=\"0\"><v>-2.75</v></c></row>" //
+                        + "<row r=\"4\"><c r=\"B4\" t=\"str\"><v>empty amount</v></c></row>";
+        ExcelParser parser = new ExcelParser( "numbers.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B4", rows ) ), true );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertTrue( rs.next() );
+            assertEquals( 12345678901234567L, rs.getLong( 1 ) );
+            assertEquals( 12345678901234567L, rs.getLong( "Amount" ) );
+            assertEquals( Integer.MAX_VALUE, rs.getInt( 1 ) );
+            assertEquals( 12345678901234568.0, rs.getDouble( 1 ) );
+            assertFalse( rs.wasNull() );
+            assertEquals( 2, rs.getLong( 3 ) ); // row number
+            assertTrue( rs.next() );
+            assertEquals( -2, rs.getLong( 1 ) );
+            assertEquals( -2, rs.getInt( 1 ) );
+            assertTrue( rs.next() );
+            assertEquals( 0, rs.getLong( 1 ) );
+            assertTrue( rs.wasNull() );
+        }
+    }
+
+    @Test
+    public void getInt_saturates_integers_beyond_the_range_of_int() throws SQLException {
+        String rows = TestWorkbooks.row( 1, "Amount" ) //
+                        + "<row r=\"2\"><c r=\"A2\" s=\"0\"><v>3000000000</v></c></row>" //
+                        + "<row r=\"3\"><c r=\"A3\" s=\"0\"><v>-3000000000</v></c></row>" //
+                        + "<row r=\"4\"><c r=\"A4\" s=\"0\"><v>3000000000.5</v></c></row>";
+        ExcelParser parser = new ExcelParser( "numbers.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:A4", rows ) ), true );
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertTrue( rs.next() );
+            assertEquals( Integer.MAX_VALUE, rs.getInt( 1 ) );
+            assertEquals( 3000000000L, rs.getLong( 1 ) );
+            assertTrue( rs.next() );
+            assertEquals( Integer.MIN_VALUE, rs.getInt( 1 ) );
+            assertTrue( rs.next() );
+            assertEquals( Integer.MAX_VALUE, rs.getInt( 1 ) ); // same as integer text
+        }
+    }
+
+    @Test
+    public void getSharedStringIndex_returns_dictionary_id_of_shared_strings() throws SQLException {
+        ExcelParser parser = getParser();
+        try( ResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", 10 ) ) {
+            assertTrue( rs.isWrapperFor( ExcelSheetResultSet.class ) );
+            ExcelSheetResultSet sheetResultSet = rs.unwrap( ExcelSheetResultSet.class );
+            List<String> dictionary = sheetResultSet.getSharedStrings();
+            int sharedStringCount = 0;
+            while( rs.next() ) {
+                for( int column = 1; column <= rs.getMetaData().getColumnCount(); column++ ) {
+                    int index = sheetResultSet.getSharedStringIndex( column );
+                    if( index >= 0 ) {
+                        assertSame( dictionary.get( index ), rs.getObject( column ) );
+                        sharedStringCount++;
+                    } else {
+                        Object value = rs.getObject( column );
+                        assertFalse( dictionary.contains( value ), String.valueOf( value ) );
+                    }
+                }
+            }
+            assertTrue( sharedStringCount > 0 );
+            assertThrows( SQLException.class, () -> rs.unwrap( String.class ) );
+        }
+    }
+
+    @Test
+    public void skipEmptyRows_returns_only_rows_with_values_and_their_row_numbers() throws SQLException {
+        String rows = TestWorkbooks.row( 1, "Id", "Text" ) + TestWorkbooks.row( 2, "1", "a" ) + TestWorkbooks.row( 5, "2", "b" ) //
+                        + "<row r=\"6\"><c r=\"A6\" s=\"0\"/></row>" + TestWorkbooks.row( 900000, "3", "c" );
+        ExcelParser parser = new ExcelParser( "gaps.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B900000", rows ) ), true );
+        parser.setSkipEmptyRows( true );
+
+        for( int maxRowsPerBatch : new int[] { 1, 2, 3, 50 } ) {
+            List<String> texts = new ArrayList<>();
+            List<Integer> rowNumbers = new ArrayList<>();
+            try( ExcelSheetResultSet rs = new ExcelSheetResultSet( parser, "Sheet1", maxRowsPerBatch ) ) {
+                while( rs.next() ) {
+                    texts.add( rs.getString( "Text" ) );
+                    rowNumbers.add( Integer.valueOf( rs.getInt( ExcelSheetResultSet.ROW_NUMBER_COLUMN ) ) );
+                    assertEquals( texts.size(), rs.getRow() );
+                }
+                assertTrue( rs.isAfterLast() );
+                assertFalse( rs.next() );
+                assertEquals( 2, rs.getMetaData().getColumnCount() ); // pseudo column is not included
+            }
+            assertEquals( Arrays.asList( "a", "b", "c" ), texts );
+            assertEquals( Arrays.asList( 2, 5, 900000 ), rowNumbers );
+        }
+    }
+
+    @Test
+    public void row_number_column_is_available_without_skipping_empty_rows() throws SQLException {
+        try( ExcelSheetResultSet rs = new ExcelSheetResultSet( getParser(), "Sheet1", 3 ) ) {
+            int count = 0;
+            while( rs.next() ) {
+                assertEquals( ++count, rs.getInt( ExcelSheetResultSet.ROW_NUMBER_COLUMN ) );
+                assertEquals( count, rs.getInt( rs.getMetaData().getColumnCount() + 1 ) );
+            }
+            assertTrue( count > 0 );
+        }
+    }
+
     /** Returns parser for test purposes, which is able to read data from existing Excel document.
      * @return parser instance.
      */
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/** Microbenchmark comparing {@link ExcelResultSet#findColumn(String)} with the linear search over all column names, which it replaced.
+ * It is not run as part of the tests. Usage: FindColumnBenchmark [columnCount] [iterations]
+ */
+public class FindColumnBenchmark {
+
+    /** Runs the benchmark.
+     * @param args optional number of columns (default 300) and number of lookups per round (default 1000000).
+     * @throws SQLException if a column is not found.
+     */
+    @SuppressWarnings( "resource" )
+    public static void main( String[] args ) throws SQLException {
+        int columnCount = args.length > 0 ? Integer.parseInt( args[0] ) : 300;
+        int iterations = args.length > 1 ? Integer.parseInt( args[1] ) : 1_000_000;
+
+        List<String> columnNames = new ArrayList<>();
+        for( int i = 1; i <= columnCount; i++ ) {
+            columnNames.add( "Column" + i );
+        }
+        ExcelDatabaseResultSet resultSet = new ExcelDatabaseResultSet( columnNames, new ArrayList<>() );
+
+        for( int round = 1; round <= 5; round++ ) { // first rounds warm up the JIT
+            long sum = 0;
+            long start = System.nanoTime();
+            for( int i = 0; i < iterations; i++ ) {
+                sum += linearSearch( columnNames, columnNames.get( i % columnCount ) );
+            }
+            long linear = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for( int i = 0; i < iterations; i++ ) {
+                sum -= resultSet.findColumn( columnNames.get( i % columnCount ) );
+            }
+            long hashed = System.nanoTime() - start;
+
+            System.out.printf( "round %d: linear search %.1f ns/lookup, findColumn %.1f ns/lookup (checksum %d)%n", round, (double)linear / iterations, (double)hashed / iterations, sum );
+        }
+    }
+
+    /** Finds column like the former implementation of {@link ExcelResultSet#findColumn(String)}.
+     * @param columnNames names of the columns.
+     * @param columnLabel label to search for.
+     * @return index of the column, starting with 1.
+     * @throws SQLException if column is not found.
+     */
+    private static int linearSearch( List<String> columnNames, String columnLabel ) throws SQLException {
+        for( int index = 0; index < columnNames.size(); index++ ) {
+            if( Objects.equals( columnLabel, columnNames.get( index ) ) ) {
+                return index + 1;
+            }
+        }
+        throw new SQLException( "ResultSet: unknown column \"" + columnLabel + "\"." );
+    }
+}
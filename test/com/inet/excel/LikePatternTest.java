@@ -0,0 +1,57 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LikePatternTest {
+
+    @Test
+    public void null_and_percent_match_any_name() {
+        assertTrue( LikePattern.compile( null ).matches( "Sheet1" ) );
+        assertTrue( LikePattern.compile( "%" ).matches( "" ) );
+    }
+
+    @Test
+    public void pattern_without_wildcards_matches_exactly() {
+        assertTrue( LikePattern.compile( "Sheet1" ).matches( "Sheet1" ) );
+        assertFalse( LikePattern.compile( "Sheet1" ).matches( "sheet1" ) );
+        assertFalse( LikePattern.compile( "Sheet1" ).matches( "Sheet10" ) );
+    }
+
+    @Test
+    public void wildcards_match_sequences_and_single_characters() {
+        assertTrue( LikePattern.compile( "Sheet%" ).matches( "Sheet" ) );
+        assertTrue( LikePattern.compile( "Sheet%" ).matches( "Sheet 12" ) );
+        assertTrue( LikePattern.compile( "%ales%" ).matches( "Sales 2024" ) );
+        assertTrue( LikePattern.compile( "Sheet_" ).matches( "Sheet2" ) );
+        assertFalse( LikePattern.compile( "Sheet_" ).matches( "Sheet" ) );
+        assertFalse( LikePattern.compile( "Sheet_" ).matches( "Sheet12" ) );
+    }
+
+    @Test
+    public void escaped_wildcards_and_regex_characters_match_literally() {
+        assertTrue( LikePattern.compile( "100\\%" ).matches( "100%" ) );
+        assertFalse( LikePattern.compile( "100\\%" ).matches( "1000" ) );
+        assertTrue( LikePattern.compile( "a\\_b%" ).matches( "a_bc" ) );
+        assertFalse( LikePattern.compile( "a\\_b%" ).matches( "axbc" ) );
+        assertTrue( LikePattern.compile( "(x).*[y]%" ).matches( "(x).*[y] and more" ) );
+        assertFalse( LikePattern.compile( "(x).*[y]%" ).matches( "x and more" ) );
+    }
+}
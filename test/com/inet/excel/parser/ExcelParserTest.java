@@ -19,10 +19,16 @@ import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
@@ -32,10 +38,22 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.zip.ZipFile;
 
 import org.junit.jupiter.api.Test;
 
@@ -233,6 +251,28 @@ public class ExcelParserTest {
         assertEquals( asList( emptyRow, emptyRow, emptyRow ), parser.getRows( sheetName, 55, 57 ) );
     }
 
+    @Test
+    public void getRows_returns_same_data_if_document_is_read_from_memory() throws IOException {
+        Path path = new File( ExcelParserTest.class.getResource( "./files/rows.xlsx" ).getPath() ).toPath();
+        ByteBuffer data = ByteBuffer.wrap( Files.readAllBytes( path ) );
+
+        ExcelParser fileParser = new ExcelParser( path, true );
+        ExcelParser memoryParser = new ExcelParser( "rows.xlsx", data, true );
+
+        assertEquals( "rows.xlsx", memoryParser.getFileName() );
+        assertEquals( fileParser.getSheetNames(), memoryParser.getSheetNames() );
+        assertEquals( fileParser.getColumnNames( "Sheet1" ), memoryParser.getColumnNames( "Sheet1" ) );
+        assertEquals( fileParser.getRowCount( "Sheet1" ), memoryParser.getRowCount( "Sheet1" ) );
+        assertEquals( fileParser.getRows( "Sheet1", 1, 7 ), memoryParser.getRows( "Sheet1", 1, 7 ) );
+    }
+
+    @Test
+    public void getSheetNames_throws_exception_if_data_in_memory_is_not_an_excel_document() {
+        ExcelParser parser = new ExcelParser( "invalid.xlsx", ByteBuffer.wrap( new byte[100] ), true );
+        ExcelParserException ex = assertThrows( ExcelParserException.class, parser::getSheetNames );
+        assertEquals( "File is not a valid Excel document.", ex.getMessage() );
+    }
+
     @Test
     public void getRows_returns_data_of_various_types() throws ParseException {
         File resource = new File( ExcelParserTest.class.getResource( "./files/various_data_types.xlsx" ).getPath() );
@@ -299,6 +339,212 @@ public class ExcelParserTest {
         assertEquals( 0, parser.getRowCount( "Sheet3" ) );
     }
 
+    @Test
+    public void getRowCount_takes_reliable_dimension_instead_of_scanning_rows() {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Id" ) );
+        rows.append( TestWorkbooks.row( 2, "1" ) ).append( TestWorkbooks.row( 3, "2" ) );
+        ByteBuffer content = ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:A1000", rows ) );
+
+        // dimension with more rows than the used range scan limit is not verified, so it wins
+        ExcelParser parser = new ExcelParser( "dimension.xlsx", content, true );
+        parser.setUsedRangeScanLimit( 100 );
+        assertEquals( 999, parser.getRowCount( "Sheet1" ) );
+
+        parser.setRowCountMode( RowCountMode.SCAN );
+        assertEquals( 2, parser.getRowCount( "Sheet1" ) );
+        parser.setRowCountMode( RowCountMode.VERIFY );
+        assertThrows( ExcelParserException.class, () -> parser.getRowCount( "Sheet1" ) ); // trailing rows without values
+
+        // declared columns do not need a scan of the rows
+        ExcelParser hintedParser = new ExcelParser( "dimension.xlsx", content, true );
+        hintedParser.setSchemaHint( "Sheet1", asList( "Id" ), asList( ValueType.NUMBER ) );
+        assertEquals( 999, hintedParser.getRowCount( "Sheet1" ) );
+
+        // dimension which does not cover all values
+        ExcelParser verifyingParser = new ExcelParser( "dimension.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:A2", rows ) ), true );
+        assertEquals( 1, verifyingParser.getRowCount( "Sheet1" ) );
+        verifyingParser.setRowCountMode( RowCountMode.VERIFY );
+        assertThrows( ExcelParserException.class, () -> verifyingParser.getRowCount( "Sheet1" ) );
+
+        // dimensions of other applications are not trusted
+        String app = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                        + "<Properties xmlns=\"http://schemas.openxmlformats.org/officeDocument/2006/extended-properties\"><Application>SomeWriter</Application></Properties>";
+        content = ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:A1000", rows, Collections.singletonMap( "docProps/app.xml", app ) ) );
+        assertEquals( 2, new ExcelParser( "dimension.xlsx", content, true ).getRowCount( "Sheet1" ) );
+    }
+
+    @Test
+    public void used_range_replaces_dimension_of_whole_sheet_and_trailing_empty_rows() {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Id", "Name" ) );
+        rows.append( TestWorkbooks.row( 2, "1", "a" ) ).append( TestWorkbooks.row( 3, "2", "b" ) );
+        for( int i = 4; i <= 2000; i++ ) {
+            rows.append( "<row r=\"" ).append( i ).append( "\"><c r=\"Z" ).append( i ).append( "\" s=\"0\"/></row>" );
+        }
+
+        for( String dimensionRef : asList( "A1:XFD1048576", "A1:B1048576", null ) ) {
+            ExcelParser parser = new ExcelParser( "used_range.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( dimensionRef, rows ) ), true );
+            assertEquals( asList( "Id", "Name" ), parser.getColumnNames( "Sheet1" ) );
+            assertEquals( 2, parser.getRowCount( "Sheet1" ), dimensionRef );
+            assertEquals( asList( Double.valueOf( 2 ), "b" ), parser.getRows( "Sheet1", 2, 2 ).get( 0 ) );
+
+            parser.setRowCountMode( RowCountMode.SCAN );
+            assertEquals( 2, parser.getRowCount( "Sheet1" ), dimensionRef );
+        }
+
+        // regular dimension, which is only trimmed, if it does not exceed the scan limit
+        ExcelParser parser = new ExcelParser( "used_range.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B2000", rows ) ), true );
+        assertEquals( asList( "Id", "Name" ), parser.getColumnNames( "Sheet1" ) );
+        assertEquals( 2, parser.getRowCount( "Sheet1" ) );
+        parser = new ExcelParser( "used_range.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B2000", rows ) ), true );
+        parser.setUsedRangeScanLimit( 1000 );
+        assertEquals( 1999, parser.getRowCount( "Sheet1" ) );
+
+        // scan of a dimension reaching the limits of the sheet stops at the limit, rows are counted on request
+        // and columns of further rows are taken from their cells, regardless of their values
+        for( String dimensionRef : asList( "A1:XFD1048576", null ) ) {
+            parser = new ExcelParser( "used_range.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( dimensionRef, rows ) ), true );
+            parser.setUsedRangeScanLimit( 10 );
+            List<String> columnNames = parser.getColumnNames( "Sheet1" );
+            assertEquals( 26, columnNames.size(), dimensionRef );
+            assertEquals( asList( "Id", "Name", "C3" ), columnNames.subList( 0, 3 ) );
+            assertEquals( 2, parser.getRowCount( "Sheet1" ), dimensionRef );
+        }
+
+        // sheet with formatted cells only
+        parser = new ExcelParser( "used_range.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:XFD1048576", "<row r=\"1\"><c r=\"A1\" s=\"0\"/></row>" ) ), false );
+        assertEquals( asList( "C1" ), parser.getColumnNames( "Sheet1" ) );
+        assertEquals( 0, parser.getRowCount( "Sheet1" ) );
+    }
+
+    @Test
+    public void used_range_scan_limit_keeps_columns_of_later_rows() {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Id", "Name" ) );
+        for( int i = 2; i <= 50; i++ ) {
+            rows.append( TestWorkbooks.row( i, "r" + i, "a", i == 50 ? "late" : null ) );
+        }
+
+        for( String dimensionRef : asList( "A1:XFD1048576", null ) ) {
+            ExcelParser parser = new ExcelParser( "used_range.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( dimensionRef, rows ) ), true );
+            parser.setUsedRangeScanLimit( 10 );
+            assertEquals( asList( "Id", "Name", "C3" ), parser.getColumnNames( "Sheet1" ), dimensionRef );
+            assertEquals( 49, parser.getRowCount( "Sheet1" ), dimensionRef );
+            assertEquals( asList( "r50", "a", "late" ), parser.getRows( "Sheet1", 49, 49 ).get( 0 ), dimensionRef );
+        }
+    }
+
+    @Test
+    public void getColumnStatistics_reports_max_length_precision_and_scale() {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Amount", "Name", "Empty" ) );
+        rows.append( TestWorkbooks.row( 2, "1", "a" ) ).append( TestWorkbooks.row( 3, "-12.5", "longer text" ) ).append( TestWorkbooks.row( 4, "300", "b" ) );
+        for( int i = 5; i <= 1500; i++ ) {
+            rows.append( TestWorkbooks.row( i, "2", i == 1500 ? "value beyond the sampled rows" : "c" ) );
+        }
+        ExcelParser parser = new ExcelParser( "statistics.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:C1500", rows ) ), true );
+        assertEquals( asList( ValueType.NUMBER, ValueType.VARCHAR, ValueType.VARCHAR ), parser.getColumnTypes( "Sheet1" ) );
+
+        List<ColumnStatistics> statistics = parser.getColumnStatistics( "Sheet1" );
+        assertEquals( 3, statistics.size() );
+        ColumnStatistics amount = statistics.get( 0 );
+        assertEquals( ExcelParser.DEFAULT_PROBED_ROW_LIMIT, amount.getValueCount() ); // collected from the probed rows
+        assertFalse( amount.isComplete() );
+        assertEquals( 5, amount.getMaxLength() ); // "-12.5"
+        assertEquals( 4, amount.getPrecision() ); // three digits of 300 and one digit of 12.5 after the decimal point
+        assertEquals( 1, amount.getScale() );
+        assertEquals( 11, statistics.get( 1 ).getMaxLength() );
+        assertEquals( 0, statistics.get( 2 ).getValueCount() );
+        assertSame( statistics, parser.getColumnStatistics( "Sheet1" ) );
+
+        parser = new ExcelParser( "statistics.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:C1500", rows ) ), true );
+        parser.setExactColumnStatistics( true );
+        assertEquals( asList( ValueType.NUMBER, ValueType.VARCHAR, ValueType.VARCHAR ), parser.getColumnTypes( "Sheet1" ) );
+        statistics = parser.getColumnStatistics( "Sheet1" );
+        assertEquals( 1499, statistics.get( 0 ).getValueCount() );
+        assertTrue( statistics.get( 0 ).isComplete() );
+        assertEquals( "value beyond the sampled rows".length(), statistics.get( 1 ).getMaxLength() );
+    }
+
+    @Test
+    public void cancellation_token_aborts_reading_of_rows() {
+        StringBuilder rows = new StringBuilder();
+        for( int i = 1; i <= 100; i++ ) {
+            rows.append( TestWorkbooks.row( i, "a", "b" ) );
+        }
+        ExcelParser parser = new ExcelParser( "cancel.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B100", rows ) ), false );
+
+        CancellationToken token = new CancellationToken();
+        assertEquals( 100, token.run( () -> parser.getRows( "Sheet1", 1, 100 ) ).size() );
+        ExcelParserCancelledException ex = assertThrows( ExcelParserCancelledException.class, () -> token.run( () -> {
+            token.cancel();
+            return parser.getRows( "Sheet1", 1, 100 );
+        } ) );
+        assertFalse( ex.isTimeout() );
+        assertTrue( token.isCancelled() );
+
+        CancellationToken timedOut = new CancellationToken();
+        timedOut.setTimeout( 1, TimeUnit.NANOSECONDS );
+        ex = assertThrows( ExcelParserCancelledException.class, () -> timedOut.run( () -> {
+            long start = System.nanoTime();
+            while( System.nanoTime() - start < 1000 ) {
+                // let the timeout elapse
+            }
+            return parser.getRows( "Sheet1", 1, 100 );
+        } ) );
+        assertTrue( ex.isTimeout() );
+
+        // without token reading is not affected
+        assertEquals( 100, parser.getRows( "Sheet1", 1, 100 ).size() );
+    }
+
+    @Test
+    public void getRows_reads_shared_strings_from_temporary_file_if_memory_budget_is_exceeded() {
+        File resource = new File( ExcelParserTest.class.getResource( "./files/rows.xlsx" ).getPath() );
+        ExcelParser inMemory = new ExcelParser( resource.toPath(), true );
+        ExcelParser spilled = new ExcelParser( resource.toPath(), true );
+        spilled.getMemoryBudget().setLimit( 0 );
+
+        String sheetName = inMemory.getSheetNames().get( 0 );
+        int rowCount = inMemory.getRowCount( sheetName );
+        assertEquals( inMemory.getRows( sheetName, 1, rowCount ), spilled.getRows( sheetName, 1, rowCount ) );
+        assertEquals( inMemory.getSharedStrings(), spilled.getSharedStrings() );
+        assertTrue( inMemory.getMemoryBudget().getUsedBytes() > 0 );
+        assertEquals( 0, inMemory.getMemoryBudget().getSpillCount() );
+        assertEquals( 0, spilled.getMemoryBudget().getUsedBytes() );
+        assertEquals( 1, spilled.getMemoryBudget().getSpillCount() );
+        assertEquals( -1, spilled.getSharedStringIndex( spilled.getSharedStrings().get( 0 ) ) );
+
+        inMemory.getMemoryBudget().releaseAll();
+        assertEquals( 0, inMemory.getMemoryBudget().getUsedBytes() );
+    }
+
+    @Test
+    public void getRows_stores_wide_rows_with_few_values_sparsely() {
+        StringBuilder rows = new StringBuilder( "<row r=\"1\"><c r=\"A1\" t=\"str\"><v>1</v></c><c r=\"BXX1\" t=\"str\"><v>x</v></c></row>" );
+        rows.append( TestWorkbooks.row( 2, "a", "b", "c", "d" ) );
+        ExcelParser parser = new ExcelParser( "wide.xlsx", ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:BXX2", rows ) ), false );
+
+        List<List<Object>> data = parser.getRows( "Sheet1", 1, 3 );
+        assertEquals( 2000, data.get( 0 ).size() );
+        assertTrue( data.get( 0 ) instanceof SparseRow );
+        assertEquals( "x", data.get( 0 ).get( 1999 ) );
+        assertEquals( "d", data.get( 1 ).get( 3 ) );
+        assertEquals( Collections.nCopies( 2000, null ), data.get( 2 ) );
+    }
+
+    @Test
+    public void getRowCount_dimensions_of_test_files_match_their_rows() throws IOException {
+        try( DirectoryStream<Path> files = Files.newDirectoryStream( new File( ExcelParserTest.class.getResource( "./files" ).getPath() ).toPath(), "*.xlsx" ) ) {
+            for( Path file : files ) {
+                ExcelParser parser = new ExcelParser( file, false );
+                parser.setRowCountMode( RowCountMode.VERIFY );
+                for( String sheetName : parser.getSheetNames() ) {
+                    ExcelParser scanningParser = new ExcelParser( file, false );
+                    scanningParser.setRowCountMode( RowCountMode.SCAN );
+                    assertEquals( scanningParser.getRowCount( sheetName ), parser.getRowCount( sheetName ), file + " " + sheetName );
+                }
+            }
+        }
+    }
+
     @Test
     public void getRowCount_throws_exception_if_excel_file_does_not_exist() {
         method_throws_exception_if_excel_file_does_not_exist( parser -> parser.getRowCount( "sheetName" ) );
@@ -377,4 +623,160 @@ public class ExcelParserTest {
 
         assertEquals( asList( ValueType.VARCHAR, ValueType.VARCHAR, ValueType.DATE ), parser.getColumnTypes( "RowLimit" ) );
     }
+
+    @Test
+    public void warmUp_parses_every_part_only_once() throws IOException {
+        Path path = new File( ExcelParserTest.class.getResource( "./files/column_types.xlsx" ).getPath() ).toPath();
+        ExcelParser fileParser = new ExcelParser( path, true );
+        Map<String, AtomicInteger> openCounts = new ConcurrentHashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try( ExcelArchive zip = new ZipFileArchive( new ZipFile( path.toFile() ) ) ) {
+            ExcelArchive countingArchive = new ExcelArchive() {
+                @Override
+                public InputStream getInputStream( String entryName ) throws IOException {
+                    openCounts.computeIfAbsent( entryName, name -> new AtomicInteger() ).incrementAndGet();
+                    return zip.getInputStream( entryName );
+                }
+
+                @Override
+                public void close() {
+                    // closed by test
+                }
+            };
+            ExcelParser parser = new ExcelParser( "column_types.xlsx", countingArchive, true );
+            CompletableFuture<Void> warmUp = parser.warmUp( EnumSet.allOf( WarmUp.class ), executor );
+            // requests while warm-up is in progress wait for it
+            for( String sheetName : fileParser.getSheetNames() ) {
+                assertEquals( fileParser.getColumnTypes( sheetName ), parser.getColumnTypes( sheetName ) );
+            }
+            warmUp.join();
+            for( String sheetName : fileParser.getSheetNames() ) {
+                assertEquals( fileParser.getColumnNames( sheetName ), parser.getColumnNames( sheetName ) );
+            }
+
+            assertEquals( 1, openCounts.get( "xl/workbook.xml" ).get() );
+            assertEquals( 1, openCounts.get( "xl/styles.xml" ).get() );
+            assertEquals( 1, openCounts.get( "xl/sharedStrings.xml" ).get() );
+            // dimension and column names, then column types
+            assertEquals( 2, openCounts.get( "xl/worksheets/sheet1.xml" ).get() );
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failed_parts_are_parsed_again_on_next_request() {
+        ExcelParser parser = new ExcelParser( Paths.get( "nonExisting.xlsx" ), true );
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Void> warmUp = parser.warmUp( EnumSet.allOf( WarmUp.class ), executor );
+            assertThrows( CompletionException.class, warmUp::join );
+            assertThrows( ExcelParserException.class, parser::getSheetNames );
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void getSheetMetadata_returns_metadata_of_sheets_in_requested_order() {
+        File resource = new File( ExcelParserTest.class.getResource( "./files/column_types.xlsx" ).getPath() );
+        ExcelParser parser = new ExcelParser( resource.toPath(), true );
+        ExecutorService executor = Executors.newFixedThreadPool( 3 );
+        try {
+            List<String> sheetNames = new ArrayList<>( parser.getSheetNames() );
+            Collections.reverse( sheetNames );
+            List<SheetMetadata> metadata = parser.getSheetMetadata( sheetNames, executor );
+
+            ExcelParser sequentialParser = new ExcelParser( resource.toPath(), true );
+            assertEquals( sheetNames.size(), metadata.size() );
+            for( int i = 0; i < sheetNames.size(); i++ ) {
+                String sheetName = sheetNames.get( i );
+                assertEquals( sheetName, metadata.get( i ).getSheetName() );
+                assertEquals( sequentialParser.getColumnNames( sheetName ), metadata.get( i ).getColumnNames() );
+                assertEquals( sequentialParser.getColumnTypes( sheetName ), metadata.get( i ).getColumnTypes() );
+            }
+
+            assertThrows( ExcelParserException.class, () -> parser.getSheetMetadata( asList( sheetNames.get( 0 ), "nonExistingSheetName" ), executor ) );
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void setTypeSampling_controls_number_of_probed_rows() {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Id", "Name" ) );
+        for( int i = 2; i <= 1000; i++ ) {
+            rows.append( TestWorkbooks.row( i, String.valueOf( i ), i == 600 || i == 995 ? "text" : "1.5" ) );
+        }
+        ByteBuffer content = ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B1000", rows ) );
+
+        ExcelParser parser = new ExcelParser( "sampling.xlsx", content, true );
+        assertEquals( asList( ValueType.NUMBER, ValueType.NUMBER ), parser.getColumnTypes( "Sheet1" ) );
+
+        parser = new ExcelParser( "sampling.xlsx", content, true );
+        parser.setTypeSampling( 0, 30, false );
+        assertEquals( asList( ValueType.VARCHAR, ValueType.VARCHAR ), parser.getColumnTypes( "Sheet1" ) );
+
+        parser = new ExcelParser( "sampling.xlsx", content, true );
+        parser.setTypeSampling( -1, -1, false );
+        assertEquals( asList( ValueType.NUMBER, ValueType.VARCHAR ), parser.getColumnTypes( "Sheet1" ) );
+
+        // tail of the sheet is probed together with the head, but row 600 is not part of the sampled rows
+        parser = new ExcelParser( "sampling.xlsx", content, true );
+        parser.setTypeSampling( 30, 30, true );
+        assertEquals( asList( ValueType.NUMBER, ValueType.VARCHAR ), parser.getColumnTypes( "Sheet1" ) );
+        List<List<Object>> data = parser.getRows( "Sheet1", 598, 600 );
+        assertEquals( "1.5", data.get( 0 ).get( 1 ) );
+        assertEquals( "text", data.get( 1 ).get( 1 ) );
+        assertEquals( asList( ValueType.NUMBER, ValueType.VARCHAR ), parser.getSheetMetadata( "Sheet1" ).getColumnTypes() );
+    }
+
+    @Test
+    public void adaptive_sampling_probes_middle_of_the_sheet() {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Id", "Name" ) );
+        for( int i = 2; i <= 1000; i++ ) {
+            rows.append( TestWorkbooks.row( i, String.valueOf( i ), i == 502 ? "text" : "1.5" ) );
+        }
+        ByteBuffer content = ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B1000", rows ) );
+        ExcelParser parser = new ExcelParser( "sampling.xlsx", content, true );
+        parser.setTypeSampling( 30, 30, true );
+        assertEquals( asList( ValueType.NUMBER, ValueType.VARCHAR ), parser.getColumnTypes( "Sheet1" ) );
+        List<List<Object>> data = parser.getRows( "Sheet1", 1, 999 );
+        assertEquals( "1.5", data.get( 0 ).get( 1 ) ); // types are known before the first row is returned
+        assertEquals( "text", data.get( 500 ).get( 1 ) );
+        assertEquals( asList( ValueType.NUMBER, ValueType.VARCHAR ), parser.getColumnTypes( "Sheet1" ) );
+
+        // without row indexes in the dimension only the head is probed
+        content = ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A:B", rows ) );
+        parser = new ExcelParser( "sampling.xlsx", content, true );
+        parser.setTypeSampling( 30, 30, true );
+        assertEquals( asList( ValueType.NUMBER, ValueType.NUMBER ), parser.getColumnTypes( "Sheet1" ) );
+        parser.getRows( "Sheet1", 1, 999 );
+        assertEquals( asList( ValueType.NUMBER, ValueType.NUMBER ), parser.getColumnTypes( "Sheet1" ) );
+    }
+
+    @Test
+    public void setSchemaHint_replaces_column_names_and_types() {
+        StringBuilder rows = new StringBuilder( TestWorkbooks.row( 1, "Id", "Amount" ) );
+        rows.append( TestWorkbooks.row( 2, "1", "2.5" ) );
+        rows.append( TestWorkbooks.row( 3, "2", "n/a" ) );
+        ByteBuffer content = ByteBuffer.wrap( TestWorkbooks.createWorkbook( "A1:B3", rows ) );
+
+        ExcelParser parser = new ExcelParser( "schema.xlsx", content, true );
+        assertEquals( asList( "Id", "Amount" ), parser.getColumnNames( "Sheet1" ) );
+        parser.setSchemaHint( "Sheet1", asList( "Key", "Value", "Comment" ), asList( ValueType.VARCHAR, ValueType.NUMBER, ValueType.VARCHAR ) );
+
+        assertEquals( asList( "Key", "Value", "Comment" ), parser.getColumnNames( "Sheet1" ) );
+        assertEquals( asList( ValueType.VARCHAR, ValueType.NUMBER, ValueType.VARCHAR ), parser.getColumnTypes( "Sheet1" ) );
+        List<List<Object>> data = parser.getRows( "Sheet1", 1, 2 );
+        assertEquals( asList( "1", Double.valueOf( 2.5 ), null ), data.get( 0 ) );
+        // values which do not match the declared type are returned as text
+        assertEquals( asList( "2", "n/a", null ), data.get( 1 ) );
+
+        parser.setSchemaHint( "Missing", asList( "A" ), asList( ValueType.VARCHAR ) );
+        assertThrows( ExcelParserException.class, () -> parser.getColumnNames( "Missing" ) );
+        assertThrows( ExcelParserException.class, () -> parser.getColumnTypes( "Missing" ) );
+        assertThrows( IllegalArgumentException.class, () -> parser.setSchemaHint( "Sheet1", asList( "A", "B" ), asList( ValueType.VARCHAR ) ) );
+        assertThrows( IllegalArgumentException.class, () -> parser.setSchemaHint( "Sheet1", asList(), asList() ) );
+    }
 }
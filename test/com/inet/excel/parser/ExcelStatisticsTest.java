@@ -0,0 +1,105 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class ExcelStatisticsTest {
+
+    @Test
+    public void counters_are_updated_by_parser_and_exposed_as_mbean() throws Exception {
+        ExcelStatistics statistics = ExcelStatistics.get();
+        long rowsDecoded = statistics.getRowsDecoded();
+        long cellsDecoded = statistics.getCellsDecoded();
+        long sheetBytes = statistics.getSheetBytesInflated();
+        long sharedStringTableLoads = statistics.getSharedStringTableLoads();
+        long archivesOpened = statistics.getArchivesOpened();
+        long metadataCacheMisses = statistics.getMetadataCacheMisses();
+        long metadataCacheHits = statistics.getMetadataCacheHits();
+
+        File resource = new File( ExcelStatisticsTest.class.getResource( "./files/rows.xlsx" ).getPath() );
+        ExcelParser parser = new ExcelParser( resource.toPath(), true );
+        String sheetName = parser.getSheetNames().get( 0 );
+        parser.getSheetMetadata( sheetName );
+        parser.getSheetMetadata( sheetName );
+        parser.getRows( sheetName, 1, parser.getRowCount( sheetName ) );
+
+        // counters are shared by all parsers of the JVM, so concurrent tests can only increase them
+        assertTrue( statistics.getRowsDecoded() > rowsDecoded );
+        assertTrue( statistics.getCellsDecoded() > cellsDecoded );
+        assertTrue( statistics.getSheetBytesInflated() > sheetBytes );
+        assertTrue( statistics.getSharedStringTableLoads() > sharedStringTableLoads );
+        assertTrue( statistics.getArchivesOpened() > archivesOpened );
+        assertTrue( statistics.getMetadataCacheMisses() > metadataCacheMisses );
+        assertTrue( statistics.getMetadataCacheHits() > metadataCacheHits );
+
+        Object rows = ManagementFactory.getPlatformMBeanServer().getAttribute( new ObjectName( ExcelStatistics.OBJECT_NAME ), "RowsDecoded" );
+        assertEquals( Long.class, rows.getClass() );
+    }
+
+    @Test
+    public void parse_phases_are_recorded_as_flight_recorder_events() throws Exception {
+        File resource = new File( ExcelStatisticsTest.class.getResource( "./files/rows.xlsx" ).getPath() );
+        Path dump = Files.createTempFile( "excel", ".jfr" );
+        try {
+            try( Recording recording = new Recording() ) {
+                recording.enable( "com.inet.excel.ParsePhase" );
+                recording.start();
+                ExcelParser parser = new ExcelParser( resource.toPath(), true );
+                String sheetName = parser.getSheetNames().get( 0 );
+                parser.getRows( sheetName, 1, 5 );
+                recording.stop();
+                recording.dump( dump );
+            }
+
+            Set<String> phases = new HashSet<>();
+            List<RecordedEvent> events = RecordingFile.readAllEvents( dump );
+            for( RecordedEvent event : events ) {
+                if( "com.inet.excel.ParsePhase".equals( event.getEventType().getName() ) && "rows.xlsx".equals( event.getString( "fileName" ) ) ) {
+                    String phase = event.getString( "phase" );
+                    phases.add( phase );
+                    if( "readRows".equals( phase ) ) {
+                        // row indexes of the sheet, which start after the header row
+                        assertEquals( 2, event.getInt( "firstRow" ) );
+                        assertEquals( 6, event.getInt( "lastRow" ) );
+                        assertTrue( event.getLong( "rowCount" ) > 0 );
+                        assertTrue( event.getLong( "bytesInflated" ) > 0 );
+                    }
+                }
+            }
+            assertTrue( phases.containsAll( List.of( "initSheetData", "initSharedStrings", "initStyles", "initDimensionAndColumnNames", "initColumnTypes", "readRows" ) ), phases.toString() );
+        } finally {
+            Files.deleteIfExists( dump );
+        }
+    }
+}
@@ -111,6 +111,38 @@ public class FormatCodeAnalyzerTest {
         }
     }
 
+    @Test
+    public void minutes_and_month_are_distinguished_by_context() {
+        assertTime( "[h]:mm:ss" );
+        assertTime( "mm:ss.0" );
+        assertTime( "h:mm AM/PM" );
+        assertDate( "mmm" );
+        assertTimestamp( "mmm:ss" ); // month, because minutes are not written with more than two letters
+        assertTimestamp( "yyyy-mm-dd hh:mm" );
+        assertDate( "[$-409]mmmm d, yyyy;@" );
+        assertVarchar( "#,##0.00 " + QUOTE + "mm" + QUOTE );
+        assertVarchar( QUOTE + "unterminated" );
+    }
+
+    @Test
+    public void long_format_codes_are_analyzed_in_linear_time() {
+        StringBuilder formatCode = new StringBuilder();
+        for( int i = 0; i < 100000; i++ ) {
+            formatCode.append( QUOTE ).append( 'd' ).append( QUOTE ).append( BACKSLASH ).append( 'y' );
+        }
+        assertVarchar( formatCode.toString() );
+        assertDate( formatCode.append( 'm' ).toString() );
+    }
+
+    @Test
+    public void cached_results_equal_analyzed_results() {
+        for( int i = 0; i < FormatCodeAnalyzer.MAX_CACHED_FORMAT_CODES + 10; i++ ) {
+            assertTime( "h:mm" + BACKSLASH + i );
+            assertDate( "dd.mm." + QUOTE + i + QUOTE );
+        }
+        assertTime( "h:mm" + BACKSLASH + 1 );
+    }
+
     private void assertVarchar( String formatCode ) {
         assertValueType( ValueType.VARCHAR, formatCode );
     }
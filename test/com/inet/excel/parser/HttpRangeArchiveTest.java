@@ -0,0 +1,110 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+public class HttpRangeArchiveTest {
+
+    @Test
+    public void parser_returns_same_data_and_fetches_only_needed_parts() throws IOException {
+        Path path = getResourcePath( "./files/rows.xlsx" );
+        byte[] document = addLargeMedia( Files.readAllBytes( path ) );
+        ExcelParser fileParser = new ExcelParser( path, true );
+
+        try( HttpTestServer server = new HttpTestServer( document );
+             HttpRangeArchive archive = new HttpRangeArchive( server.getURL( "rows.xlsx" ), 4096, Long.MAX_VALUE ) ) {
+            ExcelParser rangeParser = new ExcelParser( "rows.xlsx", archive, true );
+            assertEquals( fileParser.getSheetNames(), rangeParser.getSheetNames() );
+            assertEquals( fileParser.getColumnNames( "Sheet1" ), rangeParser.getColumnNames( "Sheet1" ) );
+            assertEquals( fileParser.getColumnTypes( "Sheet1" ), rangeParser.getColumnTypes( "Sheet1" ) );
+            int rowCount = fileParser.getRowCount( "Sheet1" );
+            assertEquals( rowCount, rangeParser.getRowCount( "Sheet1" ) );
+            assertEquals( fileParser.getRows( "Sheet1", 1, rowCount ), rangeParser.getRows( "Sheet1", 1, rowCount ) );
+
+            assertEquals( 0, server.getFullResponseCount() );
+            assertEquals( server.getTransferredBytes(), archive.getTransferredBytes() );
+            assertTrue( archive.getTransferredBytes() < document.length / 10, "transferred " + archive.getTransferredBytes() + " of " + document.length );
+
+            // all needed blocks are cached
+            long requestCount = archive.getRequestCount();
+            rangeParser.getRows( "Sheet1", 1, rowCount );
+            assertEquals( requestCount, archive.getRequestCount() );
+        }
+    }
+
+    @Test
+    public void constructor_throws_exception_if_server_does_not_support_range_requests() throws IOException {
+        try( HttpTestServer server = new HttpTestServer( Files.readAllBytes( getResourcePath( "./files/rows.xlsx" ) ) ) ) {
+            server.setRangeSupported( false );
+            assertThrows( IOException.class, () -> new HttpRangeArchive( server.getURL( "rows.xlsx" ), 4096, Long.MAX_VALUE ) );
+        }
+    }
+
+    @Test
+    public void reading_fails_if_document_was_modified_on_server() throws IOException {
+        byte[] document = addLargeMedia( Files.readAllBytes( getResourcePath( "./files/rows.xlsx" ) ) );
+        try( HttpTestServer server = new HttpTestServer( document );
+             HttpRangeArchive archive = new HttpRangeArchive( server.getURL( "rows.xlsx" ), 1024, 0 ) ) {
+            archive.open();
+            server.setContent( document.clone() );
+            ExcelParser parser = new ExcelParser( "rows.xlsx", archive, true );
+            assertThrows( ExcelParserException.class, parser::getSheetNames );
+        }
+    }
+
+    /** Adds a large, incompressible part to the Excel document, like an embedded image.
+     * @param document content of Excel document.
+     * @return content of Excel document with additional part.
+     * @throws IOException if an I/O error has occurred.
+     */
+    private static byte[] addLargeMedia( byte[] document ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try( ZipInputStream in = new ZipInputStream( new ByteArrayInputStream( document ) ); ZipOutputStream zip = new ZipOutputStream( out ) ) {
+            ZipEntry entry;
+            while( (entry = in.getNextEntry()) != null ) {
+                zip.putNextEntry( new ZipEntry( entry.getName() ) );
+                in.transferTo( zip );
+                zip.closeEntry();
+            }
+            byte[] image = new byte[1024 * 1024];
+            new Random( 42 ).nextBytes( image );
+            zip.putNextEntry( new ZipEntry( "xl/media/image1.png" ) );
+            zip.write( image );
+            zip.closeEntry();
+        }
+        return out.toByteArray();
+    }
+
+    private static Path getResourcePath( String resourcePath ) {
+        return new File( HttpRangeArchiveTest.class.getResource( resourcePath ).getPath() ).toPath();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/** Minimal HTTP server for tests, which serves a single document. It supports range requests (including "If-Range")
+ * and conditional requests ("If-None-Match" and "If-Modified-Since") and counts requests and transferred bytes.
+ */
+public class HttpTestServer implements AutoCloseable {
+
+    private static final String     LAST_MODIFIED    = "Mon, 01 Jan 2024 00:00:00 GMT";
+
+    private final HttpServer        server;
+    private final AtomicInteger     requestCount     = new AtomicInteger();
+    private final AtomicInteger     fullResponses    = new AtomicInteger();
+    private final AtomicLong        transferredBytes = new AtomicLong();
+
+    private volatile byte[]         content;
+    private volatile int            version          = 1;
+    private volatile boolean        rangeSupported   = true;
+
+    /** Starts server on a free port of the loopback interface.
+     * @param content content of the served document.
+     * @throws IOException if server could not be started.
+     */
+    public HttpTestServer( byte[] content ) throws IOException {
+        this.content = content;
+        server = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+        server.createContext( "/", this::handle );
+        server.start();
+    }
+
+    /** Returns URL of the served document.
+     * @param fileName file name used in the path of the URL.
+     * @return URL of the served document.
+     */
+    public URL getURL( String fileName ) {
+        try {
+            return new URL( "http", server.getAddress().getHostString(), server.getAddress().getPort(), "/" + fileName );
+        } catch( MalformedURLException ex ) {
+            throw new IllegalStateException( ex );
+        }
+    }
+
+    /** Replaces the served document, so that it gets a new validator.
+     * @param content new content of the served document.
+     */
+    public void setContent( byte[] content ) {
+        this.content = content;
+        version++;
+    }
+
+    /** Sets whether range requests are answered with partial content.
+     * @param rangeSupported whether range requests are answered with partial content.
+     */
+    public void setRangeSupported( boolean rangeSupported ) {
+        this.rangeSupported = rangeSupported;
+    }
+
+    /** Returns number of received requests.
+     * @return number of received requests.
+     */
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    /** Returns number of requests answered with the complete document.
+     * @return number of requests answered with the complete document.
+     */
+    public int getFullResponseCount() {
+        return fullResponses.get();
+    }
+
+    /** Returns number of bytes of the document sent in response bodies.
+     * @return number of bytes of the document sent in response bodies.
+     */
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    /** Answers a single request.
+     * @param exchange the request and its response.
+     * @throws IOException if an I/O error has occurred.
+     */
+    private void handle( HttpExchange exchange ) throws IOException {
+        requestCount.incrementAndGet();
+        byte[] data = content;
+        String eTag = "\"v" + version + "\"";
+        Headers request = exchange.getRequestHeaders();
+        Headers response = exchange.getResponseHeaders();
+        response.set( "ETag", eTag );
+        response.set( "Last-Modified", LAST_MODIFIED );
+
+        String ifNoneMatch = request.getFirst( "If-None-Match" );
+        String ifModifiedSince = request.getFirst( "If-Modified-Since" );
+        if( (ifNoneMatch != null && ifNoneMatch.equals( eTag )) || (ifNoneMatch == null && LAST_MODIFIED.equals( ifModifiedSince ) && version == 1) ) {
+            exchange.sendResponseHeaders( 304, -1 );
+            exchange.close();
+            return;
+        }
+
+        String range = request.getFirst( "Range" );
+        String ifRange = request.getFirst( "If-Range" );
+        boolean validRange = ifRange == null || ifRange.equals( eTag ) || (ifRange.equals( LAST_MODIFIED ) && version == 1);
+        if( rangeSupported && range != null && range.startsWith( "bytes=" ) && validRange ) {
+            String[] bounds = range.substring( "bytes=".length() ).split( "-", -1 );
+            long first;
+            long last;
+            if( bounds[0].isEmpty() ) {
+                first = Math.max( 0, data.length - Long.parseLong( bounds[1] ) );
+                last = data.length - 1;
+            } else {
+                first = Long.parseLong( bounds[0] );
+                last = bounds[1].isEmpty() ? data.length - 1 : Math.min( data.length - 1, Long.parseLong( bounds[1] ) );
+            }
+            if( first >= data.length || first > last ) {
+                response.set( "Content-Range", "bytes */" + data.length );
+                exchange.sendResponseHeaders( 416, -1 );
+                exchange.close();
+                return;
+            }
+            response.set( "Content-Range", "bytes " + first + "-" + last + "/" + data.length );
+            send( exchange, 206, data, (int)first, (int)(last - first + 1) );
+            return;
+        }
+        fullResponses.incrementAndGet();
+        send( exchange, 200, data, 0, data.length );
+    }
+
+    /** Sends response with specified part of the document as body.
+     * @param exchange the request and its response.
+     * @param status HTTP status code.
+     * @param data content of the document.
+     * @param offset offset of the first byte to send.
+     * @param length number of bytes to send.
+     * @throws IOException if an I/O error has occurred.
+     */
+    private void send( HttpExchange exchange, int status, byte[] data, int offset, int length ) throws IOException {
+        exchange.sendResponseHeaders( status, length == 0 ? -1 : length );
+        try( OutputStream out = exchange.getResponseBody() ) {
+            out.write( data, offset, length );
+        }
+        transferredBytes.addAndGet( length );
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        server.stop( 0 );
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class LazyValueTest {
+
+    @Test
+    public void waiting_request_loads_again_if_load_is_cancelled_by_token_of_loading_task() throws Exception {
+        LazyValue<String> value = new LazyValue<>();
+        CountDownLatch loading = new CountDownLatch( 1 );
+        CountDownLatch release = new CountDownLatch( 1 );
+        CancellationToken loadingToken = new CancellationToken();
+        CompletableFuture<String> first = CompletableFuture.supplyAsync( () -> loadingToken.run( () -> value.get( () -> {
+            loading.countDown();
+            awaitUninterruptibly( release );
+            CancellationToken.checkCurrent();
+            return "first";
+        } ) ) );
+        assertTrue( loading.await( 10, TimeUnit.SECONDS ) );
+
+        CompletableFuture<String> second = CompletableFuture.supplyAsync( () -> new CancellationToken().run( () -> value.get( () -> "second" ) ) );
+        loadingToken.cancel();
+        release.countDown();
+
+        assertEquals( "second", second.get( 10, TimeUnit.SECONDS ) );
+        Throwable cause = assertThrows( CompletionException.class, first::join ).getCause();
+        assertTrue( cause instanceof ExcelParserCancelledException );
+        assertEquals( "second", value.getIfLoaded() );
+    }
+
+    @Test
+    public void waiting_request_is_aborted_by_its_own_token() throws Exception {
+        LazyValue<String> value = new LazyValue<>();
+        CountDownLatch loading = new CountDownLatch( 1 );
+        CountDownLatch release = new CountDownLatch( 1 );
+        CompletableFuture<String> first = CompletableFuture.supplyAsync( () -> value.get( () -> {
+            loading.countDown();
+            awaitUninterruptibly( release );
+            return "first";
+        } ) );
+        assertTrue( loading.await( 10, TimeUnit.SECONDS ) );
+
+        CancellationToken token = new CancellationToken();
+        token.setTimeout( 50, TimeUnit.MILLISECONDS );
+        ExcelParserCancelledException ex = assertThrows( ExcelParserCancelledException.class, () -> token.run( () -> value.get( () -> "second" ) ) );
+        assertTrue( ex.isTimeout() );
+
+        release.countDown();
+        assertEquals( "first", first.get( 10, TimeUnit.SECONDS ) );
+        assertEquals( "first", value.get( () -> "third" ) );
+    }
+
+    /** Waits until specified latch is released, ignoring interrupts.
+     * @param latch the latch.
+     */
+    private static void awaitUninterruptibly( CountDownLatch latch ) {
+        boolean interrupted = false;
+        while( true ) {
+            try {
+                latch.await();
+                break;
+            } catch( InterruptedException ex ) {
+                interrupted = true;
+            }
+        }
+        if( interrupted ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
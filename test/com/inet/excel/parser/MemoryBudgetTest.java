@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class MemoryBudgetTest {
+
+    @Test
+    public void tryReserve_is_bounded_by_parent() {
+        MemoryBudget parent = new MemoryBudget( null, 100 );
+        MemoryBudget first = new MemoryBudget( parent, 80 );
+        MemoryBudget second = new MemoryBudget( parent, Long.MAX_VALUE );
+
+        assertTrue( first.tryReserve( 60 ) );
+        assertFalse( first.tryReserve( 30 ) );
+        assertFalse( second.tryReserve( 50 ) );
+        assertEquals( 0, second.getUsedBytes() );
+        assertTrue( second.tryReserve( 40 ) );
+        assertEquals( 100, parent.getUsedBytes() );
+
+        first.releaseAll();
+        assertEquals( 0, first.getUsedBytes() );
+        assertEquals( 40, parent.getUsedBytes() );
+        second.release( 40 );
+        assertEquals( 0, parent.getUsedBytes() );
+
+        first.recordSpill();
+        assertEquals( 1, first.getSpillCount() );
+        assertEquals( 1, parent.getSpillCount() );
+        assertEquals( 0, second.getSpillCount() );
+    }
+
+    @Test
+    public void setLimit_throws_exception_if_limit_is_negative() {
+        assertThrows( IllegalArgumentException.class, () -> new MemoryBudget( null, 0 ).setLimit( -1 ) );
+    }
+
+    @Test
+    public void spilledStringList_returns_written_strings() throws IOException {
+        List<String> strings = Arrays.asList( "", "abc", "\u00e4\u00f6\u00fc \u20ac", "", "last" );
+        SpilledStringList.Writer writer = new SpilledStringList.Writer();
+        for( String string : strings ) {
+            writer.add( string );
+        }
+        List<String> spilled = writer.finish();
+        assertEquals( strings, spilled );
+        assertThrows( IndexOutOfBoundsException.class, () -> spilled.get( strings.size() ) );
+    }
+}
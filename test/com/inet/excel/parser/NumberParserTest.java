@@ -0,0 +1,180 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class NumberParserTest {
+
+    @Test
+    public void parseDouble_equals_Double_parseDouble_for_special_texts() {
+        List<String> texts = Arrays.asList( "0", "-0", "+0", "0.0", "-0.0", "00012", "1.", ".5", "-.5", "1e5", "1E-5", "1e+5", "1e0005", "1e22",
+                                            "1e23", "1e-22", "1e-23", "9007199254740992", "9007199254740993", "-9007199254740993",
+                                            "123456789012345678", "1234567890123456789", "12345678901234567890", "0.1", "0.30000000000000004",
+                                            "1.7976931348623157E308", "1.8E308", "4.9E-324", "2.5E-324", "1e-400", "1e400", "0.000000000000000000000001",
+                                            "1.2345678901234501E-5", "44927.5", "44927.999988425923", "NaN", "-Infinity", "Infinity", " 1", "1 ",
+                                            "1d", "1f", "0x1p3", "", ".", "-", "+", "e5", "1e", "1e+", "1.2.3", "1,5", "--1", "#N/A", "1e-", "TRUE" );
+        for( String text : texts ) {
+            assertSameResult( text );
+        }
+    }
+
+    @Test
+    public void parseDouble_equals_Double_parseDouble_for_random_doubles() {
+        Random random = new Random( 4711 );
+        for( int i = 0; i < 200000; i++ ) {
+            double value;
+            switch( i % 4 ) {
+                case 0:
+                    value = Double.longBitsToDouble( random.nextLong() );
+                    break;
+                case 1:
+                    value = random.nextInt( 2000000 ) - 1000000;
+                    break;
+                case 2:
+                    value = Math.round( random.nextDouble() * 1e8 ) / 1e2;
+                    break;
+                default:
+                    value = random.nextGaussian() * Math.pow( 10, random.nextInt( 40 ) - 20 );
+                    break;
+            }
+            assertSameResult( Double.toString( value ) );
+            if( Double.isFinite( value ) ) {
+                assertSameResult( new BigDecimal( value ).toPlainString() );
+                assertSameResult( BigDecimal.valueOf( value ).toString() );
+            }
+        }
+    }
+
+    @Test
+    public void parseDouble_equals_Double_parseDouble_for_random_decimal_texts() {
+        Random random = new Random( 815 );
+        for( int i = 0; i < 200000; i++ ) {
+            StringBuilder text = new StringBuilder();
+            if( random.nextBoolean() ) {
+                text.append( '-' );
+            }
+            int digits = 1 + random.nextInt( 22 );
+            int point = random.nextInt( digits + 1 );
+            for( int d = 0; d < digits; d++ ) {
+                if( d == point ) {
+                    text.append( '.' );
+                }
+                text.append( (char)('0' + random.nextInt( 10 )) );
+            }
+            if( random.nextInt( 3 ) == 0 ) {
+                text.append( 'E' ).append( random.nextInt( 61 ) - 30 );
+            }
+            assertSameResult( text.toString() );
+        }
+    }
+
+    @Test
+    public void parseDouble_equals_Double_parseDouble_for_17_digit_mantissas() {
+        Random random = new Random( 1701 );
+        for( int i = 0; i < 200000; i++ ) {
+            long mantissa = 10000000000000000L + (long)(random.nextDouble() * 9e16);
+            String digits = Long.toString( mantissa );
+            int exponent = random.nextInt( 641 ) - 320;
+            assertSameResult( digits.charAt( 0 ) + "." + digits.substring( 1 ) + "E" + exponent );
+            assertSameResult( digits + "E" + exponent );
+        }
+        // exactly halfway between two doubles, so the result must be rounded to even
+        for( String text : Arrays.asList( "9007199254740993", "9007199254740995", "18014398509481986", "18014398509481990", "1.7976931348623158E308",
+                                          "2.2250738585072011E-308", "2.2250738585072014E-308", "1.00000000000000011102230246251565404236316680908203125" ) ) {
+            assertSameResult( text );
+        }
+    }
+
+    @Test
+    public void eiselLemire_returns_exact_result_or_NaN() {
+        assertEquals( 1.2345678901234501E-5, NumberParser.eiselLemire( 12345678901234501L, -21, false ) );
+        assertEquals( -3e23, NumberParser.eiselLemire( 3, 23, true ) );
+        assertEquals( Double.NaN, NumberParser.eiselLemire( 1, 23, false ) ); // exactly halfway, 1e23 is rounded to even by the fallback
+        assertEquals( Double.NaN, NumberParser.eiselLemire( 25, -325, false ) ); // subnormal
+        assertEquals( Double.NaN, NumberParser.eiselLemire( 18, 307, false ) ); // infinite
+        Random random = new Random( 53 );
+        for( int i = 0; i < 100000; i++ ) {
+            long significand = 1 + (long)(random.nextDouble() * 1e17);
+            int exponent = random.nextInt( 581 ) - 290; // neither subnormal nor infinite
+            String text = significand + "E" + exponent;
+            double expected = Double.parseDouble( text );
+            double value = NumberParser.eiselLemire( significand, exponent, false );
+            if( Double.isNaN( value ) ) {
+                // fallback only for values exactly halfway between two doubles
+                BigDecimal exact = BigDecimal.valueOf( significand, -exponent );
+                BigDecimal nearest = new BigDecimal( expected );
+                double neighbor = exact.compareTo( nearest ) > 0 ? Math.nextUp( expected ) : Math.nextDown( expected );
+                BigDecimal halfway = nearest.add( new BigDecimal( neighbor ) ).divide( BigDecimal.valueOf( 2 ) );
+                assertEquals( 0, exact.compareTo( halfway ), text );
+            } else {
+                assertEquals( expected, value, text );
+            }
+        }
+    }
+
+    @Test
+    public void parseLong_returns_exact_integers() {
+        assertEquals( 42, NumberParser.parseLong( "42" ) );
+        assertEquals( -7, NumberParser.parseLong( "-7" ) );
+        assertEquals( 0, NumberParser.parseLong( "+0" ) );
+        assertEquals( 9007199254740993L, NumberParser.parseLong( "9007199254740993" ) );
+        assertEquals( 12345678901234567L, NumberParser.parseLong( "12345678901234567" ) );
+        assertEquals( 999999999999999999L, NumberParser.parseLong( "999999999999999999" ) );
+        assertEquals( -999999999999999999L, NumberParser.parseLong( "-999999999999999999" ) );
+        for( String text : Arrays.asList( "1.5", "1.0", "1e3", "1E3", "1000000000000000000", "9223372036854775807", "", "-", "+", " 1", "1 ",
+                                          "0x10", "NaN", "#N/A" ) ) {
+            assertEquals( NumberParser.NOT_A_LONG, NumberParser.parseLong( text ), text );
+        }
+    }
+
+    @Test
+    public void parse_returns_null_for_invalid_texts() {
+        assertNull( NumberParser.parse( null ) );
+        assertNull( NumberParser.parse( "abc" ) );
+        assertNull( NumberParser.parse( "" ) );
+        assertEquals( Double.valueOf( 42 ), NumberParser.parse( "42" ) );
+    }
+
+    /** Checks that text is parsed to the identical double as by {@link Double#parseDouble(String)} or is rejected by both.
+     * @param text text to parse.
+     */
+    private static void assertSameResult( String text ) {
+        double expected;
+        try {
+            expected = Double.parseDouble( text );
+        } catch( NumberFormatException ex ) {
+            try {
+                double actual = NumberParser.parseDouble( text );
+                fail( "\"" + text + "\" should be rejected, but was parsed to " + actual );
+            } catch( NumberFormatException expectedException ) {
+                // rejected by both
+            }
+            return;
+        }
+        double actual = NumberParser.parseDouble( text );
+        assertEquals( Double.doubleToRawLongBits( expected ), Double.doubleToRawLongBits( actual ), text );
+    }
+}
@@ -16,8 +16,10 @@
 package com.inet.excel.parser;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
@@ -66,6 +68,30 @@ public class SheetDimensionTest {
         assertEquals( expectedLast, dimension.getLastColumnIndex() );
     }
 
+    @Test
+    public void parse_includes_row_indexes_of_dimension_ref() {
+        assertRows( 3, 6, "A3:C6" );
+        assertRows( 2, 2, "B2" );
+        assertRows( 1, 1048576, "A1:XFD1048576" );
+        assertRows( 0, 0, "A:C" );
+        assertRows( 0, 0, "A9:C3" );
+    }
+
+    private void assertRows( int expectedFirst, int expectedLast, String toParse ) {
+        SheetDimension dimension = SheetDimension.parse( toParse );
+        assertEquals( expectedFirst, dimension.getFirstRowIndex() );
+        assertEquals( expectedLast, dimension.getLastRowIndex() );
+    }
+
+    @Test
+    public void getRowIndexFromCellRef_returns_zero_for_invalid_refs() {
+        assertEquals( 44, SheetDimension.getRowIndexFromCellRef( "BB44" ) );
+        assertEquals( 0, SheetDimension.getRowIndexFromCellRef( null ) );
+        assertEquals( 0, SheetDimension.getRowIndexFromCellRef( "44" ) );
+        assertEquals( 0, SheetDimension.getRowIndexFromCellRef( "A4B" ) );
+        assertEquals( 0, SheetDimension.getRowIndexFromCellRef( "A99999999999" ) );
+    }
+
     @Test
     public void parse_returns_null_if_dimension_ref_is_invalid() {
         List<String> invalidRefs = Arrays.asList( null, //
@@ -109,4 +135,13 @@ public class SheetDimensionTest {
             assertEquals( 0, SheetDimension.getColumnIndexFromCellRef( ref ), "ref=\"" + ref + "\"" );
         }
     }
+
+    @Test
+    public void reachesSheetLimits_detects_dimensions_of_whole_rows_or_columns() {
+        assertTrue( SheetDimension.parse( "A1:XFD1048576" ).reachesSheetLimits() );
+        assertTrue( SheetDimension.parse( "A1:C1048576" ).reachesSheetLimits() );
+        assertTrue( SheetDimension.parse( "A1:XFD20" ).reachesSheetLimits() );
+        assertFalse( SheetDimension.parse( "A1:XFC1048575" ).reachesSheetLimits() );
+        assertFalse( SheetDimension.parse( "B2:F9" ).reachesSheetLimits() );
+    }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SparseRowTest {
+
+    @Test
+    public void of_creates_sparse_row_if_fill_ratio_is_low() {
+        List<Object> row = SparseRow.of( 2000, new int[] { 3, 500, 1999 }, new Object[] { "a", Double.valueOf( 2 ), "c" }, 3 );
+
+        assertTrue( row instanceof SparseRow );
+        assertEquals( 3, ((SparseRow)row).getValueCount() );
+        assertEquals( 2000, row.size() );
+        assertEquals( "a", row.get( 3 ) );
+        assertEquals( Double.valueOf( 2 ), row.get( 500 ) );
+        assertEquals( "c", row.get( 1999 ) );
+        assertNull( row.get( 0 ) );
+        assertNull( row.get( 501 ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> row.get( 2000 ) );
+        assertThrows( IndexOutOfBoundsException.class, () -> row.get( -1 ) );
+    }
+
+    @Test
+    public void of_creates_dense_row_if_fill_ratio_is_high_or_row_is_narrow() {
+        List<Object> row = SparseRow.of( 4, new int[] { 1 }, new Object[] { "a" }, 1 );
+        assertFalse( row instanceof SparseRow );
+        assertEquals( Arrays.asList( null, "a", null, null ), row );
+
+        row = SparseRow.of( 20, new int[] { 0, 1, 2, 3, 4, 5 }, new Object[] { "a", "b", "c", "d", "e", "f" }, 6 );
+        assertFalse( row instanceof SparseRow );
+        assertEquals( "f", row.get( 5 ) );
+    }
+
+    @Test
+    public void of_creates_dense_row_if_column_indexes_are_not_ascending() {
+        List<Object> row = SparseRow.of( 100, new int[] { 7, 2, 7 }, new Object[] { "a", "b", "c" }, 3 );
+        assertFalse( row instanceof SparseRow );
+        assertEquals( "b", row.get( 2 ) );
+        assertEquals( "c", row.get( 7 ) );
+    }
+
+    @Test
+    public void sparse_row_equals_dense_row_with_same_values() {
+        Object[] dense = new Object[32];
+        dense[10] = "x";
+        assertEquals( Arrays.asList( dense ), SparseRow.of( 32, new int[] { 10 }, new Object[] { "x" }, 1 ) );
+        assertEquals( Collections.nCopies( 32, null ), SparseRow.empty( 32 ) );
+    }
+
+    @Test
+    public void numbers_are_parsed_on_first_access_and_keep_their_text() {
+        for( int columnCount : new int[] { 5, 100 } ) {
+            byte[] kinds = { SheetRow.NUMBER_OR_TEXT, SheetRow.NUMBER_OR_TEXT, SheetRow.NUMBER, SheetRow.VALUE };
+            List<Object> row = SparseRow.of( columnCount, new int[] { 0, 1, 2, 3 }, new Object[] { "1.50", "n/a", "#N/A", "7" }, kinds, 4 );
+            Object value = row.get( 0 );
+            assertEquals( Double.valueOf( 1.5 ), value );
+            assertSame( value, row.get( 0 ) ); // parsed only once
+            assertEquals( "n/a", row.get( 1 ) );
+            assertNull( row.get( 2 ) );
+            assertEquals( "7", row.get( 3 ) );
+
+            SheetRow sheetRow = (SheetRow)row;
+            assertEquals( "1.50", sheetRow.getText( 0 ) );
+            assertEquals( "n/a", sheetRow.getText( 1 ) );
+            assertNull( sheetRow.getText( 2 ) ); // null like the value of the cell
+            assertEquals( "7", sheetRow.getText( 3 ) );
+            assertNull( sheetRow.getText( columnCount - 1 ) );
+        }
+    }
+}
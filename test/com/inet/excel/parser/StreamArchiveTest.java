@@ -0,0 +1,165 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class StreamArchiveTest {
+
+    @Test
+    public void parser_returns_same_data_if_document_is_read_from_stream() throws IOException {
+        assertSameData( "./files/rows.xlsx", "Sheet1", Long.MAX_VALUE );
+        assertSameData( "./files/dates.xlsx", "Sheet1", Long.MAX_VALUE );
+    }
+
+    @Test
+    public void parser_returns_same_data_if_parts_are_spilled_to_temporary_files() throws IOException {
+        assertSameData( "./files/rows.xlsx", "Sheet1", 0 );
+        assertSameData( "./files/column_types.xlsx", "MixedTypes", 0 );
+    }
+
+    @Test
+    public void source_is_read_once_and_closed() throws IOException {
+        CountingStream source = new CountingStream( new ByteArrayInputStream( readResource( "./files/row_count.xlsx" ) ) );
+        try( StreamArchive archive = new StreamArchive( source, Long.MAX_VALUE ) ) {
+            ExcelParser parser = new ExcelParser( "row_count.xlsx", archive, false );
+            assertEquals( 3, parser.getRowCount( "Sheet1" ) );
+            assertTrue( source.closed );
+            int openCount = source.openCount;
+            assertEquals( 17, parser.getRowCount( "Sheet2" ) );
+            assertEquals( openCount, source.openCount );
+        }
+    }
+
+    @Test
+    public void only_parts_needed_for_reading_data_are_retained() throws IOException {
+        try( StreamArchive archive = new StreamArchive( new ByteArrayInputStream( readResource( "./files/rows.xlsx" ) ), Long.MAX_VALUE ) ) {
+            new ExcelParser( "rows.xlsx", archive, false ).getRows( "Sheet1", 1, 1 );
+
+            assertNotNull( archive.getInputStream( "xl/workbook.xml" ) );
+            assertNotNull( archive.getInputStream( "xl/worksheets/sheet1.xml" ) );
+            assertNull( archive.getInputStream( "xl/theme/theme1.xml" ) );
+            // parsed while stream was read
+            assertNull( archive.getInputStream( "xl/styles.xml" ) );
+            assertNull( archive.getInputStream( "xl/sharedStrings.xml" ) );
+        }
+    }
+
+    @Test
+    public void spilled_parts_are_deleted_on_close() throws IOException {
+        StreamArchive archive = new StreamArchive( new ByteArrayInputStream( readResource( "./files/rows.xlsx" ) ), 0 );
+        archive.load();
+        assertTrue( archive.getSpilledEntryCount() > 0 );
+        archive.close();
+        assertEquals( 0, archive.getSpilledEntryCount() );
+        assertThrows( IOException.class, () -> archive.getInputStream( "xl/workbook.xml" ) );
+    }
+
+    @Test
+    public void load_throws_exception_if_stream_is_not_a_zip_file() {
+        StreamArchive archive = new StreamArchive( new ByteArrayInputStream( new byte[] { 1, 2, 3 } ), Long.MAX_VALUE );
+        ExcelParser parser = new ExcelParser( "invalid.xlsx", archive, false );
+        assertThrows( ExcelParserException.class, parser::getSheetNames );
+        assertThrows( ExcelParserException.class, parser::getSheetNames );
+    }
+
+    @Test
+    public void cancelled_query_does_not_break_the_archive_for_later_queries() throws IOException {
+        StringBuilder sharedStrings = new StringBuilder( "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" );
+        sharedStrings.append( "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">" );
+        for( int i = 0; i < 5000; i++ ) {
+            sharedStrings.append( "<si><t>s" ).append( i ).append( "</t></si>" );
+        }
+        sharedStrings.append( "</sst>" );
+        String rows = "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>4999</v></c></row>";
+        byte[] workbook = TestWorkbooks.createWorkbook( "A1:A1", rows, Collections.singletonMap( "xl/sharedStrings.xml", sharedStrings.toString() ) );
+
+        CancellationToken token = new CancellationToken();
+        InputStream source = new FilterInputStream( new ByteArrayInputStream( workbook ) ) {
+            @Override
+            public int read( byte[] b, int off, int len ) throws IOException {
+                token.cancel(); // first query is cancelled while the stream is read
+                return super.read( b, off, len );
+            }
+        };
+        try( StreamArchive archive = new StreamArchive( source, Long.MAX_VALUE ) ) {
+            ExcelParser parser = new ExcelParser( "cancelled.xlsx", archive, false );
+            assertThrows( ExcelParserCancelledException.class, () -> token.run( () -> parser.getRows( "Sheet1", 1, 1 ) ) );
+
+            List<List<Object>> result = new CancellationToken().run( () -> parser.getRows( "Sheet1", 1, 1 ) );
+            assertEquals( "s4999", result.get( 0 ).get( 0 ) );
+        }
+    }
+
+    private void assertSameData( String resourcePath, String sheetName, long inMemoryThreshold ) throws IOException {
+        Path path = new File( StreamArchiveTest.class.getResource( resourcePath ).getPath() ).toPath();
+        ExcelParser fileParser = new ExcelParser( path, true );
+        try( StreamArchive archive = new StreamArchive( Files.newInputStream( path ), inMemoryThreshold ) ) {
+            ExcelParser streamParser = new ExcelParser( path.getFileName().toString(), archive, true );
+            assertEquals( fileParser.getSheetNames(), streamParser.getSheetNames() );
+            assertEquals( fileParser.getColumnNames( sheetName ), streamParser.getColumnNames( sheetName ) );
+            assertEquals( fileParser.getColumnTypes( sheetName ), streamParser.getColumnTypes( sheetName ) );
+            int rowCount = fileParser.getRowCount( sheetName );
+            assertEquals( rowCount, streamParser.getRowCount( sheetName ) );
+            assertFalse( rowCount == 0 );
+            assertEquals( fileParser.getRows( sheetName, 1, rowCount ), streamParser.getRows( sheetName, 1, rowCount ) );
+        }
+    }
+
+    private static byte[] readResource( String resourcePath ) throws IOException {
+        return Files.readAllBytes( new File( StreamArchiveTest.class.getResource( resourcePath ).getPath() ).toPath() );
+    }
+
+    /** Stream remembering whether it was closed and how often data was requested.
+     */
+    private static class CountingStream extends FilterInputStream {
+        private boolean closed;
+        private int     openCount;
+
+        private CountingStream( InputStream in ) {
+            super( in );
+        }
+
+        @Override
+        public int read( byte[] b, int off, int len ) throws IOException {
+            openCount++;
+            return super.read( b, off, len );
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
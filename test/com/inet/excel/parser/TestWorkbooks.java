@@ -0,0 +1,96 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/** Creates Excel documents for tests, which are based on "rows.xlsx" but with generated content of its single sheet "Sheet1".
+ */
+public class TestWorkbooks {
+
+    /** Creates Excel document with specified content of "Sheet1".
+     * @param dimensionRef reference of the dimension of the sheet or null for a sheet without dimension.
+     * @param sheetData content of element "sheetData", i.e. the rows of the sheet.
+     * @return content of Excel document.
+     */
+    public static byte[] createWorkbook( String dimensionRef, CharSequence sheetData ) {
+        return createWorkbook( dimensionRef, sheetData, null );
+    }
+
+    /** Creates Excel document with specified content of "Sheet1" and optionally replaced parts.
+     * @param dimensionRef reference of the dimension of the sheet or null for a sheet without dimension.
+     * @param sheetData content of element "sheetData", i.e. the rows of the sheet.
+     * @param replacedParts optional content of other parts, e.g. "docProps/app.xml", which replace the original content.
+     * @return content of Excel document.
+     */
+    public static byte[] createWorkbook( String dimensionRef, CharSequence sheetData, Map<String, String> replacedParts ) {
+        StringBuilder sheet = new StringBuilder();
+        sheet.append( "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" );
+        sheet.append( "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">" );
+        if( dimensionRef != null ) {
+            sheet.append( "<dimension ref=\"" ).append( dimensionRef ).append( "\"/>" );
+        }
+        sheet.append( "<sheetData>" ).append( sheetData ).append( "</sheetData></worksheet>" );
+
+        try {
+            byte[] template = Files.readAllBytes( new File( TestWorkbooks.class.getResource( "./files/rows.xlsx" ).getPath() ).toPath() );
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try( ZipInputStream in = new ZipInputStream( new ByteArrayInputStream( template ) ); ZipOutputStream zip = new ZipOutputStream( out ) ) {
+                ZipEntry entry;
+                while( (entry = in.getNextEntry()) != null ) {
+                    String name = entry.getName();
+                    zip.putNextEntry( new ZipEntry( name ) );
+                    if( name.equals( "xl/worksheets/sheet1.xml" ) ) {
+                        zip.write( sheet.toString().getBytes( StandardCharsets.UTF_8 ) );
+                    } else if( replacedParts != null && replacedParts.containsKey( name ) ) {
+                        zip.write( replacedParts.get( name ).getBytes( StandardCharsets.UTF_8 ) );
+                    } else {
+                        in.transferTo( zip );
+                    }
+                    zip.closeEntry();
+                }
+            }
+            return out.toByteArray();
+        } catch( IOException ex ) {
+            throw new UncheckedIOException( ex );
+        }
+    }
+
+    /** Returns XML of a row with cells of inline strings (type "str").
+     * @param rowIndex index of the row.
+     * @param values values of the cells, starting with column A. Null values are omitted.
+     * @return XML of the row.
+     */
+    public static String row( int rowIndex, String... values ) {
+        StringBuilder row = new StringBuilder( "<row r=\"" ).append( rowIndex ).append( "\">" );
+        for( int i = 0; i < values.length; i++ ) {
+            if( values[i] != null ) {
+                row.append( "<c r=\"" ).append( (char)('A' + i) ).append( rowIndex ).append( "\" t=\"str\"><v>" ).append( values[i] ).append( "</v></c>" );
+            }
+        }
+        return row.append( "</row>" ).toString();
+    }
+}
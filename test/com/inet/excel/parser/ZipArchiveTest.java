@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 - 2024 i-net software
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.inet.excel.parser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+public class ZipArchiveTest {
+
+    @Test
+    public void getInputStream_returns_content_of_deflated_and_stored_entries() throws IOException {
+        byte[] text = "<workbook><sheets/></workbook>".getBytes( StandardCharsets.UTF_8 );
+        byte[] random = new byte[200_000];
+        new Random( 42 ).nextBytes( random );
+
+        ByteBuffer zip = createZip( "archive comment", text, random );
+        try( ExcelArchive archive = new ByteBufferArchive( zip ).open() ) {
+            assertArrayEquals( text, readAll( archive.getInputStream( "xl/workbook.xml" ) ) );
+            assertArrayEquals( random, readAll( archive.getInputStream( "xl/media/image.bin" ) ) );
+            assertArrayEquals( text, readAll( archive.getInputStream( "stored.xml" ) ) );
+        }
+    }
+
+    @Test
+    public void getInputStream_returns_null_for_missing_entry() throws IOException {
+        ByteBuffer zip = createZip( null, new byte[0], new byte[0] );
+        try( ExcelArchive archive = new ByteBufferArchive( zip ).open() ) {
+            assertNull( archive.getInputStream( "xl/sharedStrings.xml" ) );
+        }
+    }
+
+    @Test
+    public void open_throws_exception_if_data_is_not_a_zip_file() {
+        ByteBuffer noZip = ByteBuffer.wrap( "this is not a zip file, but some plain text of sufficient length".getBytes( StandardCharsets.UTF_8 ) );
+        assertThrows( ZipException.class, () -> new ByteBufferArchive( noZip ).open() );
+        assertThrows( ZipException.class, () -> new ByteBufferArchive( ByteBuffer.allocate( 0 ) ).open() );
+    }
+
+    /** Creates zip file with one small deflated entry, one large deflated entry and one stored entry.
+     * @param comment optional comment of the zip file.
+     * @param text content of the small deflated entry and the stored entry.
+     * @param binary content of the large deflated entry.
+     * @return content of the zip file.
+     * @throws IOException if an I/O error has occurred.
+     */
+    private static ByteBuffer createZip( String comment, byte[] text, byte[] binary ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try( ZipOutputStream zip = new ZipOutputStream( out ) ) {
+            if( comment != null ) {
+                zip.setComment( comment );
+            }
+            zip.putNextEntry( new ZipEntry( "xl/workbook.xml" ) );
+            zip.write( text );
+            zip.putNextEntry( new ZipEntry( "xl/media/image.bin" ) );
+            zip.write( binary );
+
+            ZipEntry stored = new ZipEntry( "stored.xml" );
+            stored.setMethod( ZipEntry.STORED );
+            stored.setSize( text.length );
+            CRC32 crc = new CRC32();
+            crc.update( text );
+            stored.setCrc( crc.getValue() );
+            zip.putNextEntry( stored );
+            zip.write( text );
+        }
+        return ByteBuffer.wrap( out.toByteArray() );
+    }
+
+    private static byte[] readAll( InputStream is ) throws IOException {
+        try( InputStream in = is ) {
+            return in.readAllBytes();
+        }
+    }
+}